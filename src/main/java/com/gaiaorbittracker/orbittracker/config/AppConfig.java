@@ -1,5 +1,7 @@
 package com.gaiaorbittracker.orbittracker.config;
 
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernel;
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernels;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
@@ -10,4 +12,11 @@ public class AppConfig {
     public RestTemplate restTemplate() {
         return new RestTemplate();
     }
+
+    @Bean
+    public PropagationKernel propagationKernel() {
+        PropagationKernel kernel = PropagationKernels.select();
+        System.out.println("Propagation kernel: " + kernel.name());
+        return kernel;
+    }
 }
@@ -0,0 +1,72 @@
+package com.gaiaorbittracker.orbittracker.config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.service.codec.ColumnarResultCodec;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes prediction results and job statuses as CBOR or in the columnar float64 format
+ * ({@link ColumnarResultCodec}). A job's stored result is embedded as structure under {@code result}, where JSON
+ * responses carry it as the {@code resultJson} string.
+ */
+public class ResultFormatConverter extends AbstractHttpMessageConverter<Object> {
+
+    private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {};
+
+    private final ObjectMapper json;
+    private final CBORMapper cbor = new CBORMapper();
+    private final boolean columnar;
+
+    public ResultFormatConverter(ObjectMapper json, MediaType mediaType) {
+        super(mediaType);
+        this.json = json;
+        this.columnar = !MediaType.APPLICATION_CBOR.equals(mediaType);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PredictionResultDto.class.isAssignableFrom(clazz) || JobStatusDto.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage input) {
+        throw new HttpMessageNotReadableException("Response format only", input);
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage output) throws IOException {
+        if (!columnar && body instanceof PredictionResultDto) {
+            cbor.writeValue(output.getBody(), body); // no tree needed
+            return;
+        }
+        Map<String, Object> document;
+        if (body instanceof PredictionResultDto result) {
+            document = new LinkedHashMap<>();
+            document.put("summary", result.getSummary());
+            document.put("data", result.getData());
+        } else {
+            document = json.convertValue(body, MAP);
+            Object resultJson = document.remove("resultJson");
+            if (resultJson instanceof String s) document.put("result", json.readValue(s, MAP));
+        }
+        if (columnar) ColumnarResultCodec.write(document, output.getBody());
+        else cbor.writeValue(output.getBody(), document);
+    }
+}
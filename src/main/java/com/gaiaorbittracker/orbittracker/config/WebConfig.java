@@ -0,0 +1,40 @@
+package com.gaiaorbittracker.orbittracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.service.codec.ColumnarResultCodec;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary result formats by content negotiation ({@code Accept: application/cbor} or
+ * {@code Accept: application/vnd.orbit-tracker.columns}); JSON stays the default for anything else.
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper mapper;
+
+    public WebConfig(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // after the JSON converter, so */* still gets JSON; before the generic CBOR one, which would send
+        // a job's stored result as a JSON string
+        int cbor = converters.size();
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                cbor = i;
+                break;
+            }
+        }
+        converters.add(cbor, new ResultFormatConverter(mapper, MediaType.APPLICATION_CBOR));
+        converters.add(new ResultFormatConverter(mapper, MediaType.parseMediaType(ColumnarResultCodec.MEDIA_TYPE)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.gaiaorbittracker.orbittracker.controller;
+
+import com.gaiaorbittracker.orbittracker.dto.EncounterRequest;
+import com.gaiaorbittracker.orbittracker.dto.PairEncounterRequest;
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.service.PredictionService;
+import com.gaiaorbittracker.orbittracker.service.encounter.EncounterSearchService;
+import com.gaiaorbittracker.orbittracker.service.queue.BatchTooLargeException;
+import com.gaiaorbittracker.orbittracker.service.queue.QueueFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/encounters")
+public class EncounterController {
+
+    private final EncounterSearchService encounterSearch;
+    private final PredictionService predictionService;
+
+    public EncounterController(EncounterSearchService encounterSearch, PredictionService predictionService) {
+        this.encounterSearch = encounterSearch;
+        this.predictionService = predictionService;
+    }
+
+    /** Synchronous top-K close-encounter search. JSON body = EncounterRequest (empty body searches the local catalogue). */
+    @PostMapping
+    public ResponseEntity<PredictionResultDto> search(@RequestBody(required = false) EncounterRequest request) {
+        try {
+            PredictionResultDto result = encounterSearch.search(request != null ? request : new EncounterRequest());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                new PredictionResultDto("Error: " + e.getMessage(), Map.of("error", e.getMessage()))
+            );
+        }
+    }
+
+    /** Star-star pairs that pass within thresholdPc of each other. JSON body = PairEncounterRequest. */
+    @PostMapping("/pairs")
+    public ResponseEntity<PredictionResultDto> searchPairs(@RequestBody(required = false) PairEncounterRequest request) {
+        try {
+            PredictionResultDto result = encounterSearch.searchPairs(request != null ? request : new PairEncounterRequest());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(
+                new PredictionResultDto("Error: " + e.getMessage(), Map.of("error", e.getMessage()))
+            );
+        }
+    }
+
+    /** Submit an encounter search as an async bulk-priority job; poll /api/status/{jobId}. */
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submit(@RequestBody(required = false) EncounterRequest request,
+                                    @RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                    HttpServletRequest httpRequest) {
+        try {
+            UUID jobId = predictionService.submitEncounterJob(request != null ? request : new EncounterRequest(),
+                PredictionController.clientId(clientId, httpRequest));
+            return ResponseEntity.accepted().body(jobId.toString());
+        } catch (QueueFullException e) {
+            return PredictionController.tooManyRequests(e);
+        } catch (BatchTooLargeException e) {
+            return PredictionController.payloadTooLarge(e);
+        }
+    }
+}
@@ -1,15 +1,36 @@
 package com.gaiaorbittracker.orbittracker.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
 import com.gaiaorbittracker.orbittracker.dto.StarInput;
-import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import com.gaiaorbittracker.orbittracker.model.PredictionBatch;
 import com.gaiaorbittracker.orbittracker.service.PredictionService;
 import com.gaiaorbittracker.orbittracker.service.GaiaService;
+import com.gaiaorbittracker.orbittracker.service.PredictionExporter;
+import com.gaiaorbittracker.orbittracker.service.StarInputStreamReader;
+import com.gaiaorbittracker.orbittracker.service.TrajectoryDownsampler;
+import com.gaiaorbittracker.orbittracker.service.queue.JobPriority;
+import com.gaiaorbittracker.orbittracker.service.queue.BatchTooLargeException;
+import com.gaiaorbittracker.orbittracker.service.queue.QueueFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -19,49 +40,171 @@ public class PredictionController {
 
     private final PredictionService service;
     private final GaiaService gaiaService;
+    private final PredictionExporter exporter;
+    private final ObjectMapper mapper = new ObjectMapper();
 
-    public PredictionController(PredictionService service, GaiaService gaiaService) {
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    public PredictionController(PredictionService service, GaiaService gaiaService, PredictionExporter exporter) {
         this.service = service;
         this.gaiaService = gaiaService;
+        this.exporter = exporter;
     }
 
     /**
-     * Submit prediction job. Returns jobId immediately (202 Accepted).
-     * JSON body = StarInput
+     * Submit prediction job. Returns jobId immediately (202 Accepted), or 429 with Retry-After when the queue is full.
+     * JSON body = StarInput; optional X-Client-Id header for fair scheduling (defaults to the remote address).
      */
     @PostMapping("/predict")
-    public ResponseEntity<String> submitPrediction(@RequestBody StarInput input) {
-        UUID jobId = service.submitJob(input);
-        return ResponseEntity.accepted().body(jobId.toString());
+    public ResponseEntity<?> submitPrediction(@RequestBody StarInput input,
+                                              @RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                              HttpServletRequest request) {
+        try {
+            UUID jobId = service.submitJob(input, clientId(clientId, request), JobPriority.INTERACTIVE);
+            return ResponseEntity.accepted().body(jobId.toString());
+        } catch (QueueFullException e) {
+            return tooManyRequests(e);
+        } catch (BatchTooLargeException e) {
+            return payloadTooLarge(e);
+        }
+    }
+
+    /**
+     * Cancel a job: 200 when it was still queued (now CANCELLED), 202 when it is running and will stop at its next
+     * check, 409 when it has finished or its computation is shared with other submissions (it is LINKED, or other
+     * jobs are LINKED to it).
+     */
+    @DeleteMapping("/predict/{jobId}")
+    public ResponseEntity<?> cancelPrediction(@PathVariable("jobId") UUID jobId) {
+        switch (service.cancelJob(jobId)) {
+            case NOT_FOUND:
+                return ResponseEntity.notFound().build();
+            case NOT_CANCELLABLE:
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("error", "Job has finished or shares its computation with other submissions"));
+            case CANCELLING:
+                return ResponseEntity.accepted().body(Map.of("jobId", jobId.toString(), "status", "CANCELLING"));
+            default:
+                return ResponseEntity.ok(Map.of("jobId", jobId.toString(), "status", "CANCELLED"));
+        }
     }
 
-    /** Poll status and result */
+    /**
+     * Poll status; the result is included once the job has finished. With {@code maxPoints}, its trajectory and
+     * bands are downsampled for charting (the stored result keeps full resolution).
+     */
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<?> getStatus(@PathVariable("jobId") UUID jobId) {
-        Optional<PredictionJob> job = service.getJob(jobId);
+    public ResponseEntity<?> getStatus(@PathVariable("jobId") UUID jobId,
+                                       @RequestParam(value = "maxPoints", required = false) Integer maxPoints) {
+        if (maxPoints != null && maxPoints < TrajectoryDownsampler.MIN_POINTS) {
+            return ResponseEntity.badRequest().body(Map.of("error", "maxPoints must be at least " + TrajectoryDownsampler.MIN_POINTS));
+        }
+        Optional<JobStatusDto> job = service.getJob(jobId);
         if (job.isEmpty()) return ResponseEntity.notFound().build();
+        if (maxPoints != null && job.get().getResultJson() != null) {
+            job.get().setResultJson(service.downsampleJson(job.get().getResultJson(), maxPoints));
+        }
         return ResponseEntity.ok(job.get());
     }
 
+    /**
+     * Server-Sent Events instead of polling: status transitions, Monte Carlo progress and trajectory chunks as they
+     * are computed, then a {@code result} event with the full result (downsampled to {@code maxPoints} when given);
+     * the stream ends after it.
+     */
+    @GetMapping(value = "/status/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamStatus(@PathVariable("jobId") UUID jobId,
+                                                   @RequestParam(value = "maxPoints", required = false) Integer maxPoints) {
+        if (maxPoints != null && maxPoints < TrajectoryDownsampler.MIN_POINTS) return ResponseEntity.badRequest().build();
+        return service.subscribeJob(jobId, maxPoints).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Jobs newest first, without results, {@code limit} per page (max 1000). Optional filters: {@code status}
+     * and a submittedAt window [{@code from}, {@code until}) as ISO-8601 instants. Pass {@code nextCursor} from a
+     * response as {@code cursor} for the following page; it is null on the last page.
+     */
     @GetMapping("/predictions")
-    public ResponseEntity<List<PredictionJob>> listPredictions() {
-        return ResponseEntity.ok(service.listAll());
+    public ResponseEntity<?> listPredictions(@RequestParam(value = "status", required = false) String status,
+                                             @RequestParam(value = "from", required = false) String from,
+                                             @RequestParam(value = "until", required = false) String until,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, limit));
+        List<JobStatusDto> page;
+        try {
+            Instant afterSubmittedAt = null;
+            UUID afterId = null;
+            if (cursor != null && !cursor.isBlank()) {
+                int sep = cursor.indexOf('_');
+                if (sep < 0) throw new IllegalArgumentException("Malformed cursor");
+                afterSubmittedAt = Instant.parse(cursor.substring(0, sep));
+                afterId = UUID.fromString(cursor.substring(sep + 1));
+            }
+            page = service.listJobs(blankToNull(status), parseInstant(from), parseInstant(until),
+                    afterSubmittedAt, afterId, pageSize);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid listing parameter: " + e.getMessage()));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", page);
+        JobStatusDto last = page.size() == pageSize ? page.get(page.size() - 1) : null;
+        body.put("nextCursor", last == null ? null : last.getSubmittedAt() + "_" + last.getId());
+        return ResponseEntity.ok(body);
     }
 
+    /**
+     * Export jobs as CSV (default) or NDJSON ({@code format=ndjson}), streamed from a database cursor. With
+     * {@code trajectory=true} each predicted point of a finished job is its own row. {@code gzip=true} compresses on
+     * the fly (Content-Encoding when the client accepts gzip, otherwise a .gz download). Filters as for the listing.
+     */
     @GetMapping("/predictions/export")
-    public ResponseEntity<String> exportPredictions() {
-        List<PredictionJob> jobs = service.listAll();
-        StringBuilder sb = new StringBuilder();
-        sb.append("id,gaiaId,submittedAt,status\n");
-        for (PredictionJob j : jobs) {
-            sb.append(j.getId()).append(',')
-              .append(j.getGaiaId() == null ? "" : j.getGaiaId()).append(',')
-              .append(j.getSubmittedAt()).append(',')
-              .append(j.getStatus()).append('\n');
+    public ResponseEntity<StreamingResponseBody> exportPredictions(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                               @RequestParam(value = "trajectory", defaultValue = "false") boolean trajectory,
+                                               @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                               @RequestParam(value = "status", required = false) String status,
+                                               @RequestParam(value = "from", required = false) String from,
+                                               @RequestParam(value = "until", required = false) String until,
+                                               @RequestHeader(value = "Accept-Encoding", required = false) String acceptEncoding)
+            throws IOException {
+        PredictionExporter.Format exportFormat;
+        Instant fromInstant, untilInstant;
+        try {
+            exportFormat = PredictionExporter.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            fromInstant = parseInstant(from);
+            untilInstant = parseInstant(until);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // the streaming return type needs a streamed error body too
+            byte[] error = mapper.writeValueAsBytes(Map.of("error", "Invalid export parameter: " + e.getMessage()));
+            return ResponseEntity.badRequest().header("Content-Type", "application/json").body(out -> out.write(error));
+        }
+        String filterStatus = blankToNull(status);
+        boolean contentEncoding = gzip && acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+        String fileName = "predictions." + (exportFormat == PredictionExporter.Format.CSV ? "csv" : "ndjson");
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 1 << 16) : out;
+            exporter.export(target, exportFormat, trajectory, filterStatus, fromInstant, untilInstant);
+            if (gzip) ((GZIPOutputStream) target).finish();
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (gzip && !contentEncoding) {
+            response.header("Content-Type", "application/gzip")
+                    .header("Content-Disposition", "attachment; filename=\"" + fileName + ".gz\"");
+        } else {
+            response.header("Content-Type", exportFormat == PredictionExporter.Format.CSV ? "text/csv" : "application/x-ndjson")
+                    .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"");
+            if (contentEncoding) response.header("Content-Encoding", "gzip");
         }
-        return ResponseEntity.ok()
-                .header("Content-Type", "text/csv")
-                .body(sb.toString());
+        return response.body(body);
+    }
+
+    private static Instant parseInstant(String value) {
+        return value == null || value.isBlank() ? null : Instant.parse(value.trim());
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toUpperCase(Locale.ROOT);
     }
 
     @GetMapping("/health")
@@ -70,17 +213,126 @@ public class PredictionController {
     }
 
     // Batch endpoints
+    /**
+     * Bulk priority; the whole batch is admitted or rejected with 429. A batch needing more slots than bulk work can
+     * ever hold gets 413 with {@code maxBatchSize}; split it, or use the streaming upload, which admits in chunks.
+     */
     @PostMapping("/predict/batch")
-    public ResponseEntity<List<String>> submitBatch(@RequestBody List<StarInput> inputs) {
-        List<String> ids = inputs.stream()
-                .map(service::submitJob)
-                .map(UUID::toString)
-                .collect(Collectors.toList());
-        return ResponseEntity.accepted().body(ids);
+    public ResponseEntity<?> submitBatch(@RequestBody List<StarInput> inputs,
+                                         @RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                         HttpServletRequest request) {
+        try {
+            PredictionService.BatchSubmission batch = service.submitBatch(inputs, clientId(clientId, request), JobPriority.BULK);
+            List<String> ids = batch.getJobIds().stream()
+                    .map(UUID::toString)
+                    .collect(Collectors.toList());
+            ResponseEntity.BodyBuilder accepted = ResponseEntity.accepted();
+            if (batch.getBatchId() != null) accepted.header("X-Batch-Id", batch.getBatchId().toString());
+            return accepted.body(ids);
+        } catch (QueueFullException e) {
+            return tooManyRequests(e);
+        } catch (BatchTooLargeException e) {
+            return payloadTooLarge(e);
+        }
+    }
+
+    /**
+     * Streaming batch upload for payloads too large to bind as a list. Body: a JSON array of StarInput, NDJSON
+     * (Content-Type application/x-ndjson) or CSV with a header row (text/csv). Elements are read incrementally and
+     * queued in chunks; the response is NDJSON written as chunks are accepted: {"index","jobId"} or {"index","error"}
+     * per element, then a summary line. The batch id is in the X-Batch-Id header. 429 only when the queue is full
+     * before anything was accepted; later, the summary reports the error and the accepted jobs stay queued.
+     */
+    @PostMapping("/predict/batch/stream")
+    public void submitBatchStream(@RequestHeader(value = "X-Client-Id", required = false) String clientId,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        UUID batchId = UUID.randomUUID();
+        response.setStatus(HttpStatus.ACCEPTED.value());
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("X-Batch-Id", batchId.toString());
+        OutputStream out = response.getOutputStream();
+        StarInputStreamReader.Format format = StarInputStreamReader.Format.fromContentType(request.getContentType());
+        Map<String, Object> summary;
+        try (StarInputStreamReader reader = new StarInputStreamReader(request.getInputStream(), format, mapper)) {
+            summary = service.submitStream(reader, batchId, clientId(clientId, request), JobPriority.BULK,
+                    new PredictionService.StreamSink() {
+                        @Override
+                        public void accepted(long index, UUID jobId) throws IOException {
+                            writeLine(out, Map.of("index", index, "jobId", jobId.toString()));
+                        }
+
+                        @Override
+                        public void rejected(long index, String error) throws IOException {
+                            writeLine(out, Map.of("index", index, "error", error));
+                        }
+
+                        @Override
+                        public void chunkDone() throws IOException {
+                            out.flush();
+                        }
+                    });
+        } catch (IOException e) {
+            // malformed upload, or the client went away; jobs from accepted chunks stay queued
+            if (response.isCommitted()) {
+                writeLine(out, Map.of("error", String.valueOf(e.getMessage()), "complete", false));
+                out.flush();
+                return;
+            }
+            response.reset();
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            response.setContentType("application/json");
+            mapper.writeValue(response.getOutputStream(), Map.of("error", String.valueOf(e.getMessage())));
+            return;
+        }
+        if (Long.valueOf(0).equals(summary.get("accepted")) && summary.containsKey("retryAfterSeconds") && !response.isCommitted()) {
+            response.reset();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(summary.get("retryAfterSeconds")));
+            response.setContentType("application/json");
+            mapper.writeValue(response.getOutputStream(), Map.of("error", summary.get("error"), "retryAfterSeconds", summary.get("retryAfterSeconds")));
+            return;
+        }
+        writeLine(out, summary);
+        out.flush();
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        out.write(mapper.writeValueAsBytes(line));
+        out.write('\n');
+    }
+
+    /** Batch header (size, jobs computed vs. linked to earlier results); poll the jobs themselves for results. */
+    @GetMapping("/predict/batch/{batchId}")
+    public ResponseEntity<?> getBatch(@PathVariable("batchId") UUID batchId) {
+        Optional<PredictionBatch> batch = service.getBatch(batchId);
+        if (batch.isEmpty()) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(batch.get());
+    }
+
+    /** Server-Sent Events for a batch: a {@code batch} snapshot, then a {@code status} event per job transition. */
+    @GetMapping(value = "/predict/batch/{batchId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBatch(@PathVariable("batchId") UUID batchId) {
+        return service.subscribeBatch(batchId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PostMapping("/catalog/metrics")
     public ResponseEntity<Map<String, Map<String, Object>>> fetchCatalog(@RequestBody List<String> names) {
         return ResponseEntity.ok(gaiaService.getStarMetricsByNames(names));
     }
+
+    static String clientId(String header, HttpServletRequest request) {
+        return header != null && !header.isBlank() ? header.trim() : request.getRemoteAddr();
+    }
+
+    static ResponseEntity<Map<String, Object>> tooManyRequests(QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage(), "retryAfterSeconds", e.getRetryAfterSeconds()));
+    }
+
+    static ResponseEntity<Map<String, Object>> payloadTooLarge(BatchTooLargeException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(Map.of("error", e.getMessage(), "maxBatchSize", e.getMaxBatchSize()));
+    }
 }
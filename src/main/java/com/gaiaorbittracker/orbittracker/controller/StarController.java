@@ -3,12 +3,15 @@ package com.gaiaorbittracker.orbittracker.controller;
 import com.gaiaorbittracker.orbittracker.service.SimbadService;
 import com.gaiaorbittracker.orbittracker.service.GaiaService;
 import com.gaiaorbittracker.orbittracker.service.OrbitalCalculator;
+import com.gaiaorbittracker.orbittracker.service.TrajectoryDownsampler;
+import com.gaiaorbittracker.orbittracker.service.cache.PredictionResultCache;
 import com.gaiaorbittracker.orbittracker.dto.StarInput;
 import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -18,12 +21,15 @@ public class StarController {
     private final SimbadService simbadService;
     private final GaiaService gaiaService;
     private final OrbitalCalculator orbitalCalculator;
+    private final PredictionResultCache resultCache;
 
     @Autowired
-    public StarController(SimbadService simbadService, GaiaService gaiaService, OrbitalCalculator orbitalCalculator) {
+    public StarController(SimbadService simbadService, GaiaService gaiaService, OrbitalCalculator orbitalCalculator,
+                          PredictionResultCache resultCache) {
         this.simbadService = simbadService;
         this.gaiaService = gaiaService;
         this.orbitalCalculator = orbitalCalculator;
+        this.resultCache = resultCache;
     }
 
     @GetMapping("/star")
@@ -90,10 +96,21 @@ public class StarController {
         }
     }
 
+    /**
+     * {@code fields} (comma-separated, see ComputationPlan) limits what is computed, unless the body sets its own.
+     * {@code maxPoints} downsamples the returned trajectory and bands (TrajectoryDownsampler); the cached result keeps
+     * full resolution.
+     */
     @PostMapping("/star/predict")
-    public ResponseEntity<PredictionResultDto> predictStarMotion(@RequestBody StarInput input) {
+    public ResponseEntity<PredictionResultDto> predictStarMotion(@RequestBody StarInput input,
+                                                                 @RequestParam(required = false) List<String> fields,
+                                                                 @RequestParam(required = false) Integer maxPoints) {
         try {
-            PredictionResultDto result = orbitalCalculator.computePrediction(input, null);
+            if (input.getFields() == null) input.setFields(fields);
+            PredictionResultDto result = resultCache.getOrCompute(input, () -> orbitalCalculator.computePrediction(input, null));
+            if (maxPoints != null && result.getData() != null && !result.getData().containsKey("error")) {
+                result = new PredictionResultDto(result.getSummary(), TrajectoryDownsampler.downsample(result.getData(), maxPoints));
+            }
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(
@@ -107,14 +124,13 @@ public class StarController {
                                                                         @RequestParam(required = false, defaultValue = "100") int years,
                                                                         @RequestParam(required = false, defaultValue = "50") int steps) {
         try {
-            Map<String, Object> metrics = gaiaService.getStarMetricsByName(name);
-            if (metrics.containsKey("error")) return ResponseEntity.badRequest().body(metrics);
-
+            // an unknown star fails inside computePrediction ("Failed to fetch Gaia data: ...")
             StarInput input = new StarInput();
             input.setGaiaId(name);
             input.setTimePeriodYears((double) years);
             input.setTimeSteps(steps);
-            PredictionResultDto prediction = orbitalCalculator.computePrediction(input, null);
+            input.setFields(List.of("time", "radialVelocityKmS")); // no uncertainty bands, summary or positions
+            PredictionResultDto prediction = resultCache.getOrCompute(input, () -> orbitalCalculator.computePrediction(input, null));
             @SuppressWarnings("unchecked")
             var preds = (java.util.List<java.util.Map<String, Object>>) prediction.getData().get("predictions");
 
@@ -0,0 +1,32 @@
+package com.gaiaorbittracker.orbittracker.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for stellar close-encounter searches against the Sun.
+ * Units: horizon in Myr (searched symmetrically, past and future), distances reported in pc.
+ */
+public class EncounterRequest {
+    private List<String> names; // star names or Gaia source ids; null/empty = local catalogue
+    private Double horizonMyr; // search window [-horizon, +horizon], default 5
+    private Integer topK; // number of closest encounters to return, default 20
+    private String propagationMode; // standard (linear) | galactic, default standard
+    private Integer samples; // Monte Carlo samples for uncertainties, default 100
+
+    public EncounterRequest() {}
+
+    public List<String> getNames() { return names; }
+    public void setNames(List<String> names) { this.names = names; }
+
+    public Double getHorizonMyr() { return horizonMyr; }
+    public void setHorizonMyr(Double horizonMyr) { this.horizonMyr = horizonMyr; }
+
+    public Integer getTopK() { return topK; }
+    public void setTopK(Integer topK) { this.topK = topK; }
+
+    public String getPropagationMode() { return propagationMode; }
+    public void setPropagationMode(String propagationMode) { this.propagationMode = propagationMode; }
+
+    public Integer getSamples() { return samples; }
+    public void setSamples(Integer samples) { this.samples = samples; }
+}
@@ -0,0 +1,62 @@
+package com.gaiaorbittracker.orbittracker.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Job status without the stored input or result columns; selected directly by the repository queries.
+ * {@code resultJson} is only filled in by the status endpoint once the job has finished.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class JobStatusDto {
+    private UUID id;
+    private String gaiaId;
+    private Instant submittedAt;
+    private String status;
+    private String jobType;
+    private UUID resultRef;
+    private UUID batchId;
+    private String resultJson;
+    private Double progress; // fraction of the Monte Carlo stage done, while RUNNING (from JobStatusRegistry)
+
+    public JobStatusDto() {}
+
+    public JobStatusDto(UUID id, String gaiaId, Instant submittedAt, String status, String jobType, UUID resultRef, UUID batchId) {
+        this.id = id;
+        this.gaiaId = gaiaId;
+        this.submittedAt = submittedAt;
+        this.status = status;
+        this.jobType = jobType;
+        this.resultRef = resultRef;
+        this.batchId = batchId;
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getGaiaId() { return gaiaId; }
+    public void setGaiaId(String gaiaId) { this.gaiaId = gaiaId; }
+
+    public Instant getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(Instant submittedAt) { this.submittedAt = submittedAt; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getJobType() { return jobType; }
+    public void setJobType(String jobType) { this.jobType = jobType; }
+
+    public UUID getResultRef() { return resultRef; }
+    public void setResultRef(UUID resultRef) { this.resultRef = resultRef; }
+
+    public UUID getBatchId() { return batchId; }
+    public void setBatchId(UUID batchId) { this.batchId = batchId; }
+
+    public String getResultJson() { return resultJson; }
+    public void setResultJson(String resultJson) { this.resultJson = resultJson; }
+
+    public Double getProgress() { return progress; }
+    public void setProgress(Double progress) { this.progress = progress; }
+}
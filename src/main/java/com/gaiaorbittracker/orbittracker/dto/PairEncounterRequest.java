@@ -0,0 +1,36 @@
+package com.gaiaorbittracker.orbittracker.dto;
+
+import java.util.List;
+
+/**
+ * Input DTO for star-star close-approach searches.
+ * Units: horizon in Myr (window [-horizon, +horizon]), threshold in pc.
+ */
+public class PairEncounterRequest {
+    private List<String> names; // star names or Gaia source ids; null/empty = local catalogue
+    private Double horizonMyr; // default 5
+    private Double thresholdPc; // report pairs closer than this, default 1
+    private String propagationMode; // standard (linear) | galactic, default standard
+    private Integer buckets; // time buckets of the spatial index; default derived from speeds and threshold
+    private Integer maxPairs; // cap on returned pairs (closest first), default 1000
+
+    public PairEncounterRequest() {}
+
+    public List<String> getNames() { return names; }
+    public void setNames(List<String> names) { this.names = names; }
+
+    public Double getHorizonMyr() { return horizonMyr; }
+    public void setHorizonMyr(Double horizonMyr) { this.horizonMyr = horizonMyr; }
+
+    public Double getThresholdPc() { return thresholdPc; }
+    public void setThresholdPc(Double thresholdPc) { this.thresholdPc = thresholdPc; }
+
+    public String getPropagationMode() { return propagationMode; }
+    public void setPropagationMode(String propagationMode) { this.propagationMode = propagationMode; }
+
+    public Integer getBuckets() { return buckets; }
+    public void setBuckets(Integer buckets) { this.buckets = buckets; }
+
+    public Integer getMaxPairs() { return maxPairs; }
+    public void setMaxPairs(Integer maxPairs) { this.maxPairs = maxPairs; }
+}
@@ -1,5 +1,7 @@
 package com.gaiaorbittracker.orbittracker.dto;
 
+import java.util.List;
+
 /**
  * Input DTO for prediction requests.
  * Units: RA/Dec in degrees, proper motions in mas/yr, parallax in mas, rv in km/s
@@ -16,6 +18,9 @@ public class StarInput {
     private Double timePeriodYears; // Time period for prediction in years
     private Integer timeSteps; // Number of time steps for detailed prediction
     private Boolean highFidelity; // Use Newtonian backend
+    private String propagationMode; // standard | high_fidelity | galactic; overrides highFidelity when set
+    private Double deadlineSeconds; // compute budget once the job runs; when exceeded the partial result is returned (TIMED_OUT)
+    private List<String> fields; // result fields to compute (see ComputationPlan); null = all
 
     public StarInput() {}
 
@@ -49,4 +54,13 @@ public class StarInput {
 
     public Boolean getHighFidelity() { return highFidelity; }
     public void setHighFidelity(Boolean highFidelity) { this.highFidelity = highFidelity; }
+
+    public String getPropagationMode() { return propagationMode; }
+    public void setPropagationMode(String propagationMode) { this.propagationMode = propagationMode; }
+
+    public Double getDeadlineSeconds() { return deadlineSeconds; }
+    public void setDeadlineSeconds(Double deadlineSeconds) { this.deadlineSeconds = deadlineSeconds; }
+
+    public List<String> getFields() { return fields; }
+    public void setFields(List<String> fields) { this.fields = fields; }
 }
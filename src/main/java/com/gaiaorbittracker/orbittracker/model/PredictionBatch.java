@@ -0,0 +1,46 @@
+package com.gaiaorbittracker.orbittracker.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/** One /api/predict/batch submission; its jobs carry the batch id. */
+@Entity
+public class PredictionBatch {
+
+    @Id
+    private UUID id;
+
+    private String clientId;
+
+    private Instant submittedAt;
+
+    private int size; // jobs in the batch, linked duplicates included
+
+    private int computed; // jobs that needed their own computation
+
+    public PredictionBatch() {}
+
+    public PredictionBatch(UUID id, String clientId, Instant submittedAt, int size, int computed) {
+        this.id = id;
+        this.clientId = clientId;
+        this.submittedAt = submittedAt;
+        this.size = size;
+        this.computed = computed;
+    }
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    public Instant getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(Instant submittedAt) { this.submittedAt = submittedAt; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public int getComputed() { return computed; }
+    public void setComputed(int computed) { this.computed = computed; }
+}
@@ -5,6 +5,13 @@ import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_prediction_job_input_hash", columnList = "inputHash"),
+    @Index(name = "idx_prediction_job_batch", columnList = "batchId"),
+    @Index(name = "idx_prediction_job_submitted", columnList = "submittedAt, id"),
+    @Index(name = "idx_prediction_job_status_submitted", columnList = "status, submittedAt, id"),
+    @Index(name = "idx_prediction_job_result_ref", columnList = "resultRef")
+})
 public class PredictionJob {
 
     @Id
@@ -14,11 +21,27 @@ public class PredictionJob {
 
     private Instant submittedAt;
 
-    private String status; // PENDING, RUNNING, DONE, FAILED
+    private String status; // PENDING, RUNNING, DONE, FAILED, TIMED_OUT, CANCELLED; LINKED = shares the result of job resultRef
 
-    @Lob
-    @Column(columnDefinition = "TEXT")
-    private String resultJson;
+    private String jobType; // null = PREDICTION, ENCOUNTER_SEARCH
+
+    @Column(length = 64)
+    private String inputHash; // SHA-256 of the canonical StarInput (StarInputCanonicalizer)
+
+    private UUID resultRef; // job that computes and stores the result for this one; null = self
+
+    private UUID batchId; // PredictionBatch this job was submitted with; null = single submission
+
+    private String priority; // JobPriority name, so any node that claims the job queues it the same way
+
+    private String clientId; // fair-scheduling key, as for priority
+
+    @Column(length = 64)
+    private String leaseOwner; // node that holds the job while PENDING/RUNNING; see PredictionJobLeases
+
+    private Instant leaseExpiresAt; // other nodes may claim the job after this
+
+    // the result lives in PredictionResult, keyed by job id
 
     @Lob
     @Column(columnDefinition = "TEXT")
@@ -47,8 +70,29 @@ public class PredictionJob {
     public String getStatus() { return status; }
     public void setStatus(String status) { this.status = status; }
 
-    public String getResultJson() { return resultJson; }
-    public void setResultJson(String resultJson) { this.resultJson = resultJson; }
+    public String getJobType() { return jobType; }
+    public void setJobType(String jobType) { this.jobType = jobType; }
+
+    public String getInputHash() { return inputHash; }
+    public void setInputHash(String inputHash) { this.inputHash = inputHash; }
+
+    public UUID getResultRef() { return resultRef; }
+    public void setResultRef(UUID resultRef) { this.resultRef = resultRef; }
+
+    public UUID getBatchId() { return batchId; }
+    public void setBatchId(UUID batchId) { this.batchId = batchId; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public String getClientId() { return clientId; }
+    public void setClientId(String clientId) { this.clientId = clientId; }
+
+    public String getLeaseOwner() { return leaseOwner; }
+    public void setLeaseOwner(String leaseOwner) { this.leaseOwner = leaseOwner; }
+
+    public Instant getLeaseExpiresAt() { return leaseExpiresAt; }
+    public void setLeaseExpiresAt(Instant leaseExpiresAt) { this.leaseExpiresAt = leaseExpiresAt; }
 
     public String getInputJson() { return inputJson; }
     public void setInputJson(String inputJson) { this.inputJson = inputJson; }
@@ -0,0 +1,46 @@
+package com.gaiaorbittracker.orbittracker.model;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Stored result (or error) of a finished job, kept apart from PredictionJob so status queries never load it.
+ * The JSON is stored in {@link com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec} form and decoded
+ * only when a client asks for it.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_prediction_result_completed", columnList = "completedAt"))
+public class PredictionResult {
+
+    @Id
+    private UUID jobId;
+
+    private Instant completedAt;
+
+    private Integer resultBytes; // length of resultData, so retention can total storage without reading blobs
+
+    @Lob
+    private byte[] resultData;
+
+    public PredictionResult() {}
+
+    public PredictionResult(UUID jobId, Instant completedAt, byte[] resultData) {
+        this.jobId = jobId;
+        this.completedAt = completedAt;
+        this.resultData = resultData;
+        this.resultBytes = resultData != null ? resultData.length : null;
+    }
+
+    public UUID getJobId() { return jobId; }
+    public void setJobId(UUID jobId) { this.jobId = jobId; }
+
+    public Instant getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Instant completedAt) { this.completedAt = completedAt; }
+
+    public Integer getResultBytes() { return resultBytes; }
+    public void setResultBytes(Integer resultBytes) { this.resultBytes = resultBytes; }
+
+    public byte[] getResultData() { return resultData; }
+    public void setResultData(byte[] resultData) { this.resultData = resultData; }
+}
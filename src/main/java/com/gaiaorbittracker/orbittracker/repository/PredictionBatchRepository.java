@@ -0,0 +1,9 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import com.gaiaorbittracker.orbittracker.model.PredictionBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface PredictionBatchRepository extends JpaRepository<PredictionBatch, UUID> {
+}
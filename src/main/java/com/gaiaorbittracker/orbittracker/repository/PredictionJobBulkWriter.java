@@ -0,0 +1,87 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plain-JDBC batch statements for the prediction_job and prediction_result tables, for the paths where one JPA save per row is the
+ * bottleneck (bulk submission, periodic status flushes). Callers provide the transaction.
+ */
+@Repository
+public class PredictionJobBulkWriter {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT =
+        "INSERT INTO prediction_job (id, gaia_id, submitted_at, status, job_type, input_hash, result_ref, batch_id, input_json, "
+        + "priority, client_id, lease_owner, lease_expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // a cancel recorded by another node wins over a result that was already on its way
+    private static final String UPDATE_STATUS = "UPDATE prediction_job SET status = ? WHERE id = ? AND status <> 'CANCELLED'";
+    // a job re-run after a failure replaces its earlier result
+    private static final String DELETE_RESULT = "DELETE FROM prediction_result WHERE job_id = ?";
+    private static final String INSERT_RESULT = "INSERT INTO prediction_result (job_id, completed_at, result_bytes, result_data) "
+        + "VALUES (?, ?, ?, ?)";
+
+    /** Status change for one job; {@code resultData == null} leaves the stored result untouched. */
+    public static final class StatusUpdate {
+        public final UUID id;
+        public final String status;
+        public final byte[] resultData; // TrajectoryCodec-encoded
+
+        public StatusUpdate(UUID id, String status, byte[] resultData) {
+            this.id = id;
+            this.status = status;
+            this.resultData = resultData;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+
+    public PredictionJobBulkWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void insertAll(List<PredictionJob> jobs) {
+        jdbc.batchUpdate(INSERT, jobs, BATCH_SIZE, (ps, job) -> {
+            ps.setObject(1, job.getId());
+            ps.setString(2, job.getGaiaId());
+            ps.setObject(3, job.getSubmittedAt() == null ? null : OffsetDateTime.ofInstant(job.getSubmittedAt(), ZoneOffset.UTC));
+            ps.setString(4, job.getStatus());
+            ps.setString(5, job.getJobType());
+            ps.setString(6, job.getInputHash());
+            ps.setObject(7, job.getResultRef());
+            ps.setObject(8, job.getBatchId());
+            ps.setString(9, job.getInputJson());
+            ps.setString(10, job.getPriority());
+            ps.setString(11, job.getClientId());
+            ps.setString(12, job.getLeaseOwner());
+            ps.setObject(13, job.getLeaseExpiresAt() == null ? null : OffsetDateTime.ofInstant(job.getLeaseExpiresAt(), ZoneOffset.UTC));
+        });
+    }
+
+    public void updateStatuses(List<StatusUpdate> updates) {
+        if (updates.isEmpty()) return;
+        jdbc.batchUpdate(UPDATE_STATUS, updates, BATCH_SIZE, (ps, u) -> {
+            ps.setString(1, u.status);
+            ps.setObject(2, u.id);
+        });
+        List<StatusUpdate> withResult = updates.stream().filter(u -> u.resultData != null).toList();
+        if (!withResult.isEmpty()) {
+            OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+            jdbc.batchUpdate(DELETE_RESULT, withResult, BATCH_SIZE, (ps, u) -> ps.setObject(1, u.id));
+            jdbc.batchUpdate(INSERT_RESULT, withResult, BATCH_SIZE, (ps, u) -> {
+                ps.setObject(1, u.id);
+                ps.setObject(2, now);
+                ps.setInt(3, u.resultData.length);
+                ps.setBytes(4, u.resultData);
+            });
+        }
+    }
+}
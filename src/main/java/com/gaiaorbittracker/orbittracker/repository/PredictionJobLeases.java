@@ -0,0 +1,104 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Leases on prediction_job rows, so several nodes can share one database as their work queue. A node holds a job
+ * from submission or claim until it finishes, renewing the lease while it does; every state change is a conditional
+ * UPDATE that only one node can win, so no row locks are held and any database works (no SKIP LOCKED needed).
+ * Each statement runs in its own auto-commit transaction.
+ */
+@Repository
+public class PredictionJobLeases {
+
+    /**
+     * Computed jobs a node may take: unheld (never leased, or the holder stopped renewing), or PENDING and held by
+     * another node since before a cutoff without being started. Parameters: now, cutoff, claiming node.
+     */
+    private static final String CLAIMABLE = "status IN ('PENDING', 'RUNNING') AND result_ref IS NULL "
+        + "AND (lease_owner IS NULL OR lease_expires_at < ? OR (status = 'PENDING' AND submitted_at < ? AND lease_owner <> ?))";
+
+    private static final String FIND_CLAIMABLE = "SELECT id, client_id, priority FROM prediction_job WHERE " + CLAIMABLE
+        + " ORDER BY submitted_at LIMIT ?";
+
+    // a RUNNING job whose node died starts over as PENDING under its new owner
+    private static final String CLAIM = "UPDATE prediction_job SET lease_owner = ?, lease_expires_at = ?, status = 'PENDING' "
+        + "WHERE id = ? AND " + CLAIMABLE;
+
+    private static final String START = "UPDATE prediction_job SET status = 'RUNNING', lease_expires_at = ? "
+        + "WHERE id = ? AND status = 'PENDING' AND lease_owner = ?";
+
+    private static final String RELEASE = "UPDATE prediction_job SET lease_owner = NULL, lease_expires_at = NULL, "
+        + "status = 'PENDING' WHERE lease_owner = ? AND status IN ('PENDING', 'RUNNING')";
+
+    private static final String RENEW = "UPDATE prediction_job SET lease_expires_at = ? "
+        + "WHERE lease_owner = ? AND status IN ('PENDING', 'RUNNING')";
+
+    private final JdbcTemplate jdbc;
+
+    public PredictionJobLeases(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * (id, clientId, priority) of up to {@code limit} jobs {@code owner} may claim, oldest first: unheld ones, and
+     * PENDING ones submitted before {@code stealBefore} that another node holds but has not started.
+     */
+    public List<Object[]> findClaimable(String owner, Instant now, Instant stealBefore, int limit) {
+        return jdbc.query(FIND_CLAIMABLE, (rs, i) -> new Object[] {
+            rs.getObject("id", UUID.class), rs.getString("client_id"), rs.getString("priority")
+        }, ts(now), ts(stealBefore), owner, limit);
+    }
+
+    /** Take over {@code jobId} until {@code until}; false when another node got there first or it was finished. */
+    public boolean claim(UUID jobId, String owner, Instant until, Instant now, Instant stealBefore) {
+        return jdbc.update(CLAIM, owner, ts(until), jobId, ts(now), ts(stealBefore), owner) == 1;
+    }
+
+    /** PENDING -> RUNNING, only while {@code owner} still holds the job (it may have been stolen or cancelled). */
+    public boolean start(UUID jobId, String owner, Instant until) {
+        return jdbc.update(START, ts(until), jobId, owner) == 1;
+    }
+
+    /** Heartbeat: extend every lease {@code owner} holds. */
+    public int renew(String owner, Instant until) {
+        return jdbc.update(RENEW, ts(until), owner);
+    }
+
+    /** Shutdown: give up every job {@code owner} holds; unfinished RUNNING jobs start over elsewhere. */
+    public int releaseAll(String owner) {
+        return jdbc.update(RELEASE, owner);
+    }
+
+    /** Which of {@code jobIds} were cancelled, possibly through another node. */
+    public List<UUID> findCancelled(Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) return List.of();
+        String in = jobIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        return jdbc.queryForList("SELECT id FROM prediction_job WHERE status = 'CANCELLED' AND id IN (" + in + ")",
+            UUID.class, jobIds.toArray());
+    }
+
+    /** Which of {@code jobIds} {@code owner} no longer holds: taken over by another node, or released. */
+    public List<UUID> findNotHeldBy(String owner, Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) return List.of();
+        String in = jobIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        Object[] args = new Object[jobIds.size() + 1];
+        args[0] = owner;
+        System.arraycopy(jobIds.toArray(), 0, args, 1, jobIds.size());
+        return jdbc.queryForList("SELECT id FROM prediction_job WHERE (lease_owner IS NULL OR lease_owner <> ?) "
+            + "AND id IN (" + in + ")", UUID.class, args);
+    }
+
+    private static OffsetDateTime ts(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
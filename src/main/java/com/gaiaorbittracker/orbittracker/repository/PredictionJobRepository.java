@@ -1,9 +1,82 @@
 package com.gaiaorbittracker.orbittracker.repository;
 
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
 import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface PredictionJobRepository extends JpaRepository<PredictionJob, UUID> {
+
+    String STATUS_COLUMNS = "select new com.gaiaorbittracker.orbittracker.dto.JobStatusDto("
+        + "j.id, j.gaiaId, j.submittedAt, j.status, j.jobType, j.resultRef, j.batchId) from PredictionJob j ";
+
+    String EXPORT_FILTER = "where (:status is null or j.status = :status) and j.submittedAt >= :from "
+        + "and j.submittedAt < :until order by j.submittedAt desc, j.id desc";
+
+    String EXPORT_FETCH_SIZE = "500";
+
+    /** (inputHash, id) of result-owning jobs for many hashes at once (submission dedup); no LOB columns read. */
+    @Query("select j.inputHash, j.id from PredictionJob j "
+        + "where j.inputHash in :hashes and j.resultRef is null and j.status in :statuses")
+    List<Object[]> findOwnersByInputHash(Collection<String> hashes, Collection<String> statuses);
+
+    @Query(STATUS_COLUMNS + "where j.id = :id")
+    Optional<JobStatusDto> findStatusById(UUID id);
+
+    @Query(STATUS_COLUMNS + "where j.id in :ids")
+    List<JobStatusDto> findStatusByIdIn(Collection<UUID> ids);
+
+    /** Whether any LINKED job shares the result of {@code resultRef}. */
+    boolean existsByResultRef(UUID resultRef);
+
+    /** (id, stored status) of the jobs of a batch that compute their own result, i.e. all but LINKED ones. */
+    @Query("select j.id, j.status from PredictionJob j where j.batchId = :batchId and j.resultRef is null")
+    List<Object[]> findComputedStatusesByBatchId(UUID batchId);
+
+    /** Newest first; first page of a keyset-paginated listing. Pass the page size as {@code Pageable.ofSize(n)}. */
+    @Query(STATUS_COLUMNS + "where (:status is null or j.status = :status) "
+        + "and j.submittedAt >= :from and j.submittedAt < :until "
+        + "order by j.submittedAt desc, j.id desc")
+    List<JobStatusDto> findStatusPage(String status, Instant from, Instant until, Pageable page);
+
+    /** Next page: rows strictly after the cursor (last row of the previous page) in listing order. */
+    @Query(STATUS_COLUMNS + "where (:status is null or j.status = :status) "
+        + "and j.submittedAt >= :from "
+        + "and (j.submittedAt < :afterSubmittedAt or (j.submittedAt = :afterSubmittedAt and j.id < :afterId)) "
+        + "order by j.submittedAt desc, j.id desc")
+    List<JobStatusDto> findStatusPageAfter(String status, Instant from, Instant afterSubmittedAt, UUID afterId, Pageable page);
+
+    /**
+     * Cursor over jobs for export, newest first: id, gaiaId, submittedAt and effective status (a LINKED job reports
+     * its primary's). Rows are fetched {@code EXPORT_FETCH_SIZE} at a time and never enter the persistence context;
+     * call inside a transaction and close the stream.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select j.id, j.gaiaId, j.submittedAt, coalesce(p.status, j.status) from PredictionJob j "
+        + "left join PredictionJob p on p.id = j.resultRef " + EXPORT_FILTER)
+    Stream<Object[]> streamForExport(String status, Instant from, Instant until);
+
+    /** As {@link #streamForExport}, plus the encoded result owned by the job or its primary (null while unfinished). */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select j.id, j.gaiaId, j.submittedAt, coalesce(p.status, j.status), r.resultData from PredictionJob j "
+        + "left join PredictionJob p on p.id = j.resultRef "
+        + "left join PredictionResult r on r.jobId = coalesce(j.resultRef, j.id) " + EXPORT_FILTER)
+    Stream<Object[]> streamForExportWithResults(String status, Instant from, Instant until);
 }
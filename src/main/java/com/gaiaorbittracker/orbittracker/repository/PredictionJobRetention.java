@@ -0,0 +1,115 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Deletion side of the job store, for the retention sweeper. Candidates are finished jobs in the order they were last
+ * used: when their result was stored (indexed completed_at), or the newest LINKED submission sharing it if that is
+ * later, so a result that duplicates keep asking for stays. Callers provide the transaction.
+ */
+@Repository
+public class PredictionJobRetention {
+
+    /** A finished job eligible for deletion, with the size of its stored result. */
+    public static final class Candidate {
+        public final UUID id;
+        public final long bytes;
+
+        public Candidate(UUID id, long bytes) {
+            this.id = id;
+            this.bytes = bytes;
+        }
+    }
+
+    private static final String FINISHED = "('DONE', 'FAILED', 'TIMED_OUT', 'CANCELLED')";
+
+    // rows written before result_bytes existed fall back to the blob length
+    private static final String TOTAL_BYTES =
+        "SELECT COALESCE(SUM(COALESCE(result_bytes, OCTET_LENGTH(result_data))), 0) FROM prediction_result";
+
+    private static final String LAST_LINKED = "SELECT result_ref, MAX(submitted_at) AS linked_at FROM prediction_job "
+        + "WHERE result_ref IS NOT NULL GROUP BY result_ref";
+
+    private static final String OLDEST = "SELECT r.job_id, COALESCE(r.result_bytes, OCTET_LENGTH(r.result_data)) "
+        + "FROM prediction_result r JOIN prediction_job j ON j.id = r.job_id "
+        + "LEFT JOIN (" + LAST_LINKED + ") l ON l.result_ref = r.job_id "
+        + "WHERE r.completed_at < ? AND (l.linked_at IS NULL OR l.linked_at < ?) AND j.status IN " + FINISHED
+        + " ORDER BY GREATEST(r.completed_at, COALESCE(l.linked_at, r.completed_at)) LIMIT ?";
+
+    // the jobs themselves, then the LINKED jobs that are deleted with them, each with the shared result
+    private static final String ARCHIVE_ROWS = "SELECT j.id, j.gaia_id, j.submitted_at, j.status, r.completed_at, "
+        + "r.result_data FROM prediction_job j JOIN prediction_result r ON r.job_id = j.id WHERE j.id IN %1$s "
+        + "UNION ALL SELECT l.id, l.gaia_id, l.submitted_at, l.status, r.completed_at, r.result_data "
+        + "FROM prediction_job l JOIN prediction_result r ON r.job_id = l.result_ref WHERE l.result_ref IN %1$s";
+
+    // batches whose jobs are all gone; the age cutoff keeps a batch that is still being streamed in
+    private static final String EMPTY_BATCHES = "DELETE FROM prediction_batch b WHERE b.submitted_at < ? "
+        + "AND NOT EXISTS (SELECT 1 FROM prediction_job j WHERE j.batch_id = b.id)";
+
+    private final JdbcTemplate jdbc;
+
+    public PredictionJobRetention(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public long totalResultBytes() {
+        Long total = jdbc.queryForObject(TOTAL_BYTES, Long.class);
+        return total != null ? total : 0;
+    }
+
+    /** Up to {@code limit} finished jobs last used before {@code before}, least recently used first. */
+    public List<Candidate> findOldest(Instant before, int limit) {
+        return jdbc.query(OLDEST, (rs, i) -> new Candidate(rs.getObject(1, UUID.class), rs.getLong(2)),
+            ts(before), ts(before), limit);
+    }
+
+    /**
+     * Streams (id, gaiaId, submittedAt, status, completedAt, resultData) of {@code jobIds} and the LINKED jobs
+     * sharing their results to {@code handler}.
+     */
+    public void readForArchive(Collection<UUID> jobIds, RowCallbackHandler handler) {
+        if (jobIds.isEmpty()) return;
+        Object[] ids = jobIds.toArray();
+        Object[] args = new Object[ids.length * 2];
+        System.arraycopy(ids, 0, args, 0, ids.length);
+        System.arraycopy(ids, 0, args, ids.length, ids.length);
+        jdbc.query(String.format(ARCHIVE_ROWS, in(jobIds)), handler, args);
+    }
+
+    /** Delete {@code jobIds}, their results and the LINKED jobs sharing them; returns job rows deleted. */
+    public int delete(Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) return 0;
+        Object[] ids = jobIds.toArray();
+        int linked = deleteLinkedTo(jobIds);
+        jdbc.update("DELETE FROM prediction_result WHERE job_id IN " + in(jobIds), ids);
+        return linked + jdbc.update("DELETE FROM prediction_job WHERE id IN " + in(jobIds), ids);
+    }
+
+    /** LINKED jobs pointing at {@code jobIds}; also run after a sweep for links made while it was deleting. */
+    public int deleteLinkedTo(Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) return 0;
+        return jdbc.update("DELETE FROM prediction_job WHERE result_ref IN " + in(jobIds), jobIds.toArray());
+    }
+
+    public int deleteEmptyBatches(Instant submittedBefore) {
+        return jdbc.update(EMPTY_BATCHES, ts(submittedBefore));
+    }
+
+    private static String in(Collection<UUID> ids) {
+        return ids.stream().map(id -> "?").collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static OffsetDateTime ts(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
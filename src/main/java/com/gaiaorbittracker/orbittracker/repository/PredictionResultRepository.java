@@ -0,0 +1,9 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import com.gaiaorbittracker.orbittracker.model.PredictionResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface PredictionResultRepository extends JpaRepository<PredictionResult, UUID> {
+}
@@ -0,0 +1,61 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative stop signal for one computation: an explicit {@link #cancel} and/or a wall-clock deadline. Long loops
+ * poll {@link #shouldStop} at chunk boundaries and break out; a cancelled computation is then abandoned, while one
+ * that ran out of time returns what it has so far.
+ */
+public final class CancellationToken {
+
+    /** Never stops; for callers without a deadline or a way to cancel. */
+    public static final CancellationToken NONE = new CancellationToken(0L);
+
+    private final long deadlineNanos; // 0 = no deadline
+    private volatile boolean cancelled;
+    private volatile boolean stopped;
+
+    private CancellationToken(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /** Token expiring {@code seconds} from now; without a deadline when {@code seconds} is null. */
+    public static CancellationToken withDeadline(Double seconds) {
+        if (seconds == null) return new CancellationToken(0L);
+        long nanos = (long) Math.min(Long.MAX_VALUE / 4.0, seconds * 1e9);
+        long deadline = System.nanoTime() + Math.max(1L, nanos);
+        return new CancellationToken(deadline == 0L ? 1L : deadline);
+    }
+
+    public void cancel() {
+        if (this != NONE) cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != 0L && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /** True when work should stop now; remembers that a loop was cut short (see {@link #hasStopped}). */
+    public boolean shouldStop() {
+        if (this == NONE) return false;
+        if (cancelled || isExpired()) {
+            stopped = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** Whether any work was skipped because of this token, i.e. a result built from it is partial. */
+    public boolean hasStopped() {
+        return stopped;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) throw new CancellationException("Job cancelled");
+    }
+}
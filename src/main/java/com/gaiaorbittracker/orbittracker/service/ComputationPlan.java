@@ -0,0 +1,91 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * What a prediction computes, from the {@code fields} a caller asked for. A field is a value of each trajectory point
+ * ("radialVelocityKmS") or a section of the result ("summary", "uncertainty", "debug", "starData"); "time" is always
+ * included. Stages nobody asked for are skipped outright: the Monte Carlo bands, the solar-system/galactic position
+ * of each point, angular separations, summary statistics and the debug block. No fields means everything.
+ */
+public final class ComputationPlan {
+
+    public static final Set<String> POINT_FIELDS = Set.of(
+        "time", "ra", "dec", "distanceLy", "tangentialVelocityKmS", "radialVelocityKmS", "totalVelocityKmS",
+        "angularSeparationArcsec", "galacticLongitude", "galacticLatitude",
+        // standard mode only
+        "pmra", "pmdec", "hasOrbitalMotion", "orbitalPeriod",
+        "xParsecs", "yParsecs", "zParsecs", "distanceFromSunPc", "distanceFromSunLy");
+    public static final Set<String> SECTIONS = Set.of("starData", "summary", "uncertainty", "debug");
+
+    private static final List<String> SOLAR_POSITION = List.of(
+        "galacticLongitude", "galacticLatitude", "xParsecs", "yParsecs", "zParsecs", "distanceFromSunPc",
+        "distanceFromSunLy");
+
+    public static final ComputationPlan FULL = new ComputationPlan(null);
+
+    /** Sky positions only, for trajectories that are computed just to be read back (the Monte Carlo baseline). */
+    static final ComputationPlan POSITIONS = new ComputationPlan(new TreeSet<>(List.of("time", "ra", "dec")));
+
+    private final TreeSet<String> fields; // null = everything
+
+    private ComputationPlan(TreeSet<String> fields) {
+        this.fields = fields;
+    }
+
+    /** Plan for {@code fields}; null or empty means everything. Unknown names are rejected. */
+    public static ComputationPlan of(Collection<String> fields) {
+        if (fields == null || fields.isEmpty()) return FULL;
+        TreeSet<String> set = new TreeSet<>();
+        set.add("time");
+        for (String f : fields) {
+            String name = f.trim();
+            if (name.isEmpty()) continue;
+            if (!POINT_FIELDS.contains(name) && !SECTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            set.add(name);
+        }
+        return new ComputationPlan(set);
+    }
+
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    public boolean uncertainty() {
+        return includes("uncertainty");
+    }
+
+    public boolean summary() {
+        return includes("summary");
+    }
+
+    public boolean debug() {
+        return includes("debug");
+    }
+
+    /** Cartesian and galactic position of each point. */
+    public boolean solarPosition() {
+        return fields == null || SOLAR_POSITION.stream().anyMatch(fields::contains);
+    }
+
+    public boolean angularSeparation() {
+        return includes("angularSeparationArcsec");
+    }
+
+    /** Drop the point values that were not asked for. */
+    public void trim(List<Map<String, Object>> points) {
+        if (fields == null) return;
+        for (Map<String, Object> p : points) p.keySet().retainAll(fields);
+    }
+
+    /** Sorted field list for cache keys and dedup hashes; null for {@link #FULL}. */
+    public String canonical() {
+        return fields == null ? null : String.join(",", fields);
+    }
+}
@@ -39,6 +39,8 @@ public class FallbackStarService {
             result.put("orbitalPeriod", orbit.getOrbitalPeriod());
             result.put("eccentricity", orbit.getEccentricity());
             result.put("inclination", orbit.getInclination());
+            result.put("argumentOfPeriastron", orbit.getArgumentOfPeriastron());
+            result.put("epochOfPeriastron", orbit.getEpochOfPeriastron());
             result.put("note", "Using realistic stellar orbital data");
             return result;
         }
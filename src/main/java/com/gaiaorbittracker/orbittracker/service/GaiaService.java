@@ -9,9 +9,13 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.Set;
 
 @Service
 public class GaiaService {
@@ -21,6 +25,8 @@ public class GaiaService {
     
     private final RestTemplate restTemplate = new RestTemplate();
     private static final String GAIA_TAP_URL = "https://gea.esac.esa.int/tap-server/tap/sync";
+    /** Source ids per batched TAP query; keeps the GET URL well under common length limits. */
+    private static final int SOURCE_ID_CHUNK = 200;
     
     // Known star coordinates with multiple name aliases
     private static final Map<String, StarInfo> KNOWN_STARS = new HashMap<>();
@@ -206,7 +212,18 @@ public class GaiaService {
         }
     }
 
-    private boolean isNumeric(String s) {
+    /** Whether {@code name} is a Gaia source id, which {@link #getStarMetricsByNames} looks up in batched queries. */
+    public static boolean isSourceId(String name) {
+        if (name == null || !isNumeric(name.trim())) return false;
+        try {
+            Long.parseLong(name.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isNumeric(String s) {
         if (s == null || s.isEmpty()) return false;
         for (int i = 0; i < s.length(); i++) {
             if (!Character.isDigit(s.charAt(i))) return false;
@@ -370,39 +387,7 @@ public class GaiaService {
                 return Map.of("error", "Star not found in Gaia");
             }
         
-            JsonNode star = dataNode.get(0);
-            // See column mapping comment in getStarMetrics
-            double parallax = star.get(3).asDouble();
-            double distance_ly = 1000.0 / parallax * 3.26156;
-            double pmra = star.get(5).asDouble();
-            double pmdec = star.get(7).asDouble();
-            double totalProperMotion = Math.sqrt(pmra*pmra + pmdec*pmdec);
-        
-            Map<String, Object> metrics = new HashMap<>();
-            metrics.put("name", name);
-            metrics.put("sourceId", star.get(0).asLong());
-            metrics.put("ra", star.get(1).asDouble());
-            metrics.put("dec", star.get(2).asDouble());
-            metrics.put("parallax", parallax);
-            metrics.put("parallaxError", star.get(4).isNull() ? null : star.get(4).asDouble());
-            metrics.put("pmra", pmra);
-            metrics.put("pmraError", star.get(6).isNull() ? null : star.get(6).asDouble());
-            metrics.put("pmdec", pmdec);
-            metrics.put("pmdecError", star.get(8).isNull() ? null : star.get(8).asDouble());
-            metrics.put("radialVelocity", star.get(9).isNull() ? null : star.get(9).asDouble());
-            metrics.put("radialVelocityError", star.get(10).isNull() ? null : star.get(10).asDouble());
-            metrics.put("distanceLy", distance_ly);
-            metrics.put("totalProperMotion", totalProperMotion);
-            metrics.put("gMagnitude", star.get(11).isNull() ? null : star.get(11).asDouble());
-            metrics.put("bpMagnitude", star.get(12).isNull() ? null : star.get(12).asDouble());
-            metrics.put("rpMagnitude", star.get(13).isNull() ? null : star.get(13).asDouble());
-            metrics.put("bpRp", star.get(14).isNull() ? null : star.get(14).asDouble());
-            metrics.put("teff", star.get(15).isNull() ? null : star.get(15).asDouble());
-            metrics.put("logg", star.get(16).isNull() ? null : star.get(16).asDouble());
-            metrics.put("isMockData", false);
-            metrics.put("dataSource", "GAIA");
-        
-            return metrics;
+            return metricsFromRow(dataNode.get(0), name);
         
         } catch (Exception e) {
             e.printStackTrace();
@@ -452,13 +437,112 @@ public class GaiaService {
         }
     }
 
+    /**
+     * Metrics for many stars with as few TAP round trips as possible. Names are deduplicated case-insensitively;
+     * numeric Gaia source ids go out in one {@code source_id IN (...)} query per {@value #SOURCE_ID_CHUNK} ids,
+     * other names are resolved one by one as in {@link #getStarMetricsByName}. Keys are the names as given.
+     */
     public Map<String, Map<String, Object>> getStarMetricsByNames(List<String> names) {
+        Map<String, Map<String, Object>> byNormalized = new HashMap<>();
+        Map<Long, String> sourceIds = new LinkedHashMap<>();
+        Set<String> seen = new HashSet<>();
+        for (String n : names) {
+            String normalized = n.toLowerCase().trim();
+            if (!seen.add(normalized)) continue;
+            if (isNumeric(normalized)) {
+                try {
+                    sourceIds.put(Long.parseLong(normalized), normalized);
+                    continue;
+                } catch (NumberFormatException ignore) { /* too long for a source id; resolve as a name */ }
+            }
+            byNormalized.put(normalized, getStarMetricsByName(n));
+        }
+
+        List<Long> ids = new ArrayList<>(sourceIds.keySet());
+        for (int from = 0; from < ids.size(); from += SOURCE_ID_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + SOURCE_ID_CHUNK));
+            Map<Long, Map<String, Object>> found = querySourceIds(chunk);
+            for (Long id : chunk) {
+                Map<String, Object> metrics;
+                if (found == null) metrics = getStarMetricsByName(String.valueOf(id)); // query failed: one by one
+                else metrics = found.getOrDefault(id, Map.of("error", "Star not found in Gaia"));
+                byNormalized.put(sourceIds.get(id), metrics);
+            }
+        }
+
         Map<String, Map<String, Object>> out = new HashMap<>();
         for (String n : names) {
-            out.put(n, getStarMetricsByName(n));
+            out.put(n, byNormalized.get(n.toLowerCase().trim()));
         }
         return out;
     }
 
+    /** One TAP query for a chunk of source ids; ids Gaia does not have are absent, and a failed query gives null. */
+    private Map<Long, Map<String, Object>> querySourceIds(List<Long> sourceIds) {
+        Map<Long, Map<String, Object>> out = new HashMap<>();
+        try {
+            StringBuilder in = new StringBuilder();
+            for (Long id : sourceIds) {
+                if (in.length() > 0) in.append(',');
+                in.append(id);
+            }
+            String adql =
+                "SELECT " +
+                "source_id, ra, dec, " +
+                "parallax, parallax_error, " +
+                "pmra, pmra_error, pmdec, pmdec_error, " +
+                "radial_velocity, radial_velocity_error, " +
+                "phot_g_mean_mag, phot_bp_mean_mag, phot_rp_mean_mag, bp_rp, " +
+                "teff_gspphot, logg_gspphot, " +
+                "astrometric_excess_noise, astrometric_excess_noise_sig " +
+                "FROM gaiadr3.gaia_source WHERE source_id IN (" + in + ")";
+            String url = GAIA_TAP_URL + "?REQUEST=doQuery&LANG=ADQL&FORMAT=json&QUERY=" +
+                         UriUtils.encode(adql, StandardCharsets.UTF_8);
+            String json = restTemplate.getForObject(url, String.class);
+            JsonNode dataNode = new ObjectMapper().readTree(json).get("data");
+            if (dataNode == null || !dataNode.isArray()) return null;
+            for (JsonNode star : dataNode) {
+                long id = star.get(0).asLong();
+                out.put(id, metricsFromRow(star, String.valueOf(id))); // as the single-id lookup returns it
+            }
+        } catch (Exception e) {
+            System.out.println("Batched Gaia source_id query failed: " + e.getMessage());
+            return null;
+        }
+        return out;
+    }
 
+    /** Metrics map for one row of the standard column list (see the column mapping comment in getStarMetrics). */
+    private Map<String, Object> metricsFromRow(JsonNode star, String name) {
+        double parallax = star.get(3).asDouble();
+        double distance_ly = 1000.0 / parallax * 3.26156;
+        double pmra = star.get(5).asDouble();
+        double pmdec = star.get(7).asDouble();
+        double totalProperMotion = Math.sqrt(pmra*pmra + pmdec*pmdec);
+    
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("name", name);
+        metrics.put("sourceId", star.get(0).asLong());
+        metrics.put("ra", star.get(1).asDouble());
+        metrics.put("dec", star.get(2).asDouble());
+        metrics.put("parallax", parallax);
+        metrics.put("parallaxError", star.get(4).isNull() ? null : star.get(4).asDouble());
+        metrics.put("pmra", pmra);
+        metrics.put("pmraError", star.get(6).isNull() ? null : star.get(6).asDouble());
+        metrics.put("pmdec", pmdec);
+        metrics.put("pmdecError", star.get(8).isNull() ? null : star.get(8).asDouble());
+        metrics.put("radialVelocity", star.get(9).isNull() ? null : star.get(9).asDouble());
+        metrics.put("radialVelocityError", star.get(10).isNull() ? null : star.get(10).asDouble());
+        metrics.put("distanceLy", distance_ly);
+        metrics.put("totalProperMotion", totalProperMotion);
+        metrics.put("gMagnitude", star.get(11).isNull() ? null : star.get(11).asDouble());
+        metrics.put("bpMagnitude", star.get(12).isNull() ? null : star.get(12).asDouble());
+        metrics.put("rpMagnitude", star.get(13).isNull() ? null : star.get(13).asDouble());
+        metrics.put("bpRp", star.get(14).isNull() ? null : star.get(14).asDouble());
+        metrics.put("teff", star.get(15).isNull() ? null : star.get(15).asDouble());
+        metrics.put("logg", star.get(16).isNull() ? null : star.get(16).asDouble());
+        metrics.put("isMockData", false);
+        metrics.put("dataSource", "GAIA");
+        return metrics;
+    }
 }
@@ -0,0 +1,261 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Server-Sent Events fan-out for job and batch progress. Subscribing returns an {@link SseEmitter}, so no request
+ * thread is held while a client listens. Publishing only enqueues; each subscriber's queue is drained by at most one
+ * sender thread at a time, so a slow client delays nobody but itself. Senders are a fixed pool of
+ * {@code prediction.events.sender-threads}. When a subscriber falls more than {@code prediction.events.max-queued}
+ * events behind, progress events are dropped for it; state events are kept up to four times that. A subscriber
+ * whose backlog passes that, or whose current send has taken longer than {@code prediction.events.send-timeout-ms},
+ * is dropped: its stream is ended and it has to reconnect for a fresh snapshot.
+ */
+@Component
+public class JobEventHub {
+
+    /** One client stream. Events queue up until {@link #start} so an initial snapshot is always sent first. */
+    public final class Subscription {
+        private final UUID key;
+        private final SseEmitter emitter;
+        private final Map<String, UnaryOperator<Object>> views;
+        private final Predicate<Object> endsWith;
+        private final ArrayDeque<SseEmitter.SseEventBuilder> queue = new ArrayDeque<>();
+        private boolean started;
+        private boolean draining;
+        private boolean completeWhenDrained;
+        private volatile boolean closed;
+        /** System.nanoTime() when the send in progress began; 0 while none is. */
+        private volatile long sendingSince;
+
+        private Subscription(UUID key, SseEmitter emitter, Map<String, UnaryOperator<Object>> views,
+                             Predicate<Object> endsWith) {
+            this.key = key;
+            this.emitter = emitter;
+            this.views = views;
+            this.endsWith = endsWith;
+        }
+
+        public SseEmitter getEmitter() {
+            return emitter;
+        }
+
+        /**
+         * Send {@code initial} ahead of anything published since subscribing, then deliver events as they come;
+         * with {@code thenComplete}, send only {@code initial} and end the stream.
+         */
+        public void start(List<SseEmitter.SseEventBuilder> initial, boolean thenComplete) {
+            synchronized (this) {
+                if (thenComplete) queue.clear(); // the snapshot already is the final state
+                for (int i = initial.size() - 1; i >= 0; i--) queue.addFirst(initial.get(i));
+                started = true;
+                if (thenComplete) completeWhenDrained = true;
+            }
+            schedule();
+        }
+
+        /** End the stream once everything queued so far has been sent; later events are not delivered. */
+        public void endAfterQueued() {
+            synchronized (this) {
+                completeWhenDrained = true;
+            }
+            schedule();
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event, boolean state, boolean last) {
+            if (closed) return;
+            long since = sendingSince;
+            boolean overflow;
+            synchronized (this) {
+                if (completeWhenDrained) return;
+                if (!state && queue.size() >= maxQueued) return;
+                overflow = queue.size() >= 4 * maxQueued;
+                if (!overflow) {
+                    queue.add(event);
+                    if (last) completeWhenDrained = true;
+                }
+            }
+            if (overflow || (since != 0 && System.nanoTime() - since > sendTimeoutMillis * 1_000_000L)) {
+                drop();
+                return;
+            }
+            schedule();
+        }
+
+        /** Give up on a client that cannot keep up; the stream ends once any send in progress returns. */
+        private void drop() {
+            close();
+            boolean idle;
+            synchronized (this) {
+                queue.clear();
+                idle = !draining;
+            }
+            if (idle) sender.execute(this::finish);
+        }
+
+        private void finish() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                // already completed by the container
+            }
+        }
+
+        private void schedule() {
+            synchronized (this) {
+                if (!started || draining || closed) return;
+                draining = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder next;
+                boolean complete;
+                synchronized (this) {
+                    next = closed ? null : queue.poll();
+                    complete = closed || (next == null && completeWhenDrained);
+                    if (next == null) draining = false;
+                }
+                if (next == null) {
+                    if (complete) {
+                        close();
+                        finish();
+                    }
+                    return;
+                }
+                try {
+                    sendingSince = System.nanoTime();
+                    emitter.send(next);
+                    sendingSince = 0;
+                } catch (IOException | IllegalStateException e) {
+                    sendingSince = 0;
+                    close(); // client went away; the container completes the emitter
+                    synchronized (this) {
+                        queue.clear();
+                        draining = false;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            synchronized (this) {
+                if (closed) return;
+                closed = true;
+            }
+            subscribers.computeIfPresent(key, (k, set) -> {
+                set.remove(this);
+                return set.isEmpty() ? null : set;
+            });
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private ExecutorService sender;
+
+    @Value("${prediction.events.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${prediction.events.max-queued:256}")
+    private int maxQueued;
+
+    @Value("${prediction.events.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${prediction.events.send-timeout-ms:10000}")
+    private long sendTimeoutMillis;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger counter = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), r -> {
+            Thread t = new Thread(r, "job-events-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Listen for events published under {@code key} (a job id or batch id); call {@link Subscription#start} next. */
+    public Subscription subscribe(UUID key) {
+        return subscribe(key, Map.of());
+    }
+
+    /** As {@link #subscribe(UUID)}, with the data of the events named in {@code views} passed through them first. */
+    public Subscription subscribe(UUID key, Map<String, UnaryOperator<Object>> views) {
+        return subscribe(key, views, null);
+    }
+
+    /**
+     * As {@link #subscribe(UUID, Map)}; the stream also ends after the first event whose data {@code endsWith}
+     * accepts. The predicate sees every event published under {@code key}, from the moment of subscribing.
+     */
+    public Subscription subscribe(UUID key, Map<String, UnaryOperator<Object>> views, Predicate<Object> endsWith) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription sub = new Subscription(key, emitter, views, endsWith);
+        subscriberCount.incrementAndGet();
+        subscribers.compute(key, (k, set) -> {
+            Set<Subscription> out = set != null ? set : ConcurrentHashMap.newKeySet();
+            out.add(sub);
+            return out;
+        });
+        emitter.onCompletion(sub::close);
+        emitter.onTimeout(sub::close);
+        emitter.onError(e -> sub.close());
+        return sub;
+    }
+
+    /** Cheap check so producers can skip building progress payloads nobody will see. */
+    public boolean hasSubscribers(UUID key) {
+        return key != null && subscriberCount.get() > 0 && subscribers.containsKey(key);
+    }
+
+    /**
+     * Queue an event for every subscriber of {@code key}. {@code state} events (status transitions) are never
+     * dropped; {@code last} ends the streams once everything queued before it has been sent.
+     */
+    public void publish(UUID key, String name, Object data, boolean state, boolean last) {
+        if (!hasSubscribers(key)) return;
+        Set<Subscription> set = subscribers.get(key);
+        if (set == null) return;
+        for (Subscription sub : set) {
+            UnaryOperator<Object> view = sub.views.get(name);
+            boolean end = last || (sub.endsWith != null && sub.endsWith.test(data));
+            sub.offer(event(name, view != null ? view.apply(data) : data), state, end);
+        }
+    }
+
+    public static SseEmitter.SseEventBuilder event(String name, Object data) {
+        return SseEmitter.event().name(name).data(data);
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+}
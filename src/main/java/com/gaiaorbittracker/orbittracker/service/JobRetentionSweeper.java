@@ -0,0 +1,236 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobRetention;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobRetention.Candidate;
+import com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the job store bounded. Every {@code prediction.retention.interval-ms} it deletes finished jobs whose result
+ * has not been stored or shared with a LINKED submission for {@code max-age-hours}, then the least recently used
+ * remaining ones until stored results fit in {@code max-bytes}. LINKED jobs go (and are archived) with their primary.
+ * Deletes go in transactions of {@code batch-size} jobs, so locks stay short and submissions keep flowing while a
+ * large backlog is cleared. With {@code archive-dir} set, each batch is appended to a gzipped NDJSON file (decoded
+ * result JSON) and synced to disk before it is deleted. Both policies off (the default) disables the sweeper; when
+ * several nodes share a database, enable it on one of them.
+ */
+@Component
+public class JobRetentionSweeper {
+
+    private static final DateTimeFormatter ARCHIVE_NAME =
+        DateTimeFormatter.ofPattern("'predictions-'yyyyMMdd-HHmmss-SSS'.ndjson.gz'").withZone(ZoneOffset.UTC);
+
+    private final PredictionJobRetention retention;
+    private final TransactionTemplate tx;
+    private final Map<String, Counter> deleted = new LinkedHashMap<>();
+    private final Map<String, Counter> reclaimed = new LinkedHashMap<>();
+    private final Counter archived;
+    private final AtomicLong storedBytes = new AtomicLong(-1);
+    private final JsonFactory json = new JsonFactory();
+    private ScheduledExecutorService scheduler;
+
+    @Value("${prediction.retention.interval-ms:600000}")
+    private long intervalMillis;
+
+    /** Finished jobs are deleted this long after their result was stored or last linked to; 0 keeps them. */
+    @Value("${prediction.retention.max-age-hours:0}")
+    private long maxAgeHours;
+
+    /** Bound on the total size of stored results; 0 = unbounded. */
+    @Value("${prediction.retention.max-bytes:0}")
+    private long maxBytes;
+
+    @Value("${prediction.retention.batch-size:200}")
+    private int batchSize;
+
+    /** Directory for gzipped archives of deleted jobs; blank = delete without archiving. */
+    @Value("${prediction.retention.archive-dir:}")
+    private String archiveDir;
+
+    public JobRetentionSweeper(PredictionJobRetention retention, TransactionTemplate tx, MeterRegistry registry) {
+        this.retention = retention;
+        this.tx = tx;
+        for (String policy : List.of("age", "size")) {
+            deleted.put(policy, Counter.builder("prediction.retention.deleted").tag("policy", policy)
+                .description("Job rows deleted, linked duplicates included").register(registry));
+            reclaimed.put(policy, Counter.builder("prediction.retention.reclaimed.bytes").tag("policy", policy)
+                .baseUnit("bytes").register(registry));
+        }
+        this.archived = Counter.builder("prediction.retention.archived").register(registry);
+        Gauge.builder("prediction.storage.result.bytes", storedBytes, AtomicLong::get)
+            .description("Stored result bytes as of the last sweep (-1 before the first)").register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (maxAgeHours <= 0 && maxBytes <= 0) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-retention");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::sweepQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        System.out.println("Job retention: max age " + (maxAgeHours > 0 ? maxAgeHours + " h" : "unbounded")
+            + ", max result bytes " + (maxBytes > 0 ? maxBytes : "unbounded")
+            + (archiveDir.isBlank() ? "" : ", archiving to " + archiveDir));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    /** One pass of both policies; returns counts of what it deleted. */
+    public synchronized Map<String, Object> sweep() throws IOException {
+        Instant now = Instant.now();
+        List<UUID> removed = new ArrayList<>();
+        long[] totals = new long[2]; // job rows, bytes
+        try (Archive archive = archiveDir.isBlank() ? null : new Archive(Path.of(archiveDir), now)) {
+            if (maxAgeHours > 0) {
+                Instant cutoff = now.minus(Duration.ofHours(maxAgeHours));
+                List<Candidate> batch;
+                do {
+                    batch = retention.findOldest(cutoff, batchSize);
+                    deleteBatch(batch, "age", archive, removed, totals);
+                } while (batch.size() == batchSize);
+                tx.executeWithoutResult(s -> retention.deleteEmptyBatches(cutoff));
+            }
+            long stored = retention.totalResultBytes();
+            storedBytes.set(stored);
+            while (maxBytes > 0 && stored > maxBytes) {
+                List<Candidate> batch = retention.findOldest(now.plus(Duration.ofDays(1)), batchSize);
+                if (batch.isEmpty()) break; // the rest is still being computed
+                int take = 0;
+                long freed = 0;
+                while (take < batch.size() && stored - freed > maxBytes) freed += batch.get(take++).bytes;
+                deleteBatch(batch.subList(0, take), "size", archive, removed, totals);
+                stored -= freed;
+                storedBytes.set(stored);
+            }
+        }
+        // a submission that matched one of these jobs just before it was deleted may have linked to it since
+        for (int i = 0; i < removed.size(); i += batchSize) {
+            List<UUID> chunk = removed.subList(i, Math.min(removed.size(), i + batchSize));
+            totals[0] += tx.execute(s -> retention.deleteLinkedTo(chunk));
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("deleted", totals[0]);
+        summary.put("reclaimedBytes", totals[1]);
+        summary.put("storedBytes", storedBytes.get());
+        return summary;
+    }
+
+    private void deleteBatch(List<Candidate> batch, String policy, Archive archive, List<UUID> removed, long[] totals)
+            throws IOException {
+        if (batch.isEmpty()) return;
+        List<UUID> ids = new ArrayList<>(batch.size());
+        long bytes = 0;
+        for (Candidate c : batch) {
+            ids.add(c.id);
+            bytes += c.bytes;
+        }
+        if (archive != null) archived.increment(archive.write(ids));
+        int rows = tx.execute(s -> retention.delete(ids));
+        removed.addAll(ids);
+        totals[0] += rows;
+        totals[1] += bytes;
+        deleted.get(policy).increment(rows);
+        reclaimed.get(policy).increment(bytes);
+    }
+
+    private void sweepQuietly() {
+        try {
+            Map<String, Object> summary = sweep();
+            if (((Long) summary.get("deleted")) > 0) System.out.println("Job retention: " + summary);
+        } catch (Exception e) {
+            // nothing is deleted unless it was archived first; the next sweep picks up where this one stopped
+            System.out.println("Job retention sweep failed: " + e.getMessage());
+        }
+    }
+
+    /** One gzipped NDJSON file per sweep, opened on first use. */
+    private final class Archive implements AutoCloseable {
+        private final Path file;
+        private FileOutputStream fileOut;
+        private GZIPOutputStream gzip;
+        private JsonGenerator out;
+
+        Archive(Path dir, Instant sweepStart) {
+            this.file = dir.resolve(ARCHIVE_NAME.format(sweepStart));
+        }
+
+        /** Appends {@code ids} and syncs the file; returns jobs written. */
+        int write(Collection<UUID> ids) throws IOException {
+            if (out == null) {
+                Files.createDirectories(file.getParent());
+                fileOut = new FileOutputStream(file.toFile());
+                gzip = new GZIPOutputStream(fileOut, 1 << 16, true);
+                out = json.createGenerator(gzip);
+                out.setRootValueSeparator(null);
+            }
+            int[] written = new int[1];
+            try {
+                retention.readForArchive(ids, rs -> {
+                    try {
+                        out.writeStartObject();
+                        out.writeStringField("id", rs.getObject(1, UUID.class).toString());
+                        out.writeStringField("gaiaId", rs.getString(2));
+                        out.writeStringField("submittedAt", String.valueOf(rs.getObject(3, Instant.class)));
+                        out.writeStringField("status", rs.getString(4));
+                        out.writeStringField("completedAt", String.valueOf(rs.getObject(5, Instant.class)));
+                        out.writeFieldName("result");
+                        out.writeRawValue(TrajectoryCodec.decodeToString(rs.getBytes(6)));
+                        out.writeEndObject();
+                        out.writeRaw('\n');
+                        written[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+            gzip.flush();
+            fileOut.getFD().sync();
+            return written[0];
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (out != null) {
+                out.close(); // finishes the gzip trailer
+            }
+        }
+    }
+}
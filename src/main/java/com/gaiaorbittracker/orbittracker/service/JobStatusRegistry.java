@@ -0,0 +1,182 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory status of the jobs this node submitted or runs, so status polls for them never touch the database.
+ * Entries are registered at submission, move through their states by compare-and-set (no locks), and are dropped
+ * {@code prediction.status.registry.retain-ms} after finishing; anything not here is read from the repository.
+ * The database is still written by {@link JobStatusWriter}. A job another node takes over is evicted as soon as
+ * this node finds out (when it fails to start it, or at the next lease heartbeat), so reads fall through to the
+ * shared table.
+ */
+@Component
+public class JobStatusRegistry {
+
+    private static final Set<String> FINAL = Set.of("DONE", "FAILED", "TIMED_OUT", "CANCELLED", "LINKED");
+
+    /** Immutable snapshot of a job's mutable part; replaced as a whole. */
+    private static final class State {
+        final String status;
+        final Double progress; // fraction of the Monte Carlo stage done, while RUNNING
+        final long finishedAt; // System.nanoTime() when it reached a final status; 0 = active
+
+        State(String status, Double progress, long finishedAt) {
+            this.status = status;
+            this.progress = progress;
+            this.finishedAt = finishedAt;
+        }
+    }
+
+    public static final class Entry {
+        private final UUID id;
+        private final String gaiaId;
+        private final Instant submittedAt;
+        private final String jobType;
+        private final UUID resultRef;
+        private final UUID batchId;
+        private final AtomicReference<State> state;
+
+        private Entry(PredictionJob job) {
+            this.id = job.getId();
+            this.gaiaId = job.getGaiaId();
+            this.submittedAt = job.getSubmittedAt();
+            this.jobType = job.getJobType();
+            this.resultRef = job.getResultRef();
+            this.batchId = job.getBatchId();
+            String status = job.getStatus();
+            this.state = new AtomicReference<>(new State(status, null, FINAL.contains(status) ? System.nanoTime() : 0));
+        }
+
+        public String getStatus() {
+            return state.get().status;
+        }
+
+        public Double getProgress() {
+            return state.get().progress;
+        }
+
+        public UUID getResultRef() {
+            return resultRef;
+        }
+
+        /** A fresh DTO, safe for the caller to modify. */
+        public JobStatusDto view() {
+            State s = state.get();
+            JobStatusDto dto = new JobStatusDto(id, gaiaId, submittedAt, s.status, jobType, resultRef, batchId);
+            dto.setProgress(s.progress);
+            return dto;
+        }
+    }
+
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private ScheduledExecutorService evictor;
+
+    @Value("${prediction.status.registry.retain-ms:300000}")
+    private long retainMillis;
+
+    /** Beyond this many entries new jobs are not registered (their polls read the database). */
+    @Value("${prediction.status.registry.max-entries:200000}")
+    private int maxEntries;
+
+    public JobStatusRegistry(MeterRegistry registry) {
+        Gauge.builder("prediction.status.registry.size", entries, ConcurrentHashMap::size).register(registry);
+    }
+
+    @PostConstruct
+    public void init() {
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-status-registry");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(1000, retainMillis / 4);
+        evictor.scheduleWithFixedDelay(this::evictFinished, every, every, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+    }
+
+    /** Track {@code job} in its current status; a job already tracked keeps its entry. */
+    public void register(PredictionJob job) {
+        if (entries.size() >= maxEntries) return;
+        entries.putIfAbsent(job.getId(), new Entry(job));
+    }
+
+    public Entry get(UUID jobId) {
+        return entries.get(jobId);
+    }
+
+    /**
+     * Move a tracked job to {@code status}. As in the table, nothing leaves CANCELLED, and a finished job does not go
+     * back to PENDING or RUNNING. Returns false when the job is untracked or the move is not allowed.
+     */
+    public boolean transition(UUID jobId, String status) {
+        Entry e = entries.get(jobId);
+        if (e == null) return false;
+        boolean toFinal = FINAL.contains(status);
+        while (true) {
+            State cur = e.state.get();
+            if ("CANCELLED".equals(cur.status) || (cur.finishedAt != 0 && !toFinal)) return false;
+            State next = new State(status, toFinal ? null : cur.progress, toFinal ? System.nanoTime() : 0);
+            if (e.state.compareAndSet(cur, next)) return true;
+        }
+    }
+
+    /** Record progress of a running job; ignored once it has finished. */
+    public void progress(UUID jobId, double fraction) {
+        Entry e = entries.get(jobId);
+        if (e == null) return;
+        while (true) {
+            State cur = e.state.get();
+            if (cur.finishedAt != 0) return;
+            if (e.state.compareAndSet(cur, new State(cur.status, fraction, 0))) return;
+        }
+    }
+
+    /** Ids of tracked jobs that have not finished, for the lease heartbeat to check against the table. */
+    public List<UUID> activeIds() {
+        List<UUID> ids = new ArrayList<>();
+        entries.forEach((id, e) -> {
+            if (e.state.get().finishedAt == 0) ids.add(id);
+        });
+        return ids;
+    }
+
+    /** Stop answering for {@code jobId}; reads go to the repository from now on. */
+    public void evict(UUID jobId) {
+        entries.remove(jobId);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    void evictFinished() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(retainMillis);
+        entries.values().removeIf(e -> {
+            long finishedAt = e.state.get().finishedAt;
+            return finishedAt != 0 && finishedAt - cutoff < 0;
+        });
+    }
+}
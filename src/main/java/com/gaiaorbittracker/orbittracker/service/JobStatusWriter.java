@@ -0,0 +1,117 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobBulkWriter;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobBulkWriter.StatusUpdate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for job status transitions. Updates are coalesced per job (RUNNING followed by DONE within one
+ * interval is a single row write) and flushed every {@code prediction.status.flush-ms} as batched transactions.
+ * Readers overlay {@link #pending} so a job never looks older than its latest transition.
+ */
+@Component
+public class JobStatusWriter {
+
+    /** Latest not-yet-flushed state of a job. */
+    public static final class Pending {
+        public final String status;
+        public final byte[] resultData; // TrajectoryCodec-encoded result, or null
+        final List<Runnable> afterFlush;
+
+        Pending(String status, byte[] resultData, List<Runnable> afterFlush) {
+            this.status = status;
+            this.resultData = resultData;
+            this.afterFlush = afterFlush;
+        }
+    }
+
+    // a backlog is written as several short transactions: H2 slows down as one transaction's undo log grows,
+    // and short ones hold row locks only briefly
+    private static final int FLUSH_CHUNK = 200;
+
+    private final PredictionJobBulkWriter writer;
+    private final TransactionTemplate tx;
+    private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Value("${prediction.status.flush-ms:200}")
+    private long flushMillis;
+
+    public JobStatusWriter(PredictionJobBulkWriter writer, TransactionTemplate tx) {
+        this.writer = writer;
+        this.tx = tx;
+    }
+
+    @PostConstruct
+    public void init() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "job-status-writer");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * Record a transition; {@code resultData == null} keeps the stored (or pending) result.
+     * {@code afterFlush} runs once the row is committed.
+     */
+    public void update(UUID jobId, String status, byte[] resultData, Runnable afterFlush) {
+        pending.compute(jobId, (id, old) -> {
+            List<Runnable> callbacks = new ArrayList<>(old != null ? old.afterFlush : List.of());
+            if (afterFlush != null) callbacks.add(afterFlush);
+            byte[] result = resultData != null ? resultData : (old != null ? old.resultData : null);
+            return new Pending(status, result, callbacks);
+        });
+    }
+
+    public Optional<Pending> pending(UUID jobId) {
+        return Optional.ofNullable(pending.get(jobId));
+    }
+
+    /** Write everything pending now, in key order. One flush at a time, so two never lock the same rows. */
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+        Map<UUID, Pending> snapshot = Map.copyOf(pending);
+        List<StatusUpdate> updates = new ArrayList<>(snapshot.size());
+        snapshot.forEach((id, p) -> updates.add(new StatusUpdate(id, p.status, p.resultData)));
+        updates.sort(Comparator.comparing(u -> u.id));
+        for (int i = 0; i < updates.size(); i += FLUSH_CHUNK) {
+            List<StatusUpdate> chunk = updates.subList(i, Math.min(updates.size(), i + FLUSH_CHUNK));
+            tx.executeWithoutResult(status -> writer.updateStatuses(chunk));
+        }
+        // drop only entries that did not change while we were writing
+        snapshot.forEach((id, p) -> {
+            if (pending.remove(id, p)) p.afterFlush.forEach(Runnable::run);
+        });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            System.out.println("Job status flush failed, will retry: " + e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,11 @@ package com.gaiaorbittracker.orbittracker.service;
 
 import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
 import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernel;
+import com.gaiaorbittracker.orbittracker.service.orbit.BinaryOrbitEngine;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticFrame;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticOrbitIntegrator;
+import com.gaiaorbittracker.orbittracker.service.orbit.OrbitCheckpointCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,6 +22,12 @@ public class OrbitalCalculator {
     private GaiaService gaiaService;
     @Autowired
     private NewtonianPhysics newtonian;
+    @Autowired
+    private PropagationKernel kernel;
+    @Autowired
+    private GalacticOrbitIntegrator galacticIntegrator;
+    @Autowired
+    private OrbitCheckpointCache orbitCheckpoints;
 
     // Constants
     private static final double AU_TO_PC = 4.8481368e-6; // Astronomical units to parsecs
@@ -24,12 +35,48 @@ public class OrbitalCalculator {
     private static final double MAS_TO_RAD = Math.PI / (180.0 * 3600.0 * 1000.0); // milliarcseconds to radians
     private static final double KM_S_TO_AU_YR = 0.210945; // km/s to AU/year
 
+    public static final String MODE_STANDARD = "standard";
+    public static final String MODE_HIGH_FIDELITY = "high_fidelity";
+    public static final String MODE_GALACTIC = "galactic";
+
+    /** Trajectory points sent per {@link ProgressListener#trajectory} call. */
+    static final int TRAJECTORY_CHUNK = 100;
+    /** Time steps between cancellation/deadline checks in the propagation and Monte Carlo loops. */
+    public static final int CHECK_EVERY = 256;
+    /** Galactic bands integrate every sample in the potential, so they use fewer samples and a coarser time grid. */
+    static final int GALACTIC_SAMPLES = 100;
+    static final int GALACTIC_BAND_STEPS = 500;
+
+    /** Partial results while a prediction is computed; called on the computing thread, so keep it cheap. */
+    public interface ProgressListener {
+        ProgressListener NONE = new ProgressListener() { };
+
+        /** Nominal trajectory points {@code from .. from + points.size() - 1}, before the uncertainty bands. */
+        default void trajectory(int from, List<Map<String, Object>> points) { }
+
+        /** Uncertainty bands done for {@code stepsDone} of {@code steps} time steps, {@code samples} draws each. */
+        default void monteCarlo(int stepsDone, int steps, int samples) { }
+    }
+
     public PredictionResultDto computePrediction(StarInput input, String gaiaApiKey) throws Exception {
+        return computeFromStarData(input, resolveStarData(input));
+    }
+
+    /**
+     * I/O half of a prediction: Gaia lookup when a Gaia ID is given, otherwise the astrometry from the input.
+     * Kept separate so callers can run it on I/O threads and hand the result to a compute pool.
+     */
+    public Map<String, Object> resolveStarData(StarInput input) throws Exception {
+        return resolveStarData(input, new StarDataLoader(gaiaService));
+    }
+
+    /** As {@link #resolveStarData(StarInput)}, looking the star up through the caller's {@code stars}. */
+    public Map<String, Object> resolveStarData(StarInput input, StarDataLoader stars) throws Exception {
         Map<String, Object> starData;
-        
+
         // Get star data from Gaia if Gaia ID is provided, otherwise use input data
         if (input.getGaiaId() != null) {
-            starData = gaiaService.getStarMetricsByName(input.getGaiaId());
+            starData = stars.load(input.getGaiaId());
             if (starData.containsKey("error")) {
                 throw new Exception("Failed to fetch Gaia data: " + starData.get("error"));
             }
@@ -43,7 +90,22 @@ public class OrbitalCalculator {
             starData.put("pmdec", input.getPmdec());
             starData.put("radialVelocity", input.getRadialVelocity());
         }
+        return starData;
+    }
 
+    /** CPU half of a prediction for star data from {@link #resolveStarData}; no network access. */
+    public PredictionResultDto computeFromStarData(StarInput input, Map<String, Object> starData) throws Exception {
+        return computeFromStarData(input, starData, ProgressListener.NONE,
+            CancellationToken.withDeadline(input.getDeadlineSeconds()));
+    }
+
+    /**
+     * As {@link #computeFromStarData(StarInput, Map)}, reporting partial results to {@code progress} and checking
+     * {@code token} every {@link #CHECK_EVERY} steps. Cancellation throws {@link java.util.concurrent.CancellationException};
+     * a passed deadline returns the steps computed so far, with {@code timedOut} and {@code completedSteps} in the data.
+     */
+    public PredictionResultDto computeFromStarData(StarInput input, Map<String, Object> starData,
+                                                   ProgressListener progress, CancellationToken token) throws Exception {
         // Validate required data
         validateStarData(starData);
 
@@ -52,21 +114,70 @@ public class OrbitalCalculator {
         int timeSteps = input.getTimeSteps() != null ? input.getTimeSteps() : 50;
 
         // Calculate orbital predictions
-        // Default to high fidelity when not specified
-        boolean highFidelity = (input.getHighFidelity() == null) || Boolean.TRUE.equals(input.getHighFidelity());
-        List<Map<String, Object>> predictions = highFidelity
-            ? calculateOrbitalMotionHighFidelity(starData, timePeriodYears, timeSteps)
-            : calculateOrbitalMotion(starData, timePeriodYears, timeSteps);
+        String mode = resolvePropagationMode(input);
+        ComputationPlan plan = ComputationPlan.of(input.getFields());
+        List<Map<String, Object>> predictions;
+        switch (mode) {
+            case MODE_GALACTIC:
+                predictions = calculateOrbitalMotionGalactic(starData, timePeriodYears, timeSteps, plan, token);
+                break;
+            case MODE_HIGH_FIDELITY:
+                predictions = calculateOrbitalMotionHighFidelity(starData, timePeriodYears, timeSteps, plan, token);
+                break;
+            default:
+                predictions = calculateOrbitalMotion(starData, timePeriodYears, timeSteps, plan, token);
+        }
+
+        token.throwIfCancelled();
+
+        // Summary and debug read the full points, so they come before the points are trimmed to the requested fields
+        Map<String, Object> summary = plan.summary() ? calculateSummaryStats(predictions, starData) : null;
+        Map<String, Object> debug = plan.debug() ? debugInfo(mode, starData, predictions) : null;
+        plan.trim(predictions);
+
+        if (progress != ProgressListener.NONE) {
+            for (int from = 0; from < predictions.size(); from += TRAJECTORY_CHUNK) {
+                progress.trajectory(from, predictions.subList(from, Math.min(predictions.size(), from + TRAJECTORY_CHUNK)));
+            }
+        }
 
         // If we have Gaia uncertainties, run Monte Carlo to estimate uncertainty bands
-        Map<String, Object> uncertaintyBands = calculateUncertaintyBands(starData, timePeriodYears, timeSteps, 200);
-        
-        // Calculate summary statistics
-        Map<String, Object> summary = calculateSummaryStats(predictions, starData);
+        Map<String, Object> uncertaintyBands = token.shouldStop() || !plan.uncertainty()
+            ? new HashMap<>()
+            : MODE_GALACTIC.equals(mode)
+                ? calculateGalacticUncertaintyBands(starData, timePeriodYears, timeSteps, GALACTIC_SAMPLES, progress, token)
+                : calculateUncertaintyBands(starData, timePeriodYears, timeSteps, 200, progress, token);
+        token.throwIfCancelled();
+
+        Map<String, Object> result = new HashMap<>();
+        if (plan.includes("starData")) result.put("starData", starData);
+        result.put("predictions", predictions);
+        if (summary != null) result.put("summary", summary);
+        if (!uncertaintyBands.isEmpty()) {
+            result.put("uncertainty", uncertaintyBands);
+        }
+        result.put("timePeriodYears", timePeriodYears);
+        result.put("timeSteps", timeSteps);
+        if (debug != null) result.put("debug", debug);
+
+        String summaryText = String.format("Orbital prediction for %s over %.1f years with %d time steps", 
+            input.getGaiaId() != null ? input.getGaiaId() : "provided coordinates", 
+            timePeriodYears, timeSteps);
+        if (token.hasStopped()) {
+            result.put("timedOut", true);
+            result.put("completedSteps", predictions.size() - 1);
+            summaryText += String.format(" (deadline reached: trajectory to step %d%s)", predictions.size() - 1,
+                !plan.uncertainty() ? "" : uncertaintyBands.isEmpty() ? ", no uncertainty bands" : ", uncertainty bands partial");
+        }
+
+        return new PredictionResultDto(summaryText, result);
+    }
 
-        // Debug info: compare Gaia vs predicted initial, and selected mode
+    /** Gaia vs predicted initial position, and the selected mode. */
+    private static Map<String, Object> debugInfo(String mode, Map<String, Object> starData,
+                                                 List<Map<String, Object>> predictions) {
         Map<String, Object> debug = new HashMap<>();
-        debug.put("mode", highFidelity ? "high_fidelity" : "standard");
+        debug.put("mode", mode);
         debug.put("gaiaRa", starData.get("ra"));
         debug.put("gaiaDec", starData.get("dec"));
         if (!predictions.isEmpty()) {
@@ -82,28 +193,86 @@ public class OrbitalCalculator {
                 debug.put("initialMismatchArcsec", Math.sqrt(dRa*dRa + dDec*dDec) * 3600.0);
             } catch (Exception ignore) { /* best effort */ }
         }
+        return debug;
+    }
 
-        Map<String, Object> result = new HashMap<>();
-        result.put("starData", starData);
-        result.put("predictions", predictions);
-        result.put("summary", summary);
-        if (!uncertaintyBands.isEmpty()) {
-            result.put("uncertainty", uncertaintyBands);
+    /** propagationMode wins when set; otherwise highFidelity, which defaults to true when not specified. */
+    static String resolvePropagationMode(StarInput input) throws Exception {
+        String mode = input.getPropagationMode();
+        if (mode != null && !mode.isBlank()) {
+            mode = mode.trim().toLowerCase(Locale.ROOT).replace('-', '_');
+            if (MODE_STANDARD.equals(mode) || MODE_HIGH_FIDELITY.equals(mode) || MODE_GALACTIC.equals(mode)) {
+                return mode;
+            }
+            throw new Exception("Unknown propagationMode: " + input.getPropagationMode());
         }
-        result.put("timePeriodYears", timePeriodYears);
-        result.put("timeSteps", timeSteps);
-        result.put("debug", debug);
+        boolean highFidelity = (input.getHighFidelity() == null) || Boolean.TRUE.equals(input.getHighFidelity());
+        return highFidelity ? MODE_HIGH_FIDELITY : MODE_STANDARD;
+    }
 
-        String summaryText = String.format("Orbital prediction for %s over %.1f years with %d time steps", 
-            input.getGaiaId() != null ? input.getGaiaId() : "provided coordinates", 
-            timePeriodYears, timeSteps);
+    /**
+     * Star and Sun integrated together in the Milky Way potential (bulge + disk + halo) and differenced,
+     * so the heliocentric track includes Galactic orbital curvature. Meant for 10^4+ year horizons.
+     */
+    private List<Map<String, Object>> calculateOrbitalMotionGalactic(Map<String, Object> starData,
+                                                                     double timePeriodYears,
+                                                                     int timeSteps,
+                                                                     ComputationPlan plan,
+                                                                     CancellationToken token) {
+        List<Map<String, Object>> out = new ArrayList<>();
+        double ra0deg = (Double) starData.get("ra");
+        double dec0deg = (Double) starData.get("dec");
+        Double radialVelocity = (Double) starData.get("radialVelocity"); // km/s
 
-        return new PredictionResultDto(summaryText, result);
+        double[] star0 = GalacticFrame.toGalactocentric(ra0deg, dec0deg, (Double) starData.get("parallax"),
+            (Double) starData.get("pmra"), (Double) starData.get("pmdec"),
+            radialVelocity != null ? radialVelocity : 0.0);
+        double spanMyr = timePeriodYears / 1e6;
+        // fixed-step chains, so a longer horizon or a finer grid for the same star resumes from checkpoints
+        double chainStep = Math.copySign(GalacticOrbitIntegrator.DEFAULT_MAX_STEP_MYR, spanMyr);
+        double[] starTrack = galacticIntegrator.integrate(orbitCheckpoints.chain(star0, chainStep), spanMyr, timeSteps, token);
+        double[] sunTrack = galacticIntegrator.integrate(orbitCheckpoints.chain(GalacticFrame.sunState(), chainStep),
+            spanMyr, timeSteps, token);
+        // shorter than timeSteps + 1 points when the token stopped an integration
+        int lastStep = Math.min(starTrack.length, sunTrack.length) / 6 - 1;
+
+        double dt = timePeriodYears / timeSteps;
+        double[] obs = new double[5];
+        for (int i = 0; i <= lastStep; i++) {
+            double t = i * dt;
+            GalacticFrame.toObservables(starTrack, i * 6, sunTrack, i * 6, obs);
+            double ra_deg = obs[0];
+            double dec_deg = obs[1];
+            double distance_ly = obs[2] * 1000.0 * 3.26156; // kpc -> pc -> ly
+
+            Map<String, Object> prediction = new HashMap<>();
+            prediction.put("time", t);
+            prediction.put("ra", ra_deg);
+            prediction.put("dec", dec_deg);
+            prediction.put("distanceLy", distance_ly);
+            prediction.put("tangentialVelocityKmS", obs[4]);
+            prediction.put("radialVelocityKmS", obs[3]);
+            prediction.put("totalVelocityKmS", Math.sqrt(obs[3] * obs[3] + obs[4] * obs[4]));
+            if (plan.angularSeparation()) {
+                prediction.put("angularSeparationArcsec", Math.toDegrees(calculateAngularSeparation(ra0deg, dec0deg, ra_deg, dec_deg)) * 3600.0);
+            }
+
+            if (plan.solarPosition()) {
+                Map<String, Object> solar = calculateSolarSystemPosition(ra_deg, dec_deg, distance_ly, t);
+                prediction.put("galacticLongitude", solar.get("galacticLongitude"));
+                prediction.put("galacticLatitude", solar.get("galacticLatitude"));
+            }
+
+            out.add(prediction);
+        }
+        return out;
     }
 
     private List<Map<String, Object>> calculateOrbitalMotionHighFidelity(Map<String, Object> starData,
                                                                          double timePeriodYears,
-                                                                         int timeSteps) throws Exception {
+                                                                         int timeSteps,
+                                                                         ComputationPlan plan,
+                                                                         CancellationToken token) throws Exception {
         List<Map<String, Object>> out = new ArrayList<>();
 
         // If this star has explicit orbital parameters (binary), honor those first
@@ -112,30 +281,19 @@ public class OrbitalCalculator {
         if (hasOrbitalMotion) {
             double ra0deg = (Double) starData.get("ra");
             double dec0deg = (Double) starData.get("dec");
-            double parallax = (Double) starData.get("parallax"); // mas
             double pmra = (Double) starData.get("pmra"); // mas/yr
             double pmdec = (Double) starData.get("pmdec"); // mas/yr
             Double radialVelocity = (Double) starData.get("radialVelocity"); // km/s
 
-            double orbitalPeriod = ((Number) starData.getOrDefault("orbitalPeriod", 0.0)).doubleValue();
-            double eccentricity = ((Number) starData.getOrDefault("eccentricity", 0.0)).doubleValue();
-            double inclination = ((Number) starData.getOrDefault("inclination", 0.0)).doubleValue();
-
+            BinaryTrack track = calculateBinaryTrack(starData, timePeriodYears, timeSteps);
             double dt = timePeriodYears / timeSteps;
-            double ra0 = Math.toRadians(ra0deg);
-            double dec0 = Math.toRadians(dec0deg);
 
             for (int i = 0; i <= timeSteps; i++) {
+                if (i > 0 && i % CHECK_EVERY == 0 && token.shouldStop()) break;
                 double t = i * dt;
-                Map<String, Double> pos = calculateOrbitalPosition(
-                    ra0, dec0,
-                    (1000.0 / parallax) * PC_TO_AU, // distance in AU
-                    orbitalPeriod, eccentricity, inclination, t
-                );
-
-                double ra_deg = pos.get("ra");
-                double dec_deg = pos.get("dec");
-                double distance_ly = pos.get("distance") * 3.26156; // AU -> ly via pc
+                double ra_deg = track.raDeg[i];
+                double dec_deg = track.decDeg[i];
+                double distance_ly = track.distanceAu[i] / PC_TO_AU * 3.26156; // AU -> pc -> ly
 
                 Map<String, Object> prediction = new HashMap<>();
                 prediction.put("time", t);
@@ -154,11 +312,15 @@ public class OrbitalCalculator {
                 double rv_kms = radialVelocity != null ? radialVelocity : 0.0;
                 prediction.put("radialVelocityKmS", rv_kms);
                 prediction.put("totalVelocityKmS", Math.sqrt(tangential_velocity_km_s * tangential_velocity_km_s + rv_kms * rv_kms));
-                prediction.put("angularSeparationArcsec", calculateAngularSeparation(ra0deg, dec0deg, ra_deg, dec_deg) * 3600.0);
+                if (plan.angularSeparation()) {
+                    prediction.put("angularSeparationArcsec", calculateAngularSeparation(ra0deg, dec0deg, ra_deg, dec_deg) * 3600.0);
+                }
 
-                Map<String, Object> solar = calculateSolarSystemPosition(ra_deg, dec_deg, distance_ly, t);
-                prediction.put("galacticLongitude", solar.get("galacticLongitude"));
-                prediction.put("galacticLatitude", solar.get("galacticLatitude"));
+                if (plan.solarPosition()) {
+                    Map<String, Object> solar = calculateSolarSystemPosition(ra_deg, dec_deg, distance_ly, t);
+                    prediction.put("galacticLongitude", solar.get("galacticLongitude"));
+                    prediction.put("galacticLatitude", solar.get("galacticLatitude"));
+                }
 
                 out.add(prediction);
             }
@@ -216,6 +378,7 @@ public class OrbitalCalculator {
         double mu = NewtonianPhysics.G_AU3_MSUN_YR2; // central 1 Msun
 
         for (int i = 0; i <= timeSteps; i++) {
+            if (i > 0 && i % CHECK_EVERY == 0 && token.shouldStop()) break;
             // Convert to RA/Dec/Distance
             double x = state.position.x, y = state.position.y, z = state.position.z;
             double r = Math.sqrt(x*x + y*y + z*z);
@@ -240,12 +403,16 @@ public class OrbitalCalculator {
             double rv_kms = radialVelocity != null ? radialVelocity : 0.0;
             prediction.put("radialVelocityKmS", rv_kms);
             prediction.put("totalVelocityKmS", Math.sqrt(tangential_velocity_km_s * tangential_velocity_km_s + rv_kms * rv_kms));
-            prediction.put("angularSeparationArcsec", calculateAngularSeparation(Math.toDegrees(ra0), Math.toDegrees(dec0), ra_deg, dec_deg) * 3600.0);
+            if (plan.angularSeparation()) {
+                prediction.put("angularSeparationArcsec", calculateAngularSeparation(Math.toDegrees(ra0), Math.toDegrees(dec0), ra_deg, dec_deg) * 3600.0);
+            }
 
             // Add simple galactic placeholder from existing method
-            Map<String, Object> solar = calculateSolarSystemPosition(ra_deg, dec_deg, current_distance_ly, i * dt);
-            prediction.put("galacticLongitude", solar.get("galacticLongitude"));
-            prediction.put("galacticLatitude", solar.get("galacticLatitude"));
+            if (plan.solarPosition()) {
+                Map<String, Object> solar = calculateSolarSystemPosition(ra_deg, dec_deg, current_distance_ly, i * dt);
+                prediction.put("galacticLongitude", solar.get("galacticLongitude"));
+                prediction.put("galacticLatitude", solar.get("galacticLatitude"));
+            }
 
             out.add(prediction);
 
@@ -277,9 +444,187 @@ public class OrbitalCalculator {
     private Map<String, Object> calculateUncertaintyBands(Map<String, Object> nominalStarData,
                                                          double timePeriodYears,
                                                          int timeSteps,
-                                                         int numSamples) {
+                                                         int numSamples,
+                                                         ProgressListener progress,
+                                                         CancellationToken token) {
+        Map<String, Object> bands = new HashMap<>();
+        Double[] errors = astrometricErrors(nominalStarData);
+        if (errors == null) return bands;
+        Double parallaxErr = errors[0], pmraErr = errors[1], pmdecErr = errors[2], rvErr = errors[3];
+
+        Random random = new Random(42);
+
+        // Draw every sample up front (same draw order as before) so the per-timestep work is a flat batch
+        double pmraNom = asDouble(nominalStarData.get("pmra"));
+        double pmdecNom = asDouble(nominalStarData.get("pmdec"));
+        Double rvNom = asDouble(nominalStarData.get("radialVelocity"));
+        double[] pmraRad = new double[numSamples];
+        double[] pmdecRad = new double[numSamples];
+        for (int s = 0; s < numSamples; s++) {
+            // Gaussian draws (independent; covariance ignored for simplicity).
+            // Parallax and RV draws do not move RA/Dec in the linear model but keep the RNG sequence stable.
+            if (parallaxErr != null) random.nextGaussian();
+            double pmra = pmraErr != null ? pmraNom + random.nextGaussian() * pmraErr : pmraNom;
+            double pmdec = pmdecErr != null ? pmdecNom + random.nextGaussian() * pmdecErr : pmdecNom;
+            if (rvErr != null && rvNom != null) random.nextGaussian();
+            pmraRad[s] = pmra * MAS_TO_RAD;
+            pmdecRad[s] = pmdec * MAS_TO_RAD;
+        }
+
+        // Nominal for separation baseline
+        List<Map<String, Object>> nominal = calculateOrbitalMotion(nominalStarData, timePeriodYears, timeSteps,
+            ComputationPlan.POSITIONS, token);
+        // a binary's nominal track adds the reflex orbit to the drifting barycentre; samples keep the reflex and
+        // differ only in the drift
+        boolean binary = Boolean.TRUE.equals(nominalStarData.get("hasOrbitalMotion"))
+                         && asDouble(nominalStarData.get("orbitalPeriod")) != null
+                         && asDouble(nominalStarData.get("orbitalPeriod")) > 0;
+        double ra0 = Math.toRadians(asDouble(nominalStarData.get("ra")));
+        double dec0 = Math.toRadians(asDouble(nominalStarData.get("dec")));
+
+        double[] raSamples = new double[numSamples];
+        double[] decSamples = new double[numSamples];
+        double[] sepSamples = new double[numSamples];
+
+        // Compute percentiles for each time step
+        List<Map<String, Object>> raBands = new ArrayList<>();
+        List<Map<String, Object>> decBands = new ArrayList<>();
+        List<Map<String, Object>> sepBands = new ArrayList<>();
+        double dt = timePeriodYears / timeSteps;
+        int reportEvery = Math.max(1, (timeSteps + 1) / 20);
+        for (int i = 0; i < nominal.size(); i++) {
+            if (i > 0 && i % CHECK_EVERY == 0 && token.shouldStop()) break;
+            double t = i * dt;
+            Map<String, Object> pNom = nominal.get(i);
+            double nomRa = (Double) pNom.get("ra");
+            double nomDec = (Double) pNom.get("dec");
+            double raBase = ra0, decBase = dec0;
+            if (binary) {
+                // nominal position less the nominal drift, so each sample lands at its own drift from there
+                raBase = Math.toRadians(nomRa) - pmraNom * MAS_TO_RAD * t;
+                decBase = Math.toRadians(nomDec) - pmdecNom * MAS_TO_RAD * t;
+            }
+            kernel.linearAstrometry(raBase, decBase, t, pmraRad, pmdecRad, raSamples, decSamples, numSamples);
+            // Angular separation vs nominal at same time
+            kernel.angularSeparationArcsec(nomRa, nomDec, raSamples, decSamples, sepSamples, numSamples);
+            raBands.add(band(t, raSamples));
+            decBands.add(band(t, decSamples));
+            sepBands.add(band(t, sepSamples));
+            if ((i + 1) % reportEvery == 0 || i == timeSteps) progress.monteCarlo(i + 1, timeSteps + 1, numSamples);
+        }
+
+        bands.put("ra", raBands);
+        bands.put("dec", decBands);
+        bands.put("angularSeparationArcsec", sepBands);
+        bands.put("samples", numSamples);
+        bands.put("model", "linear");
+        return bands;
+    }
+
+    /**
+     * Monte Carlo bands for galactic mode: each sample (parallax, proper motions and radial velocity drawn from
+     * their errors) is integrated in the potential like the nominal star and seen from the same solar track, so the
+     * bands follow the curved trajectory. Bands are sampled at up to {@link #GALACTIC_BAND_STEPS} epochs over the
+     * span, which keeps memory at samples x epochs however many trajectory steps were asked for.
+     */
+    private Map<String, Object> calculateGalacticUncertaintyBands(Map<String, Object> starData,
+                                                                  double timePeriodYears,
+                                                                  int timeSteps,
+                                                                  int numSamples,
+                                                                  ProgressListener progress,
+                                                                  CancellationToken token) {
         Map<String, Object> bands = new HashMap<>();
+        Double[] errors = astrometricErrors(starData);
+        if (errors == null) return bands;
+
+        double ra0 = asDouble(starData.get("ra"));
+        double dec0 = asDouble(starData.get("dec"));
+        double parallax = asDouble(starData.get("parallax"));
+        double pmra = asDouble(starData.get("pmra"));
+        double pmdec = asDouble(starData.get("pmdec"));
+        Double rvValue = asDouble(starData.get("radialVelocity"));
+        double rv = rvValue != null ? rvValue : 0.0;
+
+        int epochs = Math.min(timeSteps, GALACTIC_BAND_STEPS);
+        double spanMyr = timePeriodYears / 1e6;
+        double chainStep = Math.copySign(GalacticOrbitIntegrator.DEFAULT_MAX_STEP_MYR, spanMyr);
+        double[] sunTrack = galacticIntegrator.integrate(orbitCheckpoints.chain(GalacticFrame.sunState(), chainStep),
+            spanMyr, epochs, token);
+        double[] nominalTrack = galacticIntegrator.integrate(
+            orbitCheckpoints.chain(GalacticFrame.toGalactocentric(ra0, dec0, parallax, pmra, pmdec, rv), chainStep),
+            spanMyr, epochs, token);
+        if (token.shouldStop()) return bands;
+
+        double[] obs = new double[5];
+        double[] nomRa = new double[epochs + 1];
+        double[] nomDec = new double[epochs + 1];
+        for (int k = 0; k <= epochs; k++) {
+            GalacticFrame.toObservables(nominalTrack, k * 6, sunTrack, k * 6, obs);
+            nomRa[k] = obs[0];
+            nomDec[k] = obs[1];
+        }
+
+        // [epoch][sample]; RA unwrapped around the nominal track so percentiles do not straddle 0/360
+        double[][] ra = new double[epochs + 1][numSamples];
+        double[][] dec = new double[epochs + 1][numSamples];
+        double[][] sep = new double[epochs + 1][numSamples];
+        Random random = new Random(42);
+        int reportEvery = Math.max(1, numSamples / 20);
+        for (int s = 0; s < numSamples; s++) {
+            double plx = errors[0] != null ? parallax + random.nextGaussian() * errors[0] : parallax;
+            if (plx <= 0) plx = parallax; // a draw through zero parallax has no distance
+            double pmraS = errors[1] != null ? pmra + random.nextGaussian() * errors[1] : pmra;
+            double pmdecS = errors[2] != null ? pmdec + random.nextGaussian() * errors[2] : pmdec;
+            double rvS = errors[3] != null && rvValue != null ? rv + random.nextGaussian() * errors[3] : rv;
+            // samples are one-offs, so they bypass the checkpoint cache
+            double[] track = galacticIntegrator.integrate(
+                GalacticFrame.toGalactocentric(ra0, dec0, plx, pmraS, pmdecS, rvS), spanMyr, epochs, token);
+            if (track.length < (epochs + 1) * 6) return new HashMap<>(); // stopped: no partial sample set
+            for (int k = 0; k <= epochs; k++) {
+                GalacticFrame.toObservables(track, k * 6, sunTrack, k * 6, obs);
+                double dRa = obs[0] - nomRa[k];
+                ra[k][s] = nomRa[k] + dRa - 360.0 * Math.rint(dRa / 360.0);
+                dec[k][s] = obs[1];
+                sep[k][s] = Math.toDegrees(calculateAngularSeparation(nomRa[k], nomDec[k], obs[0], obs[1])) * 3600.0;
+            }
+            if ((s + 1) % reportEvery == 0 || s + 1 == numSamples) {
+                progress.monteCarlo((int) ((s + 1L) * (timeSteps + 1) / numSamples), timeSteps + 1, numSamples);
+            }
+        }
 
+        List<Map<String, Object>> raBands = new ArrayList<>();
+        List<Map<String, Object>> decBands = new ArrayList<>();
+        List<Map<String, Object>> sepBands = new ArrayList<>();
+        for (int k = 0; k <= epochs; k++) {
+            double t = timePeriodYears * k / epochs;
+            raBands.add(band(t, ra[k]));
+            decBands.add(band(t, dec[k]));
+            sepBands.add(band(t, sep[k]));
+        }
+        bands.put("ra", raBands);
+        bands.put("dec", decBands);
+        bands.put("angularSeparationArcsec", sepBands);
+        bands.put("samples", numSamples);
+        bands.put("model", MODE_GALACTIC);
+        return bands;
+    }
+
+    /** {time, p16, p50, p84} of {@code samples}, which is sorted in place. */
+    private static Map<String, Object> band(double t, double[] samples) {
+        Arrays.sort(samples);
+        return Map.of(
+            "time", t,
+            "p16", percentile(samples, 16),
+            "p50", percentile(samples, 50),
+            "p84", percentile(samples, 84)
+        );
+    }
+
+    /**
+     * 1-sigma errors {parallax, pmra, pmdec, rv} for Monte Carlo draws, each null when there is nothing to vary;
+     * null when no value can be varied at all.
+     */
+    private static Double[] astrometricErrors(Map<String, Object> nominalStarData) {
         // Extract uncertainties if present
         Double parallaxErr = asDouble(nominalStarData.get("parallaxError"));
         Double pmraErr = asDouble(nominalStarData.get("pmraError"));
@@ -306,107 +651,24 @@ public class OrbitalCalculator {
         }
 
         if (parallaxErr == null && pmraErr == null && pmdecErr == null && rvErr == null) {
-            return bands; // still nothing to vary on
+            return null; // still nothing to vary on
         }
-
-        Random random = new Random(42);
-
-        // Storage for each timestep across samples
-        List<Double> raSamples, decSamples, sepSamples;
-        List<List<Double>> raByT = new ArrayList<>(timeSteps + 1);
-        List<List<Double>> decByT = new ArrayList<>(timeSteps + 1);
-        List<List<Double>> sepByT = new ArrayList<>(timeSteps + 1);
-        for (int i = 0; i <= timeSteps; i++) {
-            raByT.add(new ArrayList<>());
-            decByT.add(new ArrayList<>());
-            sepByT.add(new ArrayList<>());
-        }
-
-        // Nominal for separation baseline
-        List<Map<String, Object>> nominal = calculateOrbitalMotion(nominalStarData, timePeriodYears, timeSteps);
-
-        for (int s = 0; s < numSamples; s++) {
-            Map<String, Object> sampled = new HashMap<>(nominalStarData);
-            // Gaussian draws (independent; covariance ignored for simplicity)
-            if (parallaxErr != null) sampled.put("parallax",
-                    ((Double) nominalStarData.get("parallax")) + random.nextGaussian() * parallaxErr);
-            if (pmraErr != null) sampled.put("pmra",
-                    ((Double) nominalStarData.get("pmra")) + random.nextGaussian() * pmraErr);
-            if (pmdecErr != null) sampled.put("pmdec",
-                    ((Double) nominalStarData.get("pmdec")) + random.nextGaussian() * pmdecErr);
-            if (rvErr != null && nominalStarData.get("radialVelocity") != null) sampled.put("radialVelocity",
-                    ((Double) nominalStarData.get("radialVelocity")) + random.nextGaussian() * rvErr);
-
-            try {
-                List<Map<String, Object>> path = calculateOrbitalMotion(sampled, timePeriodYears, timeSteps);
-                for (int i = 0; i <= timeSteps; i++) {
-                    Map<String, Object> p = path.get(i);
-                    Map<String, Object> pNom = nominal.get(i);
-                    raByT.get(i).add((Double) p.get("ra"));
-                    decByT.get(i).add((Double) p.get("dec"));
-                    // Angular separation vs nominal at same time
-                    double sep = Math.toDegrees(calculateAngularSeparation(
-                        (Double) pNom.get("ra"), (Double) pNom.get("dec"),
-                        (Double) p.get("ra"), (Double) p.get("dec")
-                    )) * 3600.0;
-                    sepByT.get(i).add(sep);
-                }
-            } catch (Exception ignore) {
-                // If a sample is invalid (e.g., negative parallax), skip
-            }
-        }
-
-        // Compute percentiles for each time step
-        List<Map<String, Object>> raBands = new ArrayList<>();
-        List<Map<String, Object>> decBands = new ArrayList<>();
-        List<Map<String, Object>> sepBands = new ArrayList<>();
-        double dt = timePeriodYears / timeSteps;
-        for (int i = 0; i <= timeSteps; i++) {
-            double t = i * dt;
-            raSamples = raByT.get(i);
-            decSamples = decByT.get(i);
-            sepSamples = sepByT.get(i);
-            if (raSamples.isEmpty()) continue;
-            raBands.add(Map.of(
-                "time", t,
-                "p16", percentile(raSamples, 16),
-                "p50", percentile(raSamples, 50),
-                "p84", percentile(raSamples, 84)
-            ));
-            decBands.add(Map.of(
-                "time", t,
-                "p16", percentile(decSamples, 16),
-                "p50", percentile(decSamples, 50),
-                "p84", percentile(decSamples, 84)
-            ));
-            sepBands.add(Map.of(
-                "time", t,
-                "p16", percentile(sepSamples, 16),
-                "p50", percentile(sepSamples, 50),
-                "p84", percentile(sepSamples, 84)
-            ));
-        }
-
-        bands.put("ra", raBands);
-        bands.put("dec", decBands);
-        bands.put("angularSeparationArcsec", sepBands);
-        bands.put("samples", numSamples);
-        return bands;
+        return new Double[]{parallaxErr, pmraErr, pmdecErr, rvErr};
     }
 
     private static Double asDouble(Object v) {
         return v instanceof Number ? ((Number) v).doubleValue() : null;
     }
 
-    private static double percentile(List<Double> values, int pct) {
-        if (values.isEmpty()) return Double.NaN;
-        Collections.sort(values);
-        double rank = (pct / 100.0) * (values.size() - 1);
+    /** Linear-interpolated percentile of an already sorted array. */
+    private static double percentile(double[] sorted, int pct) {
+        if (sorted.length == 0) return Double.NaN;
+        double rank = (pct / 100.0) * (sorted.length - 1);
         int lo = (int) Math.floor(rank);
         int hi = (int) Math.ceil(rank);
-        if (lo == hi) return values.get(lo);
+        if (lo == hi) return sorted[lo];
         double w = rank - lo;
-        return values.get(lo) * (1 - w) + values.get(hi) * w;
+        return sorted[lo] * (1 - w) + sorted[hi] * w;
     }
 
     private void validateStarData(Map<String, Object> starData) throws Exception {
@@ -422,7 +684,8 @@ public class OrbitalCalculator {
     }
 
     private List<Map<String, Object>> calculateOrbitalMotion(Map<String, Object> starData, 
-                                                           double timePeriodYears, int timeSteps) {
+                                                           double timePeriodYears, int timeSteps,
+                                                           ComputationPlan plan, CancellationToken token) {
         List<Map<String, Object>> predictions = new ArrayList<>();
 
         // Extract initial conditions
@@ -437,8 +700,6 @@ public class OrbitalCalculator {
         boolean hasOrbitalMotion = starData.containsKey("hasOrbitalMotion") && 
                                  (Boolean) starData.get("hasOrbitalMotion");
         double orbitalPeriod = hasOrbitalMotion ? (Double) starData.get("orbitalPeriod") : 0.0;
-        double eccentricity = hasOrbitalMotion ? (Double) starData.get("eccentricity") : 0.0;
-        double inclination = hasOrbitalMotion ? (Double) starData.get("inclination") : 0.0;
 
         // Convert to physical units
         double distance_pc = 1000.0 / parallax; // distance in parsecs
@@ -454,19 +715,20 @@ public class OrbitalCalculator {
         // Calculate time steps
         double dt = timePeriodYears / timeSteps;
 
+        BinaryTrack binaryTrack = hasOrbitalMotion && orbitalPeriod > 0
+            ? calculateBinaryTrack(starData, timePeriodYears, timeSteps)
+            : null;
+
         for (int i = 0; i <= timeSteps; i++) {
+            if (i > 0 && i % CHECK_EVERY == 0 && token.shouldStop()) break;
             double t = i * dt; // time in years
             
             double ra_deg, dec_deg, current_distance_ly;
             
-            if (hasOrbitalMotion && orbitalPeriod > 0) {
-                // Calculate orbital motion
-                Map<String, Double> orbitalPosition = calculateOrbitalPosition(
-                    ra0, dec0, distance_au, orbitalPeriod, eccentricity, inclination, t
-                );
-                ra_deg = orbitalPosition.get("ra");
-                dec_deg = orbitalPosition.get("dec");
-                current_distance_ly = orbitalPosition.get("distance") * 3.26156;
+            if (binaryTrack != null) {
+                ra_deg = binaryTrack.raDeg[i];
+                dec_deg = binaryTrack.decDeg[i];
+                current_distance_ly = binaryTrack.distanceAu[i] / PC_TO_AU * 3.26156; // AU -> pc -> ly
             } else {
                 // Simple linear motion model for single stars
                 double ra = ra0 + pmra_rad_yr * t;
@@ -477,11 +739,11 @@ public class OrbitalCalculator {
                 
                 // Calculate current distance (assuming constant radial velocity)
                 double current_distance_au = distance_au + rv_au_yr * t;
-                current_distance_ly = current_distance_au * 3.26156;
+                current_distance_ly = current_distance_au / PC_TO_AU * 3.26156; // AU -> pc -> ly
             }
             
             // Calculate tangential velocity (proper motion * distance)
-            double current_distance_au = current_distance_ly / 3.26156;
+            double current_distance_au = current_distance_ly / 3.26156 * PC_TO_AU;
             double tangential_velocity_km_s = Math.sqrt(
                 Math.pow(pmra_rad_yr * current_distance_au, 2) + 
                 Math.pow(pmdec_rad_yr * current_distance_au, 2)
@@ -493,16 +755,6 @@ public class OrbitalCalculator {
                 Math.pow(rv_au_yr * (1.0 / KM_S_TO_AU_YR), 2)
             );
             
-            // Calculate angular separation from initial position
-            double angular_separation_arcsec = calculateAngularSeparation(
-                Math.toDegrees(ra0), Math.toDegrees(dec0), ra_deg, dec_deg
-            ) * 3600.0; // convert to arcseconds
-
-            // Calculate position relative to solar system barycenter
-            Map<String, Object> solarSystemPosition = calculateSolarSystemPosition(
-                ra_deg, dec_deg, current_distance_ly, t
-            );
-
             Map<String, Object> prediction = new HashMap<>();
             prediction.put("time", t);
             prediction.put("ra", ra_deg);
@@ -511,20 +763,30 @@ public class OrbitalCalculator {
             prediction.put("tangentialVelocityKmS", tangential_velocity_km_s);
             prediction.put("radialVelocityKmS", radialVelocity != null ? radialVelocity : 0.0);
             prediction.put("totalVelocityKmS", total_velocity_km_s);
-            prediction.put("angularSeparationArcsec", angular_separation_arcsec);
+            if (plan.angularSeparation()) {
+                // Calculate angular separation from initial position
+                prediction.put("angularSeparationArcsec", calculateAngularSeparation(
+                    Math.toDegrees(ra0), Math.toDegrees(dec0), ra_deg, dec_deg
+                ) * 3600.0); // convert to arcseconds
+            }
             prediction.put("pmra", pmra);
             prediction.put("pmdec", pmdec);
             prediction.put("hasOrbitalMotion", hasOrbitalMotion);
             prediction.put("orbitalPeriod", orbitalPeriod);
             
-            // Add solar system relative positions (ensure numeric types)
-            prediction.put("xParsecs", solarSystemPosition.get("xParsecs"));
-            prediction.put("yParsecs", solarSystemPosition.get("yParsecs"));
-            prediction.put("zParsecs", solarSystemPosition.get("zParsecs"));
-            prediction.put("distanceFromSunPc", solarSystemPosition.get("distanceFromSunPc"));
-            prediction.put("distanceFromSunLy", solarSystemPosition.get("distanceFromSunLy"));
-            prediction.put("galacticLongitude", solarSystemPosition.get("galacticLongitude"));
-            prediction.put("galacticLatitude", solarSystemPosition.get("galacticLatitude"));
+            if (plan.solarPosition()) {
+                // Add solar system relative positions (ensure numeric types)
+                Map<String, Object> solarSystemPosition = calculateSolarSystemPosition(
+                    ra_deg, dec_deg, current_distance_ly, t
+                );
+                prediction.put("xParsecs", solarSystemPosition.get("xParsecs"));
+                prediction.put("yParsecs", solarSystemPosition.get("yParsecs"));
+                prediction.put("zParsecs", solarSystemPosition.get("zParsecs"));
+                prediction.put("distanceFromSunPc", solarSystemPosition.get("distanceFromSunPc"));
+                prediction.put("distanceFromSunLy", solarSystemPosition.get("distanceFromSunLy"));
+                prediction.put("galacticLongitude", solarSystemPosition.get("galacticLongitude"));
+                prediction.put("galacticLatitude", solarSystemPosition.get("galacticLatitude"));
+            }
             
             predictions.add(prediction);
         }
@@ -532,44 +794,54 @@ public class OrbitalCalculator {
         return predictions;
     }
     
-    private Map<String, Double> calculateOrbitalPosition(double ra0, double dec0, double distance_au,
-                                                       double orbitalPeriod, double eccentricity, 
-                                                       double inclination, double timeYears) {
-        Map<String, Double> result = new HashMap<>();
-        
-        // Calculate mean anomaly
-        double meanAnomaly = 2.0 * Math.PI * (timeYears % orbitalPeriod) / orbitalPeriod;
-        
-        // Solve Kepler's equation for eccentric anomaly (simplified)
-        double eccentricAnomaly = meanAnomaly + eccentricity * Math.sin(meanAnomaly);
-        
-        // Calculate true anomaly
-        double trueAnomaly = 2.0 * Math.atan(Math.sqrt((1.0 + eccentricity) / (1.0 - eccentricity)) * 
-                                            Math.tan(eccentricAnomaly / 2.0));
-        
-        // Calculate orbital radius
-        double orbitalRadius = distance_au * (1.0 - eccentricity * eccentricity) / 
-                              (1.0 + eccentricity * Math.cos(trueAnomaly));
-        
-        // Calculate orbital motion in the orbital plane
-        double orbitalX = orbitalRadius * Math.cos(trueAnomaly);
-        double orbitalY = orbitalRadius * Math.sin(trueAnomaly) * Math.cos(Math.toRadians(inclination));
-        double orbitalZ = orbitalRadius * Math.sin(trueAnomaly) * Math.sin(Math.toRadians(inclination));
-        
-        // Convert back to RA/Dec (simplified transformation)
-        double ra_offset = Math.toDegrees(orbitalX / (distance_au * Math.cos(Math.toRadians(Math.toDegrees(dec0)))));
-        double dec_offset = Math.toDegrees(orbitalY / distance_au);
-        
-        // Use orbitalZ for more accurate 3D transformation
-        double dec_offset_3d = Math.toDegrees(orbitalZ / distance_au);
-        
-        result.put("ra", Math.toDegrees(ra0) + ra_offset);
-        result.put("dec", Math.toDegrees(dec0) + dec_offset + dec_offset_3d);
-        result.put("distance", orbitalRadius);
-        
-        return result;
+    /** Sky track of a binary primary, one entry per output step. */
+    private static final class BinaryTrack {
+        final double[] raDeg;
+        final double[] decDeg;
+        final double[] distanceAu;
+
+        BinaryTrack(int n) {
+            raDeg = new double[n];
+            decDeg = new double[n];
+            distanceAu = new double[n];
+        }
     }
-    
+
+    /**
+     * Barycentre drifting with the catalogue proper motion and radial velocity, plus the primary's Keplerian
+     * reflex orbit from {@link BinaryOrbitEngine}. All epochs are solved in one batch.
+     */
+    private BinaryTrack calculateBinaryTrack(Map<String, Object> starData, double timePeriodYears, int timeSteps) {
+        double ra0 = Math.toRadians((Double) starData.get("ra"));
+        double dec0 = Math.toRadians((Double) starData.get("dec"));
+        double parallax = (Double) starData.get("parallax"); // mas
+        double pmra_rad_yr = (Double) starData.get("pmra") * MAS_TO_RAD;
+        double pmdec_rad_yr = (Double) starData.get("pmdec") * MAS_TO_RAD;
+        Double radialVelocity = (Double) starData.get("radialVelocity"); // km/s
+        double rv_au_yr = radialVelocity != null ? radialVelocity * KM_S_TO_AU_YR : 0.0;
+        double distance_pc = 1000.0 / parallax;
+        double distance_au = distance_pc * PC_TO_AU;
+
+        BinaryOrbitEngine engine = BinaryOrbitEngine.fromStarData(starData, distance_pc);
+        int n = timeSteps + 1;
+        double dt = timePeriodYears / timeSteps;
+        double[] t = new double[n];
+        for (int i = 0; i < n; i++) t[i] = i * dt;
+        double[] dRaMas = new double[n];
+        double[] dDecMas = new double[n];
+        double[] dzAu = new double[n];
+        engine.evaluate(t, dRaMas, dDecMas, dzAu, n);
+
+        BinaryTrack track = new BinaryTrack(n);
+        double cosDec0 = Math.cos(dec0);
+        for (int i = 0; i < n; i++) {
+            track.raDeg[i] = Math.toDegrees(ra0 + pmra_rad_yr * t[i] + dRaMas[i] * MAS_TO_RAD / cosDec0);
+            track.decDeg[i] = Math.toDegrees(dec0 + pmdec_rad_yr * t[i] + dDecMas[i] * MAS_TO_RAD);
+            track.distanceAu[i] = distance_au + rv_au_yr * t[i] + dzAu[i];
+        }
+        return track;
+    }
+
     private Map<String, Object> calculateSolarSystemPosition(double ra, double dec, double distanceLy, double timeYears) {
         Map<String, Object> position = new HashMap<>();
         
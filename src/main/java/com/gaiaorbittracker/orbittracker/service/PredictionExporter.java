@@ -0,0 +1,143 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobRepository;
+import com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams the job table as CSV or NDJSON straight from a database cursor, so exports of any size run in constant
+ * heap. With {@code trajectory}, every predicted point of a finished job becomes its own row (one result parsed at
+ * a time). A failed write (client gone) ends the export and closes the cursor.
+ */
+@Service
+public class PredictionExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    /** Per-point columns taken from each entry of a result's data.predictions. */
+    static final List<String> POINT_FIELDS = List.of(
+        "time", "ra", "dec", "distanceLy", "xParsecs", "yParsecs", "zParsecs",
+        "radialVelocityKmS", "tangentialVelocityKmS", "galacticLongitude", "galacticLatitude");
+
+    private static final Instant LISTING_END = Instant.parse("9999-12-31T00:00:00Z");
+
+    private final PredictionJobRepository repo;
+    private final TransactionTemplate readOnlyTx;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public PredictionExporter(PredictionJobRepository repo, PlatformTransactionManager txManager) {
+        this.repo = repo;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public void export(OutputStream out, Format format, boolean trajectory, String status, Instant from, Instant until)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+        JsonGenerator json = format == Format.NDJSON ? mapper.getFactory().createGenerator(writer) : null;
+        if (json != null) json.setRootValueSeparator(null);
+        if (format == Format.CSV) {
+            writer.write("id,gaiaId,submittedAt,status");
+            if (trajectory) writer.write("," + String.join(",", POINT_FIELDS));
+            writer.write('\n');
+        }
+        Instant lower = from != null ? from : Instant.EPOCH;
+        Instant upper = until != null ? until : LISTING_END;
+        try {
+            readOnlyTx.executeWithoutResult(txStatus -> {
+                try (Stream<Object[]> rows = trajectory
+                        ? repo.streamForExportWithResults(status, lower, upper)
+                        : repo.streamForExport(status, lower, upper)) {
+                    Iterator<Object[]> it = rows.iterator();
+                    while (it.hasNext()) {
+                        Object[] row = it.next();
+                        JsonNode points = trajectory ? points((byte[]) row[4]) : null;
+                        if (points == null || points.isEmpty()) {
+                            writeRow(writer, json, row, null, trajectory);
+                        } else {
+                            for (JsonNode point : points) writeRow(writer, json, row, point, true);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (json != null) json.flush();
+        writer.flush();
+    }
+
+    /** data.predictions of a prediction result; null for unfinished, failed or non-prediction jobs. */
+    private static JsonNode points(byte[] resultData) {
+        if (resultData == null) return null;
+        try {
+            JsonNode predictions = TrajectoryCodec.decode(resultData).path("data").path("predictions");
+            return predictions.isArray() ? predictions : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void writeRow(Writer writer, JsonGenerator json, Object[] row, JsonNode point, boolean pointColumns)
+            throws IOException {
+        if (json != null) {
+            json.writeStartObject();
+            json.writeStringField("id", String.valueOf(row[0]));
+            json.writeStringField("gaiaId", (String) row[1]);
+            json.writeStringField("submittedAt", String.valueOf(row[2]));
+            json.writeStringField("status", (String) row[3]);
+            if (point != null) {
+                for (String field : POINT_FIELDS) {
+                    JsonNode v = point.get(field);
+                    if (v != null && !v.isNull()) {
+                        json.writeFieldName(field);
+                        json.writeTree(v);
+                    }
+                }
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+            return;
+        }
+        writer.write(String.valueOf(row[0]));
+        writer.write(',');
+        writer.write(csv((String) row[1]));
+        writer.write(',');
+        writer.write(String.valueOf(row[2]));
+        writer.write(',');
+        writer.write(csv((String) row[3]));
+        if (pointColumns) {
+            for (String field : POINT_FIELDS) {
+                writer.write(',');
+                JsonNode v = point != null ? point.get(field) : null;
+                if (v != null && !v.isNull()) writer.write(v.asText());
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
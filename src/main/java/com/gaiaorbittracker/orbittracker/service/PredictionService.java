@@ -1,85 +1,1008 @@
 package com.gaiaorbittracker.orbittracker.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.dto.EncounterRequest;
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
 import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
 import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.model.PredictionBatch;
 import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import com.gaiaorbittracker.orbittracker.model.PredictionResult;
+import com.gaiaorbittracker.orbittracker.repository.PredictionBatchRepository;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobBulkWriter;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobLeases;
 import com.gaiaorbittracker.orbittracker.repository.PredictionJobRepository;
+import com.gaiaorbittracker.orbittracker.repository.PredictionResultRepository;
+import com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec;
+import com.gaiaorbittracker.orbittracker.service.encounter.EncounterSearchService;
+import com.gaiaorbittracker.orbittracker.service.queue.JobPriority;
+import com.gaiaorbittracker.orbittracker.service.queue.JobQueue;
+import com.gaiaorbittracker.orbittracker.service.queue.QueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetAddress;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
+/**
+ * Async prediction jobs, run as a staged pipeline:
+ * {@link JobQueue} (bounded, prioritised, per-client fair) -> fetch (Gaia/SIMBAD lookup, status writes) on I/O
+ * threads -> orbital math on a cores-sized ForkJoinPool -> result write back on I/O threads.
+ * At most {@code prediction.fetch.concurrency} jobs are in the fetch stage and at most
+ * {@code prediction.compute.queue.capacity} in the compute stage; everything else waits in the job queue.
+ * Identical inputs (same {@link StarInputCanonicalizer} hash) are computed and stored once.
+ * Status transitions and partial results are pushed to {@link JobEventHub} subscribers as they happen.
+ * Nodes sharing one database share the work: every computed job is leased to the node queueing it
+ * ({@link PredictionJobLeases}), idle nodes claim unheld, expired or long-waiting jobs, and a job only starts on the
+ * node that still holds it.
+ */
 @Service
 public class PredictionService {
 
+    public static final String JOB_TYPE_ENCOUNTER_SEARCH = "ENCOUNTER_SEARCH";
+    /** States whose result a new identical submission may share; FAILED jobs are retried instead. */
+    private static final List<String> SHAREABLE_STATUSES = List.of("PENDING", "RUNNING", "DONE");
+    private static final List<String> FINISHED_STATUSES = List.of("DONE", "FAILED", "TIMED_OUT", "CANCELLED");
+    private static final Instant LISTING_END = Instant.parse("9999-12-31T00:00:00Z");
+    private static final int HASH_LOOKUP_CHUNK = 1000;
+    private static final int LEASE_CHECK_CHUNK = 1000;
+    private static final int STREAM_CHUNK = 500;
+
     private final PredictionJobRepository repo;
     private final OrbitalCalculator calculator;
+    private final EncounterSearchService encounterSearch;
+    private final JobQueue queue;
+    private final PredictionBatchRepository batchRepo;
+    private final PredictionResultRepository resultRepo;
+    private final PredictionJobBulkWriter bulkWriter;
+    private final JobStatusWriter statusWriter;
+    private final GaiaService gaiaService;
+    private final TransactionTemplate tx;
+    private final JobEventHub events;
+    private final PredictionJobLeases leases;
+    private final JobStatusRegistry statuses;
     private final ObjectMapper mapper = new ObjectMapper();
-    private ExecutorService executor;
+    /** input hash -> primary job, from submission until its result or failure is written. */
+    private final ConcurrentHashMap<String, UUID> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, BatchPrefetch> prefetched = new ConcurrentHashMap<>();
+    /** Stop signals of jobs between the fetch stage and their result write. */
+    private final ConcurrentHashMap<UUID, CancellationToken> running = new ConcurrentHashMap<>();
+    private final Counter dedupHits;
+    private final Counter dedupMisses;
+    private ExecutorService ioExecutor;
+    private ForkJoinPool computePool;
+    private Semaphore fetchSlots;
+    private Semaphore computeSlots;
+    private Thread dispatcher;
+    private ScheduledExecutorService leaseKeeper;
+    private String nodeId;
 
     @Value("${gaia.api.key:}")
     private String gaiaApiKey;
 
-    public PredictionService(PredictionJobRepository repo, OrbitalCalculator calculator) {
+    /** Compute threads; 0 = one per core. */
+    @Value("${prediction.pool.size:0}")
+    private int poolSize;
+
+    /** Jobs admitted to the compute stage at once (running + queued); 0 = 4 per compute thread. */
+    @Value("${prediction.compute.queue.capacity:0}")
+    private int computeQueueCapacity;
+
+    /** Jobs fetching star data at once. */
+    @Value("${prediction.fetch.concurrency:64}")
+    private int fetchConcurrency;
+
+    /** Tasks waiting for an I/O thread (one per fetch slot) before submitters run them themselves; 0 = 16 per thread. */
+    @Value("${prediction.io.queue.capacity:0}")
+    private int ioQueueCapacity;
+
+    /** Name of this node in job leases; blank = host name plus a random suffix. */
+    @Value("${prediction.node-id:}")
+    private String configuredNodeId;
+
+    /** A node that stops renewing (crash, partition) loses its jobs to other nodes after this long. */
+    @Value("${prediction.lease.ttl-ms:30000}")
+    private long leaseTtlMillis;
+
+    /** A batch's shared star loader is dropped once none of its jobs has run here for this long. */
+    @Value("${prediction.batch.prefetch.ttl-ms:600000}")
+    private long prefetchTtlMillis;
+
+    /** How often an idle node looks for jobs to claim. */
+    @Value("${prediction.lease.poll-ms:1000}")
+    private long leasePollMillis;
+
+    /** Jobs queued on a busy node for longer than this may be taken by an idle one. */
+    @Value("${prediction.lease.steal-after-ms:5000}")
+    private long stealAfterMillis;
+
+    public PredictionService(PredictionJobRepository repo, OrbitalCalculator calculator,
+                             EncounterSearchService encounterSearch, JobQueue queue, MeterRegistry registry,
+                             PredictionBatchRepository batchRepo, PredictionResultRepository resultRepo,
+                             PredictionJobBulkWriter bulkWriter,
+                             JobStatusWriter statusWriter, GaiaService gaiaService, TransactionTemplate tx,
+                             JobEventHub events, PredictionJobLeases leases, JobStatusRegistry statuses) {
         this.repo = repo;
         this.calculator = calculator;
+        this.encounterSearch = encounterSearch;
+        this.queue = queue;
+        this.batchRepo = batchRepo;
+        this.resultRepo = resultRepo;
+        this.bulkWriter = bulkWriter;
+        this.statusWriter = statusWriter;
+        this.gaiaService = gaiaService;
+        this.tx = tx;
+        this.events = events;
+        this.leases = leases;
+        this.statuses = statuses;
+        this.dedupHits = Counter.builder("prediction.dedup.lookups").tag("result", "hit")
+            .description("Submissions attached to an existing identical job").register(registry);
+        this.dedupMisses = Counter.builder("prediction.dedup.lookups").tag("result", "miss")
+            .description("Submissions that needed their own computation").register(registry);
+        Gauge.builder("prediction.dedup.hit.ratio", this, PredictionService::dedupHitRate).register(registry);
     }
 
     @PostConstruct
     public void init() {
-        int pool = Integer.parseInt(System.getProperty("prediction.pool.size", "4"));
-        this.executor = Executors.newFixedThreadPool(pool);
+        int parallelism = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        int capacity = computeQueueCapacity > 0 ? computeQueueCapacity : 4 * parallelism;
+        int ioThreads = Math.max(1, fetchConcurrency);
+        this.ioExecutor = newIoExecutor(ioThreads, ioQueueCapacity > 0 ? ioQueueCapacity : 16 * ioThreads);
+        this.computePool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            t.setName("prediction-compute-" + t.getPoolIndex());
+            return t;
+        }, null, false);
+        this.computeSlots = new Semaphore(capacity);
+        this.fetchSlots = new Semaphore(ioThreads);
+        this.dispatcher = new Thread(this::dispatchLoop, "prediction-dispatcher");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank() ? configuredNodeId.trim() : defaultNodeId();
+        this.leaseKeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "prediction-leases");
+            t.setDaemon(true);
+            return t;
+        });
+        long heartbeat = Math.max(1, leaseTtlMillis / 3);
+        leaseKeeper.scheduleWithFixedDelay(this::renewLeases, heartbeat, heartbeat, TimeUnit.MILLISECONDS);
+        leaseKeeper.scheduleWithFixedDelay(this::claimIdleWork, leasePollMillis, leasePollMillis, TimeUnit.MILLISECONDS);
+        System.out.println("Prediction pipeline: " + parallelism + " compute threads, compute queue capacity " + capacity
+            + ", " + ioThreads + " I/O threads, job queue capacity " + queue.getCapacity() + ", node " + nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        leaseKeeper.shutdownNow();
+        dispatcher.interrupt();
+        ioExecutor.shutdownNow();
+        computePool.shutdownNow();
+        computePool.awaitTermination(5, TimeUnit.SECONDS);
+        try {
+            // store what finished, then hand everything else straight to the other nodes
+            // instead of letting the leases run out
+            statusWriter.flush();
+            int released = leases.releaseAll(nodeId);
+            if (released > 0) System.out.println("Released " + released + " job leases");
+        } catch (Exception e) {
+            System.out.println("Could not release job leases: " + e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Heartbeat: keep this node's leases, stop local work that was cancelled through another node, and stop answering
+     * status reads from memory for jobs another node has taken over.
+     */
+    private void renewLeases() {
+        expirePrefetches();
+        try {
+            leases.renew(nodeId, Instant.now().plusMillis(leaseTtlMillis));
+            for (UUID id : leases.findCancelled(new ArrayList<>(running.keySet()))) {
+                CancellationToken token = running.get(id);
+                if (token != null) token.cancel();
+            }
+            List<UUID> active = statuses.activeIds();
+            for (int from = 0; from < active.size(); from += LEASE_CHECK_CHUNK) {
+                List<UUID> chunk = active.subList(from, Math.min(active.size(), from + LEASE_CHECK_CHUNK));
+                for (UUID id : leases.findNotHeldBy(nodeId, chunk)) statuses.evict(id);
+            }
+        } catch (Exception e) {
+            System.out.println("Lease renewal failed: " + e.getMessage());
+        }
+    }
+
+    /** Claim jobs other nodes left behind or cannot get to, as many as the compute stage has room for. */
+    private void claimIdleWork() {
+        try {
+            int room = computeSlots.availablePermits() - queue.size();
+            if (room <= 0) return;
+            Instant now = Instant.now();
+            Instant until = now.plusMillis(leaseTtlMillis);
+            Instant stealBefore = now.minusMillis(stealAfterMillis);
+            for (Object[] row : leases.findClaimable(nodeId, now, stealBefore, room)) {
+                UUID id = (UUID) row[0];
+                if (!leases.claim(id, nodeId, until, now, stealBefore)) continue;
+                JobPriority priority = row[2] != null ? JobPriority.valueOf((String) row[2]) : JobPriority.BULK;
+                queue.offer(id, clientId((String) row[1]), priority);
+            }
+        } catch (Exception e) {
+            // a job claimed but not queued here is claimed again once its lease runs out
+            System.out.println("Claiming jobs failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fixed pool of daemon threads with a bounded queue. When the queue is full the submitting thread runs the task
+     * itself (the dispatcher, a compute thread or a request thread), which slows intake instead of growing threads.
+     */
+    static ExecutorService newIoExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread t = new Thread(r, "prediction-io-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     public UUID submitJob(StarInput input) {
+        return submitJob(input, null, JobPriority.INTERACTIVE);
+    }
+
+    /**
+     * Queue one prediction; throws {@link QueueFullException} when the queue cannot take it, or
+     * {@link com.gaiaorbittracker.orbittracker.service.queue.BatchTooLargeException} when it never could.
+     */
+    public UUID submitJob(StarInput input, String clientId, JobPriority priority) {
+        return submitBatch(List.of(input), clientId, priority).getJobIds().get(0);
+    }
+
+    /** Job ids of an accepted submission, in input order; batchId is null for single jobs. */
+    public static final class BatchSubmission {
+        private final UUID batchId;
+        private final List<UUID> jobIds;
+
+        BatchSubmission(UUID batchId, List<UUID> jobIds) {
+            this.batchId = batchId;
+            this.jobIds = jobIds;
+        }
+
+        public UUID getBatchId() { return batchId; }
+        public List<UUID> getJobIds() { return jobIds; }
+    }
+
+    /**
+     * Queue a batch all-or-nothing: capacity is reserved first, then the PredictionBatch row and every job row are
+     * inserted in one transaction with JDBC batch inserts, so a rejected or failed batch leaves nothing behind.
+     * Inputs whose canonical hash matches a pending, running or finished job (or an earlier element of the batch)
+     * are stored as LINKED rows pointing at that job and are never computed or queued themselves.
+     * For multi-job batches, jobs naming Gaia source ids are queued once a batched lookup of those ids returns;
+     * the others are queued at once and resolve their star in the fetch stage through the batch's shared loader.
+     */
+    public BatchSubmission submitBatch(List<StarInput> inputs, String clientId, JobPriority priority) {
+        return submitBatch(inputs.size() > 1 ? UUID.randomUUID() : null, inputs, clientId, priority);
+    }
+
+    /**
+     * Same as {@link #submitBatch(List, String, JobPriority)}, appending to batch {@code batchId} (created on first
+     * use; null = no batch). Streaming uploads submit each chunk this way, so a chunk is all-or-nothing on its own.
+     */
+    public BatchSubmission submitBatch(UUID batchId, List<StarInput> inputs, String clientId, JobPriority priority) {
+        int n = inputs.size();
+        String client = clientId(clientId);
+        String[] hashes = new String[n];
+        Set<String> distinct = new LinkedHashSet<>();
+        for (int i = 0; i < n; i++) {
+            hashes[i] = StarInputCanonicalizer.hash(inputs.get(i));
+            if (hashes[i] != null) distinct.add(hashes[i]);
+        }
+        Map<String, UUID> known = findPrimaries(distinct);
+        int misses = 0;
+        Set<String> counted = new HashSet<>();
+        for (String h : hashes) {
+            if (h == null || (counted.add(h) && !known.containsKey(h))) misses++;
+        }
+        queue.reserve(misses, priority);
+
+        Instant now = Instant.now();
+        List<PredictionJob> jobs = new ArrayList<>(n);
+        List<PredictionJob> toCompute = new ArrayList<>(misses);
+        List<String> claimed = new ArrayList<>();
         try {
-            UUID jobId = UUID.randomUUID();
-            String inputJson = mapper.writeValueAsString(input);
-            PredictionJob job = new PredictionJob(jobId, input.getGaiaId(), Instant.now(), "PENDING", inputJson);
-            repo.save(job);
+            Map<String, UUID> owners = new HashMap<>(known);
+            for (int i = 0; i < n; i++) {
+                StarInput input = inputs.get(i);
+                UUID jobId = UUID.randomUUID();
+                PredictionJob job = new PredictionJob(jobId, input.getGaiaId(), now, "PENDING", mapper.writeValueAsString(input));
+                job.setInputHash(hashes[i]);
+                job.setBatchId(batchId);
+                job.setPriority(priority.name());
+                job.setClientId(client);
+                UUID primary = null;
+                if (hashes[i] != null) {
+                    primary = owners.get(hashes[i]);
+                    if (primary == null) {
+                        primary = inFlight.putIfAbsent(hashes[i], jobId);
+                        if (primary == null) claimed.add(hashes[i]);
+                        owners.put(hashes[i], primary != null ? primary : jobId);
+                    }
+                }
+                if (primary != null) {
+                    job.setStatus("LINKED");
+                    job.setResultRef(primary);
+                    dedupHits.increment();
+                } else {
+                    job.setLeaseOwner(nodeId);
+                    job.setLeaseExpiresAt(now.plusMillis(leaseTtlMillis));
+                    toCompute.add(job);
+                    dedupMisses.increment();
+                }
+                jobs.add(job);
+            }
+            int computed = toCompute.size();
+            tx.executeWithoutResult(status -> {
+                if (batchId != null) {
+                    PredictionBatch batch = batchRepo.findById(batchId)
+                        .orElseGet(() -> new PredictionBatch(batchId, client, now, 0, 0));
+                    batch.setSize(batch.getSize() + n);
+                    batch.setComputed(batch.getComputed() + computed);
+                    batchRepo.save(batch);
+                }
+                bulkWriter.insertAll(jobs);
+            });
+        } catch (Exception e) {
+            queue.release(misses);
+            claimed.forEach(inFlight::remove);
+            throw new RuntimeException("Unable to submit job: " + e.getMessage(), e);
+        }
+
+        jobs.forEach(statuses::register);
+        if (toCompute.size() < misses) queue.release(misses - toCompute.size());
+        List<UUID> toQueue = toCompute.stream().map(PredictionJob::getId).collect(Collectors.toList());
+        if (batchId != null && !toQueue.isEmpty()) {
+            queueWithPrefetch(batchId, toCompute, client, priority);
+        } else {
+            queue.offerReserved(toQueue, client, priority);
+        }
+        return new BatchSubmission(batchId, jobs.stream().map(PredictionJob::getId).collect(Collectors.toList()));
+    }
+
+    /** Receives the outcome of each element of a streamed upload: rejections as read, acceptances per chunk. */
+    public interface StreamSink {
+        void accepted(long index, UUID jobId) throws IOException;
+        void rejected(long index, String error) throws IOException;
+        /** Called after each chunk is stored and queued; a good point to flush. */
+        void chunkDone() throws IOException;
+    }
+
+    /**
+     * Streamed batch upload: elements are read one at a time and submitted in chunks of {@code STREAM_CHUNK} (fewer
+     * when the queue admits fewer at once) to one batch, so memory stays constant whatever the upload size. Invalid elements are reported and skipped. When the
+     * queue fills up, chunks already accepted stay queued and reading stops; the summary then carries the error.
+     * An IOException from the sink (client gone) also stops reading.
+     */
+    public Map<String, Object> submitStream(StarInputStreamReader reader, UUID batchId, String clientId,
+                                            JobPriority priority, StreamSink sink) throws IOException {
+        int chunkSize = Math.max(1, Math.min(STREAM_CHUNK, queue.maxAdmission(priority)));
+        List<StarInput> chunk = new ArrayList<>(chunkSize);
+        List<Long> indices = new ArrayList<>(chunkSize);
+        long accepted = 0, rejected = 0;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("batchId", batchId.toString());
+        try {
+            StarInputStreamReader.Element element;
+            while ((element = reader.next()) != null) {
+                if (element.error != null) {
+                    rejected++;
+                    sink.rejected(element.index, element.error);
+                    continue;
+                }
+                chunk.add(element.input);
+                indices.add(element.index);
+                if (chunk.size() == chunkSize) {
+                    accepted += submitChunk(batchId, chunk, indices, clientId, priority, sink);
+                }
+            }
+            if (!chunk.isEmpty()) accepted += submitChunk(batchId, chunk, indices, clientId, priority, sink);
+            summary.put("complete", true);
+        } catch (QueueFullException e) {
+            summary.put("complete", false);
+            summary.put("error", e.getMessage());
+            summary.put("retryAfterSeconds", e.getRetryAfterSeconds());
+        }
+        summary.put("accepted", accepted);
+        summary.put("rejected", rejected);
+        return summary;
+    }
+
+    private int submitChunk(UUID batchId, List<StarInput> chunk, List<Long> indices, String clientId,
+                            JobPriority priority, StreamSink sink) throws IOException {
+        List<UUID> ids = submitBatch(batchId, chunk, clientId, priority).getJobIds();
+        for (int i = 0; i < ids.size(); i++) sink.accepted(indices.get(i), ids.get(i));
+        sink.chunkDone();
+        chunk.clear();
+        indices.clear();
+        return ids.size();
+    }
+
+    /**
+     * Star data shared by a batch's jobs; dropped when the batch's last job has taken the loader, or when no job has
+     * touched it for {@code prediction.batch.prefetch.ttl-ms} (its jobs went to other nodes or were deleted).
+     */
+    private static final class BatchPrefetch {
+        final StarDataLoader stars;
+        final AtomicInteger remaining = new AtomicInteger();
+        volatile long touchedMillis = System.currentTimeMillis();
 
-            executor.submit(() -> processJob(jobId));
-            return jobId;
+        BatchPrefetch(StarDataLoader stars) {
+            this.stars = stars;
+        }
+    }
+
+    /**
+     * Queue a batch's jobs as their star data becomes available. Source ids are looked up in batched
+     * {@code source_id IN (...)} queries on an I/O thread, and their jobs are queued when the answer is in. Names
+     * need one lookup each, so those jobs are queued at once and resolve their star in the fetch stage, in parallel
+     * within the fetch slots and once per star through the batch's loader.
+     */
+    private void queueWithPrefetch(UUID batchId, List<PredictionJob> jobs, String client, JobPriority priority) {
+        // chunks of a streamed batch share one loader, so a star in several chunks is fetched once
+        BatchPrefetch prefetch = prefetched.compute(batchId, (id, p) -> {
+            if (p == null) p = new BatchPrefetch(new StarDataLoader(gaiaService));
+            p.remaining.addAndGet(jobs.size());
+            p.touchedMillis = System.currentTimeMillis();
+            return p;
+        });
+        List<UUID> ready = new ArrayList<>(), waiting = new ArrayList<>();
+        Set<String> sourceIds = new LinkedHashSet<>();
+        for (PredictionJob job : jobs) {
+            if (GaiaService.isSourceId(job.getGaiaId())) {
+                waiting.add(job.getId());
+                sourceIds.add(job.getGaiaId());
+            } else {
+                ready.add(job.getId());
+            }
+        }
+        queue.offerReserved(ready, client, priority);
+        if (waiting.isEmpty()) return;
+        ioExecutor.execute(() -> {
+            try {
+                prefetch.stars.loadAll(sourceIds);
+            } catch (Exception e) {
+                // jobs fetch their own star through the loader, still once per star
+                System.out.println("Batch prefetch failed for " + batchId + ": " + e.getMessage());
+            }
+            queue.offerReserved(waiting, client, priority);
+        });
+    }
+
+    /** The star loader of a batch job's batch, counting the job off; null when the job has none. */
+    private StarDataLoader takeBatchLoader(PredictionJob job) {
+        if (job.getBatchId() == null) return null;
+        BatchPrefetch[] taken = new BatchPrefetch[1];
+        prefetched.computeIfPresent(job.getBatchId(), (id, prefetch) -> {
+            taken[0] = prefetch;
+            prefetch.touchedMillis = System.currentTimeMillis();
+            return prefetch.remaining.decrementAndGet() <= 0 ? null : prefetch;
+        });
+        return taken[0] != null ? taken[0].stars : null;
+    }
+
+    /** Drop batch loaders no local job has used for the TTL; a job arriving later fetches its star on its own. */
+    private void expirePrefetches() {
+        long cutoff = System.currentTimeMillis() - prefetchTtlMillis;
+        prefetched.values().removeIf(p -> p.touchedMillis < cutoff);
+    }
+
+    public UUID submitEncounterJob(EncounterRequest request, String clientId) {
+        queue.reserve(1, JobPriority.BULK);
+        UUID jobId = UUID.randomUUID();
+        try {
+            String inputJson = mapper.writeValueAsString(request);
+            Instant now = Instant.now();
+            PredictionJob job = new PredictionJob(jobId, null, now, "PENDING", inputJson);
+            job.setJobType(JOB_TYPE_ENCOUNTER_SEARCH);
+            job.setPriority(JobPriority.BULK.name());
+            job.setClientId(clientId(clientId));
+            job.setLeaseOwner(nodeId);
+            job.setLeaseExpiresAt(now.plusMillis(leaseTtlMillis));
+            repo.save(job);
+            statuses.register(job);
         } catch (Exception e) {
+            queue.release(1);
             throw new RuntimeException("Unable to submit job: " + e.getMessage(), e);
         }
+        queue.offerReserved(List.of(jobId), clientId(clientId), JobPriority.BULK);
+        return jobId;
     }
 
-    public Optional<PredictionJob> getJob(UUID jobId) {
-        return repo.findById(jobId);
+    private static String clientId(String clientId) {
+        return clientId == null || clientId.isBlank() ? "anonymous" : clientId;
     }
 
-    public List<PredictionJob> listAll() {
-        return repo.findAll();
+    /** Job that owns the result for each hash: in flight in this process, else pending/running/done in the DB. */
+    private Map<String, UUID> findPrimaries(Collection<String> hashes) {
+        Map<String, UUID> out = new HashMap<>();
+        List<String> lookup = new ArrayList<>();
+        for (String h : hashes) {
+            UUID running = inFlight.get(h);
+            if (running != null) out.put(h, running);
+            else lookup.add(h);
+        }
+        for (int from = 0; from < lookup.size(); from += HASH_LOOKUP_CHUNK) {
+            List<String> chunk = lookup.subList(from, Math.min(lookup.size(), from + HASH_LOOKUP_CHUNK));
+            for (Object[] row : repo.findOwnersByInputHash(chunk, SHAREABLE_STATUSES)) {
+                out.putIfAbsent((String) row[0], (UUID) row[1]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Status of a job without its input or result columns; LINKED jobs report the status of the job they point at,
+     * and unflushed transitions are applied. Jobs in the {@link JobStatusRegistry} are answered from memory; the
+     * result is read from its own table only once the job is finished.
+     */
+    public Optional<JobStatusDto> getJob(UUID jobId) {
+        JobStatusRegistry.Entry hot = statuses.get(jobId);
+        JobStatusDto view;
+        if (hot != null) {
+            view = hot.view();
+        } else {
+            Optional<JobStatusDto> maybe = repo.findStatusById(jobId);
+            if (maybe.isEmpty()) return maybe;
+            view = withPending(maybe.get());
+        }
+        UUID owner = view.getResultRef() != null ? view.getResultRef() : jobId;
+        if (view.getResultRef() != null) {
+            JobStatusRegistry.Entry primary = statuses.get(owner);
+            if (primary != null) {
+                view.setStatus(primary.getStatus());
+                view.setProgress(primary.getProgress());
+            } else {
+                repo.findStatusById(owner).map(this::withPending).ifPresent(p -> view.setStatus(p.getStatus()));
+            }
+        }
+        if (FINISHED_STATUSES.contains(view.getStatus())) {
+            // decoded only here, for the one job asked about
+            byte[] data = statusWriter.pending(owner).map(p -> p.resultData)
+                .orElseGet(() -> resultRepo.findById(owner).map(PredictionResult::getResultData).orElse(null));
+            if (data != null) {
+                try {
+                    view.setResultJson(TrajectoryCodec.decodeToString(data));
+                } catch (IOException e) {
+                    view.setResultJson("{\"error\":\"Stored result is unreadable\"}");
+                }
+            }
+        }
+        return Optional.of(view);
+    }
+
+    public Optional<PredictionBatch> getBatch(UUID batchId) {
+        return batchRepo.findById(batchId);
+    }
+
+    /**
+     * One page of jobs, newest first, without results. Keyset pagination: pass the last row of the previous page as
+     * ({@code afterSubmittedAt}, {@code afterId}), so every page costs the same whatever the table size.
+     * {@code status} filters on the stored status (LINKED jobs match LINKED, and report their primary's status).
+     */
+    public List<JobStatusDto> listJobs(String status, Instant from, Instant until,
+                                       Instant afterSubmittedAt, UUID afterId, int limit) {
+        Instant lower = from != null ? from : Instant.EPOCH;
+        List<JobStatusDto> page = afterSubmittedAt != null && afterId != null
+            ? repo.findStatusPageAfter(status, lower, afterSubmittedAt, afterId, Pageable.ofSize(limit))
+            : repo.findStatusPage(status, lower, until != null ? until : LISTING_END, Pageable.ofSize(limit));
+        Map<UUID, JobStatusDto> byId = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+        for (JobStatusDto j : page) byId.put(j.getId(), j);
+        for (JobStatusDto j : page) {
+            if (j.getResultRef() != null && !byId.containsKey(j.getResultRef())) missing.add(j.getResultRef());
+        }
+        if (!missing.isEmpty()) {
+            for (JobStatusDto j : repo.findStatusByIdIn(missing)) byId.put(j.getId(), j);
+        }
+        List<JobStatusDto> out = new ArrayList<>(page.size());
+        for (JobStatusDto j : page) {
+            JobStatusDto view = withPending(j);
+            JobStatusDto primary = view.getResultRef() != null ? byId.get(view.getResultRef()) : null;
+            if (primary != null) view.setStatus(withPending(primary).getStatus());
+            out.add(view);
+        }
+        return out;
+    }
+
+    /** Copy of {@code job} with its in-memory status (registry, else unflushed transition) applied. */
+    private JobStatusDto withPending(JobStatusDto job) {
+        JobStatusDto view = new JobStatusDto(job.getId(), job.getGaiaId(), job.getSubmittedAt(), job.getStatus(),
+            job.getJobType(), job.getResultRef(), job.getBatchId());
+        JobStatusRegistry.Entry hot = statuses.get(job.getId());
+        if (hot != null) {
+            view.setStatus(hot.getStatus());
+            view.setProgress(hot.getProgress());
+        } else {
+            statusWriter.pending(job.getId()).ifPresent(p -> view.setStatus(p.status));
+        }
+        return view;
+    }
+
+    /** Fraction of submitted predictions answered by an existing job since startup. */
+    public double dedupHitRate() {
+        double hits = dedupHits.count(), total = hits + dedupMisses.count();
+        return total == 0 ? 0.0 : hits / total;
+    }
+
+    /** Moves queued jobs into the fetch stage as fetch slots free up. */
+    private void dispatchLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                fetchSlots.acquire();
+                JobQueue.QueuedJob next;
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    fetchSlots.release();
+                    throw e;
+                }
+                ioExecutor.execute(() -> {
+                    try {
+                        fetchStage(next.getJobId());
+                    } finally {
+                        fetchSlots.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.out.println("Prediction dispatcher error: " + e.getMessage());
+            }
+        }
     }
 
-    private void processJob(UUID jobId) {
+    /** Stage 1 (I/O thread): mark RUNNING, fetch star data, then wait for a compute slot and hand off. */
+    private void fetchStage(UUID jobId) {
         Optional<PredictionJob> maybe = repo.findById(jobId);
         if (maybe.isEmpty()) return;
 
         PredictionJob job = maybe.get();
-        job.setStatus("RUNNING");
-        repo.save(job);
+        CancellationToken token = CancellationToken.withDeadline(null);
+        running.put(jobId, token);
+        // registered first, so a cancel either finds the token or has already recorded CANCELLED here
+        String current = statusWriter.pending(jobId).map(p -> p.status).orElse(job.getStatus());
+        if ("CANCELLED".equals(current)
+                || !leases.start(jobId, nodeId, Instant.now().plusMillis(leaseTtlMillis))) {
+            // cancelled, finished, or claimed by another node meanwhile: not ours to run
+            running.remove(jobId, token);
+            if (!"CANCELLED".equals(current)) statuses.evict(jobId);
+            if (job.getInputHash() != null) inFlight.remove(job.getInputHash(), jobId);
+            takeBatchLoader(job);
+            return;
+        }
+        statuses.register(job); // claimed from another node: tracked from here on
+        statuses.transition(jobId, "RUNNING");
+        publishStatus(job, "RUNNING");
 
         try {
-            StarInput input = mapper.readValue(job.getInputJson(), StarInput.class);
-            PredictionResultDto result = calculator.computePrediction(input, gaiaApiKey);
+            ComputeTask task;
+            if (JOB_TYPE_ENCOUNTER_SEARCH.equals(job.getJobType())) {
+                EncounterRequest request = mapper.readValue(job.getInputJson(), EncounterRequest.class);
+                EncounterSearchService.Catalog catalog = encounterSearch.loadCatalog(request.getNames());
+                CancellationToken stop = token;
+                task = () -> encounterSearch.search(request, catalog, stop);
+            } else {
+                StarInput input = mapper.readValue(job.getInputJson(), StarInput.class);
+                if (input.getDeadlineSeconds() != null) {
+                    // the deadline runs from here; a cancel that arrived meanwhile carries over
+                    CancellationToken timed = CancellationToken.withDeadline(input.getDeadlineSeconds());
+                    running.put(jobId, timed);
+                    if (token.isCancelled()) timed.cancel();
+                    token = timed;
+                }
+                StarDataLoader stars = takeBatchLoader(job);
+                Map<String, Object> starData = stars != null
+                    ? calculator.resolveStarData(input, stars) : calculator.resolveStarData(input);
+                OrbitalCalculator.ProgressListener progress = progressListener(job.getId());
+                CancellationToken stop = token;
+                task = () -> calculator.computeFromStarData(input, starData, progress, stop);
+            }
+            if (token.isCancelled()) throw new CancellationException("Job cancelled");
+            computeSlots.acquire();
+            try {
+                computePool.execute(() -> computeStage(job, task));
+            } catch (RuntimeException e) {
+                computeSlots.release();
+                throw e;
+            }
+        } catch (Exception e) {
+            writeStage(job, null, e);
+        }
+    }
 
-            String resultJson = mapper.writeValueAsString(result);
-            job.setResultJson(resultJson);
-            job.setStatus("DONE");
-            repo.save(job);
+    /** Stage 2 (compute pool): orbital math only, then hand the result back to an I/O thread. */
+    private void computeStage(PredictionJob job, ComputeTask task) {
+        PredictionResultDto result = null;
+        Exception failure = null;
+        try {
+            result = task.compute();
         } catch (Exception e) {
-            job.setStatus("FAILED");
+            failure = e;
+        } finally {
+            computeSlots.release();
+        }
+        PredictionResultDto done = result;
+        Exception failed = failure;
+        ioExecutor.execute(() -> writeStage(job, done, failed));
+    }
+
+    /**
+     * Stage 3 (I/O thread): hand the result or the failure to the write-behind status writer. A result cut short by
+     * its deadline is stored as TIMED_OUT; a cancelled job is CANCELLED whatever it computed.
+     */
+    private void writeStage(PredictionJob job, PredictionResultDto result, Exception failure) {
+        // from the flush on, identical submissions find this job (DONE) in the DB, or start afresh (anything else)
+        Runnable release = job.getInputHash() == null ? null : () -> inFlight.remove(job.getInputHash(), job.getId());
+        CancellationToken token = running.remove(job.getId());
+        if (token != null && token.isCancelled()) {
+            finishCancelled(job.getId(), job.getBatchId(), release);
+            return;
+        }
+        try {
+            if (failure != null) throw failure;
+            String status = token != null && token.hasStopped() ? "TIMED_OUT" : "DONE";
+            JsonNode tree = mapper.valueToTree(result);
+            statusWriter.update(job.getId(), status, TrajectoryCodec.encode(tree), release);
+            statuses.transition(job.getId(), status);
+            publishFinished(job.getId(), job.getBatchId(), status, tree);
+        } catch (Exception e) {
+            JsonNode tree = mapper.valueToTree(Map.of("error", String.valueOf(e.getMessage())));
+            byte[] error;
             try {
-                job.setResultJson(mapper.writeValueAsString(Map.of("error", e.getMessage())));
-            } catch (Exception ex) { /* ignore */ }
-            repo.save(job);
+                error = TrajectoryCodec.encode(tree);
+            } catch (Exception ex) {
+                error = null; // the FAILED status is still recorded
+            }
+            statusWriter.update(job.getId(), "FAILED", error, release);
+            statuses.transition(job.getId(), "FAILED");
+            publishFinished(job.getId(), job.getBatchId(), "FAILED", tree);
         }
     }
+
+    public enum CancelOutcome { NOT_FOUND, NOT_CANCELLABLE, CANCELLED, CANCELLING }
+
+    /**
+     * Cancel a job. A queued job is CANCELLED at once; a running one stops at its next check and is then recorded
+     * as CANCELLED (CANCELLING is returned meanwhile). Finished jobs cannot be cancelled, nor can a computation
+     * shared with other submissions: neither a LINKED job nor the primary that LINKED jobs point at.
+     */
+    public CancelOutcome cancelJob(UUID jobId) {
+        Optional<JobStatusDto> stored = repo.findStatusById(jobId);
+        if (stored.isEmpty()) return CancelOutcome.NOT_FOUND;
+        JobStatusDto view = withPending(stored.get());
+        if (view.getResultRef() != null || FINISHED_STATUSES.contains(view.getStatus())) return CancelOutcome.NOT_CANCELLABLE;
+        if (repo.existsByResultRef(jobId)) return CancelOutcome.NOT_CANCELLABLE;
+        CancellationToken token = running.get(jobId);
+        if (token != null) {
+            token.cancel();
+            return CancelOutcome.CANCELLING;
+        }
+        String hash = repo.findById(jobId).map(PredictionJob::getInputHash).orElse(null);
+        finishCancelled(jobId, view.getBatchId(), hash == null ? null : () -> inFlight.remove(hash, jobId));
+        // the fetch stage may have picked the job up between the two checks above
+        token = running.get(jobId);
+        if (token != null) token.cancel();
+        // running on another node: it sees the CANCELLED row on its next heartbeat
+        return "RUNNING".equals(view.getStatus()) ? CancelOutcome.CANCELLING : CancelOutcome.CANCELLED;
+    }
+
+    private void finishCancelled(UUID jobId, UUID batchId, Runnable release) {
+        JsonNode tree = mapper.valueToTree(Map.of("error", "Job cancelled"));
+        byte[] data;
+        try {
+            data = TrajectoryCodec.encode(tree);
+        } catch (IOException e) {
+            data = null;
+        }
+        statusWriter.update(jobId, "CANCELLED", data, release);
+        statuses.transition(jobId, "CANCELLED");
+        publishFinished(jobId, batchId, "CANCELLED", tree);
+    }
+
+    /**
+     * Live events for one job: a {@code status} snapshot, then {@code status}, {@code progress} and
+     * {@code trajectory} events as the job runs, and a final {@code result} event carrying the result (or error),
+     * after which the stream ends. A LINKED job streams the events of the job computing its result.
+     */
+    public Optional<SseEmitter> subscribeJob(UUID jobId) {
+        return subscribeJob(jobId, null);
+    }
+
+    /** As {@link #subscribeJob(UUID)}, with the {@code result} event downsampled to {@code maxPoints} when set. */
+    public Optional<SseEmitter> subscribeJob(UUID jobId, Integer maxPoints) {
+        Optional<JobStatusDto> stored = repo.findStatusById(jobId);
+        if (stored.isEmpty()) return Optional.empty();
+        UUID owner = stored.get().getResultRef() != null ? stored.get().getResultRef() : jobId;
+        Map<String, UnaryOperator<Object>> views = maxPoints == null ? Map.of()
+            : Map.of("result", data -> downsampleJson((String) data, maxPoints));
+        JobEventHub.Subscription sub = events.subscribe(owner, views);
+        // read after subscribing, so a transition in between shows up in the snapshot or as an event
+        JobStatusDto now = getJob(jobId).orElse(stored.get());
+        List<SseEmitter.SseEventBuilder> snapshot = new ArrayList<>();
+        snapshot.add(JobEventHub.event("status", Map.of("jobId", owner.toString(), "status", now.getStatus())));
+        boolean finished = FINISHED_STATUSES.contains(now.getStatus());
+        if (finished) {
+            String result = finishedEvent(owner, now.getStatus(),
+                now.getResultJson() != null ? now.getResultJson() : "null");
+            snapshot.add(JobEventHub.event("result", maxPoints == null ? result : downsampleJson(result, maxPoints)));
+        }
+        sub.start(snapshot, finished);
+        return Optional.of(sub.getEmitter());
+    }
+
+    /**
+     * Live events for a batch: a {@code batch} snapshot (size, computed, finished), then a {@code status} event per
+     * transition of its computed jobs. The stream ends after the event finishing the last of them, or right after
+     * the snapshot if all had finished already.
+     */
+    public Optional<SseEmitter> subscribeBatch(UUID batchId) {
+        Optional<PredictionBatch> batch = batchRepo.findById(batchId);
+        if (batch.isEmpty()) return Optional.empty();
+        BatchCountdown countdown = new BatchCountdown();
+        JobEventHub.Subscription sub = events.subscribe(batchId, Map.of(), countdown::finishes);
+        int finished = 0, failed = 0;
+        Set<UUID> unfinished = new HashSet<>();
+        for (Object[] row : repo.findComputedStatusesByBatchId(batchId)) {
+            String status = statusWriter.pending((UUID) row[0]).map(p -> p.status).orElse((String) row[1]);
+            if (FINISHED_STATUSES.contains(status)) finished++;
+            else unfinished.add((UUID) row[0]);
+            if ("FAILED".equals(status)) failed++;
+        }
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("batchId", batchId.toString());
+        snapshot.put("size", batch.get().getSize());
+        snapshot.put("computed", batch.get().getComputed());
+        snapshot.put("finished", finished);
+        snapshot.put("failed", failed);
+        boolean allFinished = unfinished.isEmpty();
+        boolean caughtUp = countdown.start(unfinished);
+        sub.start(List.of(JobEventHub.event("batch", snapshot)), allFinished);
+        // the rest finished while the snapshot was read: their status events are queued, end after them
+        if (caughtUp && !allFinished) sub.endAfterQueued();
+        return Optional.of(sub.getEmitter());
+    }
+
+    /**
+     * The jobs a batch stream still waits for. Status events that arrive while the snapshot is being read are kept
+     * aside and applied once it is in, so a job finishing meanwhile is counted whichever side sees it.
+     */
+    private static final class BatchCountdown {
+        private Set<UUID> remaining;
+        private Set<UUID> early = new HashSet<>();
+
+        /** Whether the status event {@code data} finishes the last job waited for. */
+        synchronized boolean finishes(Object data) {
+            if (!(data instanceof Map<?, ?> m) || !FINISHED_STATUSES.contains(m.get("status"))) return false;
+            UUID jobId = UUID.fromString((String) m.get("jobId"));
+            if (remaining == null) {
+                early.add(jobId);
+                return false;
+            }
+            return remaining.remove(jobId) && remaining.isEmpty();
+        }
+
+        /** Wait for {@code unfinished}; true when nothing is left to wait for. */
+        synchronized boolean start(Set<UUID> unfinished) {
+            unfinished.removeAll(early);
+            early = null;
+            remaining = unfinished;
+            return remaining.isEmpty();
+        }
+    }
+
+    private void publishStatus(PredictionJob job, String status) {
+        publishStatus(job.getId(), job.getBatchId(), status);
+    }
+
+    private void publishStatus(UUID jobId, UUID batchId, String status) {
+        if (!events.hasSubscribers(jobId) && !events.hasSubscribers(batchId)) return;
+        Map<String, String> data = Map.of("jobId", jobId.toString(), "status", status);
+        events.publish(jobId, "status", data, true, false);
+        events.publish(batchId, "status", data, true, false);
+    }
+
+    private void publishFinished(UUID jobId, UUID batchId, String status, JsonNode result) {
+        publishStatus(jobId, batchId, status);
+        if (!events.hasSubscribers(jobId)) return;
+        events.publish(jobId, "result", finishedEvent(jobId, status, result.toString()), true, true);
+    }
+
+    /**
+     * {@code json} (a stored result, or an event carrying one) with its trajectories and bands cut to about
+     * {@code maxPoints} rows by {@link TrajectoryDownsampler}; as-is if it cannot be parsed.
+     */
+    public String downsampleJson(String json, int maxPoints) {
+        try {
+            Map<String, Object> tree = mapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+            return mapper.writeValueAsString(TrajectoryDownsampler.downsample(tree, maxPoints));
+        } catch (IOException e) {
+            return json;
+        }
+    }
+
+    /** {"jobId","status","result"} with the result JSON spliced in as-is, so it is not parsed again. */
+    private static String finishedEvent(UUID jobId, String status, String resultJson) {
+        return "{\"jobId\":\"" + jobId + "\",\"status\":\"" + status + "\",\"result\":" + resultJson + "}";
+    }
+
+    /**
+     * Records calculator progress in the registry and forwards it to subscribers of {@code jobId}; payloads are
+     * built only while someone listens.
+     */
+    private OrbitalCalculator.ProgressListener progressListener(UUID jobId) {
+        String id = jobId.toString();
+        return new OrbitalCalculator.ProgressListener() {
+            @Override
+            public void trajectory(int from, List<Map<String, Object>> points) {
+                if (!events.hasSubscribers(jobId)) return;
+                try {
+                    // serialised here: the point maps go on to become part of the stored result
+                    String json = mapper.writeValueAsString(Map.of("jobId", id, "from", from, "points", points));
+                    events.publish(jobId, "trajectory", json, false, false);
+                } catch (JsonProcessingException e) {
+                    // progress is best effort
+                }
+            }
+
+            @Override
+            public void monteCarlo(int stepsDone, int steps, int samples) {
+                statuses.progress(jobId, steps > 0 ? (double) stepsDone / steps : 0.0);
+                if (!events.hasSubscribers(jobId)) return;
+                events.publish(jobId, "progress", Map.of("jobId", id, "stage", "uncertainty",
+                    "done", stepsDone, "total", steps, "samples", samples), false, false);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface ComputeTask {
+        PredictionResultDto compute() throws Exception;
+    }
 }
@@ -0,0 +1,70 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Star data for one API call or batch: each star is fetched from Gaia at most once however many jobs or stages ask
+ * for it, {@link #loadAll} turns a set of names into one batched lookup, and concurrent loads of the same star share
+ * the fetch. Names match case-insensitively, and "not found" answers are remembered like any other. Not a cache
+ * across requests; create one per scope and let it go with the scope.
+ */
+public class StarDataLoader {
+
+    private final GaiaService gaiaService;
+    private final ConcurrentHashMap<String, CompletableFuture<Map<String, Object>>> loaded = new ConcurrentHashMap<>();
+
+    public StarDataLoader(GaiaService gaiaService) {
+        this.gaiaService = gaiaService;
+    }
+
+    /** Fetch those of {@code names} not loaded or loading yet, in one {@link GaiaService#getStarMetricsByNames} call. */
+    public void loadAll(Collection<String> names) {
+        Map<String, CompletableFuture<Map<String, Object>>> mine = new LinkedHashMap<>();
+        for (String name : names) {
+            CompletableFuture<Map<String, Object>> f = new CompletableFuture<>();
+            if (loaded.putIfAbsent(key(name), f) == null) mine.put(name, f);
+        }
+        if (mine.isEmpty()) return;
+        try {
+            Map<String, Map<String, Object>> fetched = gaiaService.getStarMetricsByNames(new ArrayList<>(mine.keySet()));
+            mine.forEach((name, f) -> {
+                Map<String, Object> metrics = fetched.get(name);
+                f.complete(metrics != null ? metrics : Map.of("error", "Star not found in Gaia"));
+            });
+        } catch (RuntimeException e) {
+            // not remembered: the next load of these stars fetches them one by one
+            mine.forEach((name, f) -> {
+                loaded.remove(key(name), f);
+                f.completeExceptionally(e);
+            });
+            throw e;
+        }
+    }
+
+    /** Metrics for {@code name} (a private copy), or a map with an "error" key; fetched only on the first call. */
+    public Map<String, Object> load(String name) {
+        CompletableFuture<Map<String, Object>> f = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = loaded.putIfAbsent(key(name), f);
+        if (existing == null) {
+            try {
+                f.complete(gaiaService.getStarMetricsByName(name));
+            } catch (RuntimeException e) {
+                loaded.remove(key(name), f);
+                f.completeExceptionally(e);
+                throw e;
+            }
+            existing = f;
+        }
+        return new HashMap<>(existing.join());
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase().trim();
+    }
+}
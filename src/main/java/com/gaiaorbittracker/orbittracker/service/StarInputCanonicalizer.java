@@ -0,0 +1,72 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Canonical form of a {@link StarInput}: two inputs that produce the same prediction map to the same string.
+ *
+ * Defaults are applied the way {@link OrbitalCalculator} applies them (100 years, 50 steps, highFidelity null == true,
+ * propagationMode overriding highFidelity), star names are lower-cased and trimmed like GaiaService does, and
+ * numbers are printed from their double value so 100 and 100.0 agree. Astrometry is ignored when a Gaia ID is set.
+ * A deadline can cut a prediction short, so it is part of the canonical form when present; so are requested
+ * fields, as their sorted set.
+ */
+public final class StarInputCanonicalizer {
+
+    private static final String VERSION = "v1";
+
+    private StarInputCanonicalizer() {}
+
+    /** Canonical string, or null when the input is invalid (it will fail on its own and is never shared). */
+    public static String canonicalForm(StarInput input) {
+        String mode;
+        String fields;
+        try {
+            mode = OrbitalCalculator.resolvePropagationMode(input);
+            fields = ComputationPlan.of(input.getFields()).canonical();
+        } catch (Exception e) {
+            return null;
+        }
+        double years = input.getTimePeriodYears() != null ? input.getTimePeriodYears() : 100.0;
+        int steps = input.getTimeSteps() != null ? input.getTimeSteps() : 50;
+        StringBuilder sb = new StringBuilder(VERSION)
+            .append("|T=").append(years)
+            .append("|n=").append(steps)
+            .append("|mode=").append(mode);
+        if (input.getGaiaId() != null) {
+            sb.append("|gaia=").append(input.getGaiaId().toLowerCase(Locale.ROOT).trim());
+        } else {
+            sb.append("|ra=").append(number(input.getRa()))
+              .append("|dec=").append(number(input.getDec()))
+              .append("|plx=").append(number(input.getParallax()))
+              .append("|pmra=").append(number(input.getPmra()))
+              .append("|pmdec=").append(number(input.getPmdec()))
+              .append("|rv=").append(number(input.getRadialVelocity()));
+        }
+        if (input.getDeadlineSeconds() != null) sb.append("|deadline=").append(number(input.getDeadlineSeconds()));
+        if (fields != null) sb.append("|fields=").append(fields);
+        return sb.toString();
+    }
+
+    private static String number(Double v) {
+        return v == null ? "null" : Double.toString(v + 0.0); // + 0.0 folds -0.0 into 0.0
+    }
+
+    /** SHA-256 (hex) of {@link #canonicalForm}, or null for invalid input. */
+    public static String hash(StarInput input) {
+        String canonical = canonicalForm(input);
+        if (canonical == null) return null;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JRE ships SHA-256
+        }
+    }
+}
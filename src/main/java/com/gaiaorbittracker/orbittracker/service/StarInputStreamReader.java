@@ -0,0 +1,204 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Incremental reader for batch uploads: a JSON array of StarInput objects, NDJSON (one object per line) or CSV with
+ * a header row of StarInput property names. Only the current element is held in memory, so uploads of any size
+ * are read in constant space. Elements that do not bind or fail validation come back with an error instead of an
+ * input; a malformed JSON array (as opposed to a bad element) ends the stream with an IOException.
+ */
+public final class StarInputStreamReader implements Closeable {
+
+    public enum Format {
+        JSON, NDJSON, CSV;
+
+        /** Format for a request Content-Type; anything unrecognised is read as a JSON array. */
+        public static Format fromContentType(String contentType) {
+            String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+            if (type.contains("ndjson") || type.contains("x-jsonlines")) return NDJSON;
+            if (type.contains("csv")) return CSV;
+            return JSON;
+        }
+    }
+
+    /** One element of the upload: {@code input} when usable, otherwise {@code error}. Index is 0-based. */
+    public static final class Element {
+        public final long index;
+        public final StarInput input;
+        public final String error;
+
+        Element(long index, StarInput input, String error) {
+            this.index = index;
+            this.input = input;
+            this.error = error;
+        }
+    }
+
+    private final ObjectMapper mapper;
+    private final Format format;
+    private final JsonParser parser; // JSON
+    private final BufferedReader lines; // NDJSON, CSV
+    private String[] header; // CSV
+    private long index;
+    private boolean started;
+
+    public StarInputStreamReader(InputStream in, Format format, ObjectMapper mapper) throws IOException {
+        this.mapper = mapper;
+        this.format = format;
+        if (format == Format.JSON) {
+            this.parser = mapper.getFactory().createParser(in);
+            this.lines = null;
+        } else {
+            this.parser = null;
+            this.lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+    }
+
+    /** Next element, or null at the end of the upload. */
+    public Element next() throws IOException {
+        switch (format) {
+            case JSON:
+                return nextJson();
+            case NDJSON:
+                return nextNdjson();
+            default:
+                return nextCsv();
+        }
+    }
+
+    private Element nextJson() throws IOException {
+        if (!started) {
+            started = true;
+            if (parser.nextToken() != JsonToken.START_ARRAY) throw new IOException("Expected a JSON array of StarInput objects");
+        }
+        JsonToken token = parser.nextToken();
+        if (token == null) throw new IOException("Unexpected end of input inside the JSON array");
+        if (token == JsonToken.END_ARRAY) return null;
+        long i = index++;
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return new Element(i, null, "Expected an object, got " + token);
+        }
+        return bind(i, mapper.readTree(parser));
+    }
+
+    private Element nextNdjson() throws IOException {
+        String line;
+        do {
+            line = lines.readLine();
+            if (line == null) return null;
+        } while (line.isBlank());
+        long i = index++;
+        JsonNode node;
+        try {
+            node = mapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            return new Element(i, null, "Malformed JSON line: " + e.getOriginalMessage());
+        }
+        return bind(i, node);
+    }
+
+    private Element nextCsv() throws IOException {
+        if (header == null) {
+            String first = lines.readLine();
+            if (first == null) return null;
+            List<String> names = splitCsv(first.startsWith("\uFEFF") ? first.substring(1) : first);
+            header = names.toArray(new String[0]);
+        }
+        String line;
+        do {
+            line = lines.readLine();
+            if (line == null) return null;
+        } while (line.isBlank());
+        long i = index++;
+        List<String> cells = splitCsv(line);
+        ObjectNode node = mapper.createObjectNode();
+        for (int c = 0; c < header.length && c < cells.size(); c++) {
+            String cell = cells.get(c).trim();
+            if (!cell.isEmpty()) node.put(header[c].trim(), cell); // Jackson coerces numeric strings
+        }
+        return bind(i, node);
+    }
+
+    private Element bind(long i, JsonNode node) {
+        if (node == null || !node.isObject()) return new Element(i, null, "Expected an object");
+        StarInput input;
+        try {
+            input = mapper.treeToValue(node, StarInput.class);
+        } catch (JsonProcessingException e) {
+            return new Element(i, null, "Invalid StarInput: " + e.getOriginalMessage());
+        }
+        String error = validate(input);
+        return error != null ? new Element(i, null, error) : new Element(i, input, null);
+    }
+
+    /** Same requirements the calculator enforces later, checked up front so bad rows never become jobs. */
+    static String validate(StarInput input) {
+        try {
+            OrbitalCalculator.resolvePropagationMode(input);
+        } catch (Exception e) {
+            return e.getMessage();
+        }
+        if (input.getTimeSteps() != null && input.getTimeSteps() < 1) return "timeSteps must be positive";
+        if (input.getDeadlineSeconds() != null && !(input.getDeadlineSeconds() > 0)) return "deadlineSeconds must be positive";
+        if (input.getGaiaId() != null) {
+            return input.getGaiaId().isBlank() ? "gaiaId must not be blank" : null;
+        }
+        if (input.getRa() == null || input.getDec() == null) return "RA and Dec are required";
+        if (input.getParallax() == null || input.getParallax() <= 0) return "Valid parallax is required";
+        if (input.getPmra() == null || input.getPmdec() == null) return "Proper motions are required";
+        return null;
+    }
+
+    /** RFC 4180 fields of one line: commas separate, double quotes enclose, "" is a literal quote. */
+    static List<String> splitCsv(String line) {
+        List<String> out = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                out.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(ch);
+            }
+        }
+        out.add(cell.toString());
+        return out;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (parser != null) parser.close();
+        if (lines != null) lines.close();
+    }
+}
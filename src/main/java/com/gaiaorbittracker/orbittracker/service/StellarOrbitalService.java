@@ -2,7 +2,10 @@ package com.gaiaorbittracker.orbittracker.service;
 
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -171,6 +174,11 @@ public class StellarOrbitalService {
     public boolean hasStellarOrbit(String name) {
         return STELLAR_ORBITS.containsKey(name.toLowerCase().trim());
     }
+
+    /** Every catalogued star once (aliases collapsed). */
+    public List<StellarOrbit> getCatalog() {
+        return new ArrayList<>(new LinkedHashSet<>(STELLAR_ORBITS.values()));
+    }
     
     // Inner class to hold stellar orbital data
     public static class StellarOrbit {
@@ -0,0 +1,135 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Chart-sized views of a prediction result: Largest-Triangle-Three-Buckets over every time series in it (the
+ * trajectory points, the uncertainty bands). Rows are kept whole, so the series of one table stay on a shared time
+ * axis; within a bucket the row whose triangle areas, each scaled by its series' range, sum largest is kept. The
+ * minimum and maximum of every series are always kept as well. Stored and cached results stay at full resolution:
+ * the view is a copy, taken when a result is read.
+ */
+public final class TrajectoryDownsampler {
+
+    public static final int MIN_POINTS = 3;
+
+    private TrajectoryDownsampler() {}
+
+    /**
+     * Copy of {@code data} with each table of more than {@code maxPoints} timed rows, at any depth, cut down to about
+     * that many (a bucket holding extrema of several series keeps all of them). A cut {@code predictions} list gets
+     * a {@code fullResolutionPoints} count beside it.
+     */
+    public static Map<String, Object> downsample(Map<String, Object> data, int maxPoints) {
+        if (maxPoints < MIN_POINTS) throw new IllegalArgumentException("maxPoints must be at least " + MIN_POINTS);
+        return copy(data, maxPoints);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copy(Map<String, Object> node, int maxPoints) {
+        Map<String, Object> out = new LinkedHashMap<>(node);
+        for (Map.Entry<String, Object> e : out.entrySet()) {
+            Object v = e.getValue();
+            if (v instanceof Map) {
+                e.setValue(copy((Map<String, Object>) v, maxPoints));
+            } else if (v instanceof List && ((List<?>) v).size() > maxPoints && isTimed((List<?>) v)) {
+                e.setValue(lttb((List<Map<String, Object>>) v, maxPoints));
+            }
+        }
+        if (out.get("predictions") != node.get("predictions")) {
+            out.put("fullResolutionPoints", ((List<?>) node.get("predictions")).size());
+        }
+        return out;
+    }
+
+    private static boolean isTimed(List<?> rows) {
+        for (Object r : rows) {
+            if (!(r instanceof Map<?, ?> m) || !(m.get("time") instanceof Number)) return false;
+        }
+        return true;
+    }
+
+    /** The kept rows of {@code rows} (ordered by time), at most about {@code threshold} of them. */
+    static List<Map<String, Object>> lttb(List<Map<String, Object>> rows, int threshold) {
+        int n = rows.size();
+        if (threshold >= n) return rows;
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) x[i] = ((Number) rows.get(i).get("time")).doubleValue();
+
+        // every numeric column but time is a series; constant ones cannot shape the curve
+        List<double[]> series = new ArrayList<>();
+        List<Double> ranges = new ArrayList<>();
+        TreeSet<Integer> extrema = new TreeSet<>();
+        for (String key : rows.get(0).keySet()) {
+            if ("time".equals(key)) continue;
+            double[] y = new double[n];
+            int min = -1, max = -1;
+            for (int i = 0; i < n; i++) {
+                y[i] = rows.get(i).get(key) instanceof Number v ? v.doubleValue() : Double.NaN;
+                if (!Double.isFinite(y[i])) continue;
+                if (min < 0 || y[i] < y[min]) min = i;
+                if (max < 0 || y[i] > y[max]) max = i;
+            }
+            if (min < 0 || y[max] == y[min]) continue;
+            series.add(y);
+            ranges.add(y[max] - y[min]);
+            extrema.add(min);
+            extrema.add(max);
+        }
+
+        List<Map<String, Object>> out = new ArrayList<>(threshold);
+        out.add(rows.get(0));
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int b = 0; b < threshold - 2; b++) {
+            int start = (int) (b * every) + 1;
+            int end = Math.min((int) ((b + 1) * every) + 1, n - 1);
+            // extrema in this bucket are kept instead of the largest triangle
+            Integer forced = extrema.ceiling(start);
+            if (forced != null && forced < end) {
+                for (int k : extrema.subSet(start, end)) out.add(rows.get(k));
+                a = extrema.subSet(start, end).last();
+                continue;
+            }
+            int nextEnd = Math.min((int) ((b + 2) * every) + 1, n);
+            double avgX = 0;
+            for (int i = end; i < nextEnd; i++) avgX += x[i];
+            avgX /= nextEnd - end;
+            double[] avgY = new double[series.size()];
+            for (int s = 0; s < series.size(); s++) {
+                double[] y = series.get(s);
+                double sum = 0;
+                int count = 0;
+                for (int i = end; i < nextEnd; i++) {
+                    if (Double.isFinite(y[i])) {
+                        sum += y[i];
+                        count++;
+                    }
+                }
+                avgY[s] = count > 0 ? sum / count : Double.NaN;
+            }
+            int best = start;
+            double bestArea = -1;
+            for (int c = start; c < end; c++) {
+                double area = 0;
+                for (int s = 0; s < series.size(); s++) {
+                    double[] y = series.get(s);
+                    double t = Math.abs((x[a] - avgX) * (y[c] - y[a]) - (x[a] - x[c]) * (avgY[s] - y[a]));
+                    if (Double.isFinite(t)) area += t / ranges.get(s);
+                }
+                if (area > bestArea) {
+                    bestArea = area;
+                    best = c;
+                }
+            }
+            out.add(rows.get(best));
+            a = best;
+        }
+        out.add(rows.get(n - 1));
+        return out;
+    }
+}
@@ -0,0 +1,185 @@
+package com.gaiaorbittracker.orbittracker.service.cache;
+
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.service.StarInputCanonicalizer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Memoized results for the synchronous prediction endpoints, keyed on the canonical {@link StarInput}
+ * (see {@link StarInputCanonicalizer}, so e.g. highFidelity null and true share an entry).
+ *
+ * LRU evicted by serialized size against {@code prediction.cache.max-bytes}, with a TTL so Gaia updates are picked up.
+ * On-heap entries keep the result object (a hit is a map lookup; callers must treat results as read-only);
+ * with {@code prediction.cache.off-heap=true} the JSON is kept in direct buffers and decoded per hit.
+ * Concurrent misses for the same key compute once. Failures and results cut short by a deadline ({@code timedOut})
+ * are not cached or shared: callers waiting on such a computation run their own.
+ */
+@Component
+public class PredictionResultCache {
+
+    private static final class Entry {
+        final PredictionResultDto value; // on-heap mode
+        final ByteBuffer offHeap; // off-heap mode
+        final int bytes;
+        final long expiresAtNanos;
+
+        Entry(PredictionResultDto value, ByteBuffer offHeap, int bytes, long expiresAtNanos) {
+            this.value = value;
+            this.offHeap = offHeap;
+            this.bytes = bytes;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Loader {
+        PredictionResultDto load() throws Exception;
+    }
+
+    // results are mostly doubles; the fast parser roughly halves decode time for off-heap hits
+    private final ObjectMapper mapper = JsonMapper.builder()
+        .enable(StreamReadFeature.USE_FAST_DOUBLE_PARSER)
+        .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+        .build();
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final boolean offHeap;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final ConcurrentHashMap<String, CompletableFuture<PredictionResultDto>> loading = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private long bytes;
+
+    public PredictionResultCache(@Value("${prediction.cache.max-bytes:67108864}") long maxBytes,
+                                 @Value("${prediction.cache.ttl-seconds:600}") long ttlSeconds,
+                                 @Value("${prediction.cache.off-heap:false}") boolean offHeap,
+                                 MeterRegistry registry) {
+        this.maxBytes = maxBytes;
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.offHeap = offHeap;
+        this.hits = Counter.builder("prediction.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("prediction.cache.requests").tag("result", "miss").register(registry);
+        Gauge.builder("prediction.cache.bytes", this, PredictionResultCache::sizeBytes).register(registry);
+        Gauge.builder("prediction.cache.entries", this, PredictionResultCache::size).register(registry);
+    }
+
+    /** Cached result for {@code input}, or the loader's result (cached when complete). */
+    public PredictionResultDto getOrCompute(StarInput input, Loader loader) throws Exception {
+        String key = maxBytes > 0 ? StarInputCanonicalizer.canonicalForm(input) : null;
+        if (key == null) return loader.load();
+
+        PredictionResultDto cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<PredictionResultDto> mine = new CompletableFuture<>();
+        CompletableFuture<PredictionResultDto> theirs;
+        while ((theirs = loading.putIfAbsent(key, mine)) != null) {
+            PredictionResultDto shared;
+            try {
+                shared = theirs.get();
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+            }
+            // null: that computation was cut short, so this caller computes (or waits) again
+            if (shared != null) return shared;
+        }
+        try {
+            PredictionResultDto result = loader.load();
+            if (isPartial(result)) {
+                mine.complete(null);
+                return result;
+            }
+            put(key, result);
+            mine.complete(result);
+            return result;
+        } catch (Throwable t) {
+            // errors too (a stack overflow on a huge request), or callers waiting on this computation never wake up
+            mine.completeExceptionally(t);
+            throw t;
+        } finally {
+            loading.remove(key, mine);
+        }
+    }
+
+    private static boolean isPartial(PredictionResultDto result) {
+        return result != null && result.getData() != null && Boolean.TRUE.equals(result.getData().get("timedOut"));
+    }
+
+    private PredictionResultDto get(String key) throws Exception {
+        Entry e;
+        synchronized (this) {
+            e = entries.get(key);
+            if (e == null) return null;
+            if (System.nanoTime() - e.expiresAtNanos > 0) {
+                entries.remove(key);
+                bytes -= e.bytes;
+                return null;
+            }
+        }
+        if (e.value != null) return e.value;
+        // duplicate() so concurrent readers do not share a position
+        ByteBuffer buf = e.offHeap.duplicate();
+        byte[] json = new byte[buf.remaining()];
+        buf.get(json);
+        return mapper.readValue(json, PredictionResultDto.class);
+    }
+
+    private void put(String key, PredictionResultDto result) throws Exception {
+        byte[] json = mapper.writeValueAsBytes(result);
+        if (json.length > maxBytes) return;
+        Entry e;
+        long expires = System.nanoTime() + ttlNanos;
+        if (offHeap) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(json.length);
+            buf.put(json).flip();
+            e = new Entry(null, buf.asReadOnlyBuffer(), json.length, expires);
+        } else {
+            e = new Entry(result, null, json.length, expires);
+        }
+        synchronized (this) {
+            Entry old = entries.put(key, e);
+            if (old != null) bytes -= old.bytes;
+            bytes += e.bytes;
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (bytes > maxBytes && it.hasNext()) {
+                Entry victim = it.next().getValue();
+                it.remove();
+                bytes -= victim.bytes;
+            }
+        }
+    }
+
+    public synchronized long sizeBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+}
@@ -0,0 +1,182 @@
+package com.gaiaorbittracker.orbittracker.service.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar response format for clients that want plain float arrays (media type {@value #MEDIA_TYPE}). The same
+ * tables {@link TrajectoryCodec} stores column by column (arrays of uniform flat objects: trajectory points, band
+ * percentiles) become one little-endian float64 array per column; everything else stays JSON.
+ *
+ * Layout: "OTC1" | u32 header length | header JSON (UTF-8) | zero padding to a multiple of 8 | column arrays.
+ * The header is {"document": document with each table replaced by [], "tables": [{"path", "rows", "columns":
+ * [{"name", "type"}]}]}, in the order the arrays follow. Types are "f64", "i64" and "bool" (1/0), all stored as
+ * float64, with null as NaN. Every array starts 8-byte aligned, so a browser reads a column as
+ * {@code new Float64Array(buffer, offset, rows)}.
+ */
+public final class ColumnarResultCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.orbit-tracker.columns";
+
+    private static final byte[] MAGIC = {'O', 'T', 'C', '1'};
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private ColumnarResultCodec() {}
+
+    /**
+     * Writes {@code document}, a tree of maps, lists and scalars as Jackson binds JSON to {@code Object}. Tables are
+     * found on the objects directly, so large trajectories are never turned into a JsonNode tree.
+     */
+    public static void write(Map<String, Object> document, OutputStream out) throws IOException {
+        List<String[]> paths = new ArrayList<>();
+        List<List<Map<String, Object>>> tables = new ArrayList<>();
+        List<List<String>> columns = new ArrayList<>();
+        List<List<String>> types = new ArrayList<>();
+        Map<String, Object> residual = collectTables(document, new ArrayList<>(), paths, tables, columns, types);
+
+        Map<String, Object> header = new LinkedHashMap<>();
+        header.put("document", residual);
+        List<Map<String, Object>> descriptors = new ArrayList<>();
+        for (int t = 0; t < tables.size(); t++) {
+            List<Map<String, Object>> cols = new ArrayList<>();
+            for (int c = 0; c < columns.get(t).size(); c++) {
+                cols.add(Map.of("name", columns.get(t).get(c), "type", types.get(t).get(c)));
+            }
+            Map<String, Object> d = new LinkedHashMap<>();
+            d.put("path", paths.get(t));
+            d.put("rows", tables.get(t).size());
+            d.put("columns", cols);
+            descriptors.add(d);
+        }
+        header.put("tables", descriptors);
+
+        byte[] json = MAPPER.writeValueAsBytes(header);
+        int padding = (8 - (MAGIC.length + 4 + json.length) % 8) % 8;
+        ByteBuffer head = ByteBuffer.allocate(MAGIC.length + 4).order(ByteOrder.LITTLE_ENDIAN);
+        head.put(MAGIC).putInt(json.length);
+        out.write(head.array());
+        out.write(json);
+        out.write(new byte[padding]);
+
+        ByteBuffer column = ByteBuffer.allocate(0);
+        for (int t = 0; t < tables.size(); t++) {
+            List<Map<String, Object>> table = tables.get(t);
+            if (column.capacity() < table.size() * 8) {
+                column = ByteBuffer.allocate(table.size() * 8).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            for (String name : columns.get(t)) {
+                column.clear();
+                for (Map<String, Object> row : table) {
+                    Object v = row.get(name);
+                    column.putDouble(v == null ? Double.NaN
+                        : v instanceof Boolean ? ((Boolean) v ? 1 : 0) : ((Number) v).doubleValue());
+                }
+                out.write(column.array(), 0, column.position());
+            }
+        }
+    }
+
+    /** Copy of {@code node} down to its tables, each replaced by an empty list and appended to the outputs. */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> collectTables(Map<String, Object> node, List<String> path, List<String[]> paths,
+                                                     List<List<Map<String, Object>>> tables, List<List<String>> columns,
+                                                     List<List<String>> types) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : node.entrySet()) {
+            Object value = field.getValue();
+            path.add(field.getKey());
+            List<String> names = new ArrayList<>();
+            List<String> columnTypes = new ArrayList<>();
+            if (value instanceof Map) {
+                value = collectTables((Map<String, Object>) value, path, paths, tables, columns, types);
+            } else if (value instanceof List && isTable((List<Object>) value, names, columnTypes)) {
+                paths.add(path.toArray(new String[0]));
+                tables.add((List<Map<String, Object>>) value);
+                columns.add(names);
+                types.add(columnTypes);
+                value = List.of();
+            }
+            copy.put(field.getKey(), value);
+            path.remove(path.size() - 1);
+        }
+        return copy;
+    }
+
+    /**
+     * As in {@link TrajectoryCodec}: at least two maps with the same keys, each column all-double, all-integer or
+     * all-boolean (nulls allowed). Fills in the column names and types when it is.
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean isTable(List<Object> list, List<String> names, List<String> types) {
+        if (list.size() < 2 || !(list.get(0) instanceof Map)) return false;
+        names.addAll(((Map<String, Object>) list.get(0)).keySet());
+        if (names.isEmpty()) return false;
+        String[] found = new String[names.size()];
+        for (Object item : list) {
+            if (!(item instanceof Map) || ((Map<?, ?>) item).size() != names.size()) return false;
+            Map<?, ?> row = (Map<?, ?>) item;
+            for (int c = 0; c < found.length; c++) {
+                Object v = row.get(names.get(c));
+                if (v == null) {
+                    if (!row.containsKey(names.get(c))) return false;
+                    continue;
+                }
+                String type = v instanceof Double || v instanceof Float ? "f64"
+                    : v instanceof Integer || v instanceof Long || v instanceof Short ? "i64"
+                    : v instanceof Boolean ? "bool" : null;
+                if (type == null || (found[c] != null && !found[c].equals(type))) return false;
+                found[c] = type;
+            }
+        }
+        for (String type : found) types.add(type != null ? type : "f64"); // all null
+        return true;
+    }
+
+    /** The document back from {@link #write}, for Java clients and tests. */
+    public static JsonNode read(byte[] data) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte b : MAGIC) {
+            if (!in.hasRemaining() || in.get() != b) throw new IOException("Not a columnar result");
+        }
+        int length = in.getInt();
+        JsonNode header = MAPPER.readTree(data, in.position(), length);
+        in.position((in.position() + length + 7) & ~7);
+        JsonNode document = header.get("document");
+        for (JsonNode d : header.get("tables")) {
+            int rows = d.get("rows").asInt();
+            ArrayNode table = NODES.arrayNode(rows);
+            for (int r = 0; r < rows; r++) table.addObject();
+            for (JsonNode col : d.get("columns")) {
+                String name = col.get("name").asText();
+                String type = col.get("type").asText();
+                for (int r = 0; r < rows; r++) {
+                    double v = in.getDouble();
+                    ObjectNode row = (ObjectNode) table.get(r);
+                    if (Double.isNaN(v)) row.putNull(name);
+                    else if ("bool".equals(type)) row.put(name, v != 0);
+                    else if ("i64".equals(type) && v == (int) v) row.put(name, (int) v); // as JSON parsing gives it
+                    else if ("i64".equals(type)) row.put(name, (long) v);
+                    else row.put(name, v);
+                }
+            }
+            JsonNode parent = document;
+            JsonNode path = d.get("path");
+            for (int i = 0; i < path.size() - 1; i++) parent = parent.get(path.get(i).asText());
+            ((ObjectNode) parent).set(path.get(path.size() - 1).asText(), table);
+        }
+        return document;
+    }
+}
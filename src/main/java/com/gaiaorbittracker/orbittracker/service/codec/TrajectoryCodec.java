@@ -0,0 +1,536 @@
+package com.gaiaorbittracker.orbittracker.service.codec;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Lossless binary storage format for result JSON. Every array of uniform flat objects (trajectory points,
+ * uncertainty band percentiles) is stored column by column: doubles Gorilla-style as the XOR against a prediction
+ * (previous value, or linear or quadratic extrapolation, whichever is smallest per column), integers as
+ * delta-of-delta varints, booleans as bits. Everything else stays JSON, deflated. Columns are length-prefixed
+ * blocks, so a reader can skip what it does not need; decoding rebuilds the original JSON value for value,
+ * including key order.
+ *
+ * Layout: "TJ" version flags | varint len + residual JSON (tables replaced by []) | varint tables |
+ * per table: path | varint rows | varint columns | per column: name, type, null flag, varint len + block.
+ */
+public final class TrajectoryCodec {
+
+    private static final byte[] MAGIC = {'T', 'J'};
+    private static final int VERSION = 1;
+    private static final int FLAG_DEFLATED = 1;
+    private static final int DEFLATE_OVER_BYTES = 256;
+
+    static final int COL_DOUBLE_PREVIOUS = 0;
+    private static final int COL_DOUBLE_LINEAR = 1;
+    static final int COL_LONG = 2;
+    static final int COL_BOOLEAN = 3;
+    static final int COL_NULL = 4;
+    private static final int COL_DOUBLE_QUADRATIC = 5;
+    private static final int[] DOUBLE_TYPES = {COL_DOUBLE_PREVIOUS, COL_DOUBLE_LINEAR, COL_DOUBLE_QUADRATIC};
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private TrajectoryCodec() {}
+
+    public static byte[] encode(String json) throws IOException {
+        return encode(MAPPER.readTree(json));
+    }
+
+    public static byte[] encode(JsonNode root) throws IOException {
+        JsonNode residual = root.deepCopy();
+        List<String[]> paths = new ArrayList<>();
+        List<ArrayNode> tables = new ArrayList<>();
+        if (residual.isObject()) collectTables((ObjectNode) residual, new ArrayList<>(), paths, tables);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(1024);
+        out.write(MAGIC);
+        out.write(VERSION);
+        byte[] rest = MAPPER.writeValueAsBytes(residual);
+        boolean deflate = rest.length > DEFLATE_OVER_BYTES;
+        out.write(deflate ? FLAG_DEFLATED : 0);
+        if (deflate) {
+            writeVarint(out, rest.length);
+            rest = deflate(rest);
+        }
+        writeBlock(out, rest);
+        writeVarint(out, tables.size());
+        for (int t = 0; t < tables.size(); t++) writeTable(out, paths.get(t), tables.get(t));
+        return out.toByteArray();
+    }
+
+    public static String decodeToString(byte[] data) throws IOException {
+        return MAPPER.writeValueAsString(decode(data));
+    }
+
+    public static JsonNode decode(byte[] data) throws IOException {
+        Reader in = new Reader(data);
+        if (data.length < 4 || data[0] != MAGIC[0] || data[1] != MAGIC[1]) throw new IOException("Not an encoded result");
+        in.pos = 2;
+        int version = in.readByte();
+        if (version != VERSION) throw new IOException("Unsupported result encoding version " + version);
+        int flags = in.readByte();
+        int inflatedLength = (flags & FLAG_DEFLATED) != 0 ? (int) in.readVarint() : -1;
+        byte[] rest = in.readBlock();
+        if (inflatedLength >= 0) rest = inflate(rest, inflatedLength);
+        JsonNode root = MAPPER.readTree(rest);
+        long tableCount = in.readVarint();
+        for (long t = 0; t < tableCount; t++) {
+            int depth = (int) in.readVarint();
+            String[] path = new String[depth];
+            for (int d = 0; d < depth; d++) path[d] = in.readString();
+            ArrayNode table = readTable(in);
+            JsonNode parent = root;
+            for (int d = 0; d < depth - 1; d++) parent = parent.get(path[d]);
+            ((ObjectNode) parent).set(path[depth - 1], table); // replaces the [] placeholder in place
+        }
+        return root;
+    }
+
+    // ---- tables ----
+
+    static void collectTables(ObjectNode node, List<String> path, List<String[]> paths, List<ArrayNode> tables) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            path.add(field.getKey());
+            if (value.isObject()) {
+                collectTables((ObjectNode) value, path, paths, tables);
+            } else if (value.isArray() && isTable((ArrayNode) value)) {
+                paths.add(path.toArray(new String[0]));
+                tables.add((ArrayNode) value);
+                field.setValue(NODES.arrayNode());
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+
+    /** At least two objects with the same keys in the same order, each column all-double, all-integer or all-boolean (nulls allowed). */
+    private static boolean isTable(ArrayNode array) {
+        if (array.size() < 2 || !array.get(0).isObject()) return false;
+        List<String> names = new ArrayList<>();
+        array.get(0).fieldNames().forEachRemaining(names::add);
+        if (names.isEmpty()) return false;
+        for (JsonNode row : array) {
+            if (!row.isObject() || row.size() != names.size()) return false;
+            Iterator<String> it = row.fieldNames();
+            for (String name : names) if (!name.equals(it.next())) return false;
+        }
+        for (String name : names) {
+            if (columnType(array, name) < 0) return false;
+        }
+        return true;
+    }
+
+    /** COL_DOUBLE_PREVIOUS for doubles (refined when written), COL_LONG, COL_BOOLEAN, COL_NULL, or -1. */
+    static int columnType(ArrayNode array, String name) {
+        int type = COL_NULL;
+        for (JsonNode row : array) {
+            JsonNode v = row.get(name);
+            int t;
+            if (v.isNull()) continue;
+            if (v.isDouble()) t = COL_DOUBLE_PREVIOUS;
+            else if (v.isInt() || v.isLong()) t = COL_LONG;
+            else if (v.isBoolean()) t = COL_BOOLEAN;
+            else return -1;
+            if (type == COL_NULL) type = t;
+            else if (type != t) return -1;
+        }
+        return type;
+    }
+
+    private static void writeTable(ByteArrayOutputStream out, String[] path, ArrayNode table) throws IOException {
+        writeVarint(out, path.length);
+        for (String key : path) writeString(out, key);
+        int rows = table.size();
+        List<String> names = new ArrayList<>();
+        table.get(0).fieldNames().forEachRemaining(names::add);
+        writeVarint(out, rows);
+        writeVarint(out, names.size());
+        for (String name : names) {
+            int type = columnType(table, name);
+            boolean[] isNull = new boolean[rows];
+            boolean anyNull = false;
+            for (int r = 0; r < rows; r++) {
+                isNull[r] = table.get(r).get(name).isNull();
+                anyNull |= isNull[r];
+            }
+            BitWriter bits = new BitWriter();
+            if (anyNull && type != COL_NULL) {
+                for (boolean b : isNull) bits.writeBit(b);
+            }
+            switch (type) {
+                case COL_DOUBLE_PREVIOUS: {
+                    double[] values = new double[rows];
+                    int n = 0;
+                    for (int r = 0; r < rows; r++) if (!isNull[r]) values[n++] = table.get(r).get(name).doubleValue();
+                    // keep whichever predictor leaves the fewest bits
+                    BitWriter best = null;
+                    for (int order = 0; order < DOUBLE_TYPES.length; order++) {
+                        BitWriter candidate = copyOf(bits);
+                        writeDoubles(candidate, values, n, order);
+                        if (best == null || candidate.bitLength() < best.bitLength()) {
+                            best = candidate;
+                            type = DOUBLE_TYPES[order];
+                        }
+                    }
+                    bits = best;
+                    break;
+                }
+                case COL_LONG: {
+                    long prev = 0, prevDelta = 0;
+                    int i = 0;
+                    for (int r = 0; r < rows; r++) {
+                        if (isNull[r]) continue;
+                        long v = table.get(r).get(name).longValue();
+                        long delta = v - prev;
+                        bits.writeVarint(zigzag(i == 0 ? v : (i == 1 ? delta : delta - prevDelta)));
+                        prevDelta = delta;
+                        prev = v;
+                        i++;
+                    }
+                    break;
+                }
+                case COL_BOOLEAN:
+                    for (int r = 0; r < rows; r++) if (!isNull[r]) bits.writeBit(table.get(r).get(name).booleanValue());
+                    break;
+                default:
+                    break;
+            }
+            writeString(out, name);
+            out.write(type);
+            out.write(anyNull ? 1 : 0);
+            writeBlock(out, bits.toByteArray());
+        }
+    }
+
+    private static ArrayNode readTable(Reader in) throws IOException {
+        int rows = (int) in.readVarint();
+        int cols = (int) in.readVarint();
+        ObjectNode[] out = new ObjectNode[rows];
+        for (int r = 0; r < rows; r++) out[r] = NODES.objectNode();
+        for (int c = 0; c < cols; c++) {
+            String name = in.readString();
+            int type = in.readByte();
+            boolean anyNull = in.readByte() != 0;
+            BitReader bits = new BitReader(in.readBlock());
+            boolean[] isNull = new boolean[rows];
+            if (type == COL_NULL) Arrays.fill(isNull, true);
+            else if (anyNull) for (int r = 0; r < rows; r++) isNull[r] = bits.readBit();
+            int n = 0;
+            for (boolean b : isNull) if (!b) n++;
+            switch (type) {
+                case COL_DOUBLE_PREVIOUS:
+                case COL_DOUBLE_LINEAR:
+                case COL_DOUBLE_QUADRATIC: {
+                    double[] values = readDoubles(bits, n, type == COL_DOUBLE_PREVIOUS ? 0 : type == COL_DOUBLE_LINEAR ? 1 : 2);
+                    int i = 0;
+                    for (int r = 0; r < rows; r++) {
+                        if (isNull[r]) out[r].putNull(name);
+                        else out[r].put(name, values[i++]);
+                    }
+                    break;
+                }
+                case COL_LONG: {
+                    long prev = 0, prevDelta = 0;
+                    int i = 0;
+                    for (int r = 0; r < rows; r++) {
+                        if (isNull[r]) {
+                            out[r].putNull(name);
+                            continue;
+                        }
+                        long z = unzigzag(bits.readVarint());
+                        long v = i == 0 ? z : (i == 1 ? prev + z : prev + prevDelta + z);
+                        prevDelta = v - prev;
+                        prev = v;
+                        i++;
+                        if (v == (int) v) out[r].put(name, (int) v);
+                        else out[r].put(name, v);
+                    }
+                    break;
+                }
+                case COL_BOOLEAN:
+                    for (int r = 0; r < rows; r++) {
+                        if (isNull[r]) out[r].putNull(name);
+                        else out[r].put(name, bits.readBit());
+                    }
+                    break;
+                case COL_NULL:
+                    for (int r = 0; r < rows; r++) out[r].putNull(name);
+                    break;
+                default:
+                    throw new IOException("Unknown column type " + type);
+            }
+        }
+        ArrayNode table = NODES.arrayNode(rows);
+        for (ObjectNode row : out) table.add(row);
+        return table;
+    }
+
+    // ---- Gorilla XOR doubles ----
+
+    /** Extrapolation from the previous 1, 2 or 3 values (order 0, 1, 2), as far as the history allows. */
+    private static double predict(double[] values, int i, int order) {
+        if (order >= 2 && i >= 3) return 3 * values[i - 1] - 3 * values[i - 2] + values[i - 3];
+        if (order >= 1 && i >= 2) return 2 * values[i - 1] - values[i - 2];
+        return values[i - 1];
+    }
+
+    private static void writeDoubles(BitWriter bits, double[] values, int n, int order) {
+        if (n == 0) return;
+        bits.write(Double.doubleToRawLongBits(values[0]), 64);
+        int prevLead = -1, prevTrail = 0;
+        for (int i = 1; i < n; i++) {
+            double predicted = predict(values, i, order);
+            long xor = Double.doubleToRawLongBits(values[i]) ^ Double.doubleToRawLongBits(predicted);
+            if (xor == 0) {
+                bits.writeBit(false);
+                continue;
+            }
+            bits.writeBit(true);
+            int lead = Math.min(Long.numberOfLeadingZeros(xor), 31);
+            int trail = Long.numberOfTrailingZeros(xor);
+            if (prevLead >= 0 && lead >= prevLead && trail >= prevTrail) {
+                // fits the previous window: no header
+                bits.writeBit(false);
+                bits.write(xor >>> prevTrail, 64 - prevLead - prevTrail);
+            } else {
+                int significant = 64 - lead - trail;
+                bits.writeBit(true);
+                bits.write(lead, 5);
+                bits.write(significant - 1, 6);
+                bits.write(xor >>> trail, significant);
+                prevLead = lead;
+                prevTrail = trail;
+            }
+        }
+    }
+
+    private static double[] readDoubles(BitReader bits, int n, int order) {
+        double[] values = new double[n];
+        if (n == 0) return values;
+        values[0] = Double.longBitsToDouble(bits.read(64));
+        int prevLead = -1, prevTrail = 0;
+        for (int i = 1; i < n; i++) {
+            double predicted = predict(values, i, order);
+            long xor = 0;
+            if (bits.readBit()) {
+                if (!bits.readBit()) {
+                    xor = bits.read(64 - prevLead - prevTrail) << prevTrail;
+                } else {
+                    int lead = (int) bits.read(5);
+                    int significant = (int) bits.read(6) + 1;
+                    int trail = 64 - lead - significant;
+                    xor = bits.read(significant) << trail;
+                    prevLead = lead;
+                    prevTrail = trail;
+                }
+            }
+            values[i] = Double.longBitsToDouble(Double.doubleToRawLongBits(predicted) ^ xor);
+        }
+        return values;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    // ---- byte level ----
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        byte[] buf = new byte[8192];
+        while (!deflater.finished()) out.write(buf, 0, deflater.deflate(buf));
+        deflater.end();
+        return out.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] data, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        byte[] out = new byte[length];
+        try {
+            int n = 0;
+            while (n < length && !inflater.finished()) {
+                int read = inflater.inflate(out, n, length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += read;
+            }
+            if (n != length) throw new IOException("Truncated result block");
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt result block", e);
+        } finally {
+            inflater.end();
+        }
+        return out;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static void writeBlock(ByteArrayOutputStream out, byte[] block) {
+        writeVarint(out, block.length);
+        out.write(block, 0, block.length);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String s) {
+        writeBlock(out, s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static BitWriter copyOf(BitWriter bits) {
+        BitWriter copy = new BitWriter();
+        copy.buf = bits.buf.clone();
+        copy.bitPos = bits.bitPos;
+        return copy;
+    }
+
+    private static final class Reader {
+        final byte[] data;
+        int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= data.length) throw new IOException("Truncated encoded result");
+            return data[pos++] & 0xFF;
+        }
+
+        long readVarint() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) return v;
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        byte[] readBlock() throws IOException {
+            int len = (int) readVarint();
+            if (len < 0 || pos + len > data.length) throw new IOException("Truncated encoded result");
+            byte[] block = Arrays.copyOfRange(data, pos, pos + len);
+            pos += len;
+            return block;
+        }
+
+        String readString() throws IOException {
+            return new String(readBlock(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /** MSB-first bit stream. */
+    static final class BitWriter {
+        byte[] buf = new byte[64];
+        long bitPos;
+
+        void writeBit(boolean bit) {
+            ensure(1);
+            if (bit) buf[(int) (bitPos >>> 3)] |= (byte) (0x80 >>> (bitPos & 7));
+            bitPos++;
+        }
+
+        /** Low {@code count} bits of {@code value}, most significant first. */
+        void write(long value, int count) {
+            ensure(count);
+            for (int i = count - 1; i >= 0; ) {
+                int free = 8 - (int) (bitPos & 7);
+                int take = Math.min(free, i + 1);
+                int chunk = (int) ((value >>> (i + 1 - take)) & ((1 << take) - 1));
+                buf[(int) (bitPos >>> 3)] |= (byte) (chunk << (free - take));
+                bitPos += take;
+                i -= take;
+            }
+        }
+
+        void writeVarint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                write((v & 0x7F) | 0x80, 8);
+                v >>>= 7;
+            }
+            write(v, 8);
+        }
+
+        long bitLength() {
+            return bitPos;
+        }
+
+        private void ensure(int bits) {
+            long needed = (bitPos + bits + 7) >>> 3;
+            if (needed > buf.length) buf = Arrays.copyOf(buf, (int) Math.max(needed, buf.length * 2L));
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, (int) ((bitPos + 7) >>> 3));
+        }
+    }
+
+    static final class BitReader {
+        private final byte[] buf;
+        private long bitPos;
+
+        BitReader(byte[] buf) {
+            this.buf = buf;
+        }
+
+        boolean readBit() {
+            boolean bit = (buf[(int) (bitPos >>> 3)] & (0x80 >>> (bitPos & 7))) != 0;
+            bitPos++;
+            return bit;
+        }
+
+        long read(int count) {
+            long v = 0;
+            while (count > 0) {
+                int avail = 8 - (int) (bitPos & 7);
+                int take = Math.min(avail, count);
+                int b = buf[(int) (bitPos >>> 3)] & 0xFF;
+                int chunk = (b >>> (avail - take)) & ((1 << take) - 1);
+                v = (v << take) | chunk;
+                bitPos += take;
+                count -= take;
+            }
+            return v;
+        }
+
+        long readVarint() {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = (int) read(8);
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) break;
+            }
+            return v;
+        }
+    }
+}
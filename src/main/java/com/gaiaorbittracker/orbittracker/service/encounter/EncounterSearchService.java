@@ -0,0 +1,477 @@
+package com.gaiaorbittracker.orbittracker.service.encounter;
+
+import com.gaiaorbittracker.orbittracker.dto.EncounterRequest;
+import com.gaiaorbittracker.orbittracker.dto.PairEncounterRequest;
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.service.CancellationToken;
+import com.gaiaorbittracker.orbittracker.service.FallbackStarService;
+import com.gaiaorbittracker.orbittracker.service.GaiaService;
+import com.gaiaorbittracker.orbittracker.service.OrbitalCalculator;
+import com.gaiaorbittracker.orbittracker.service.StellarOrbitalService;
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernel;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticFrame;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticOrbitIntegrator;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Batch search for the closest approaches of catalogue stars to the Sun within [-horizon, +horizon].
+ *
+ * Every star first gets an analytic straight-line perihelion, evaluated in one kernel batch. In galactic mode
+ * that linear answer brackets the true one: the relative orbit can deviate from the line by at most
+ * S (cosh(sqrt(L) T) - 1), where S bounds the separation and L bounds the tidal field. Only stars whose lower
+ * bound beats the K-th best upper bound are integrated, in parallel. Uncertainties come from a Monte Carlo
+ * over the astrometric errors using linear perihelia. Async searches stop between stars when they are cancelled.
+ */
+@Service
+public class EncounterSearchService {
+
+    public static final double DEFAULT_HORIZON_MYR = 5.0;
+    public static final int DEFAULT_TOP_K = 20;
+    public static final int DEFAULT_SAMPLES = 100;
+    private static final int MAX_SAMPLES = 10_000;
+    public static final double DEFAULT_PAIR_THRESHOLD_PC = 1.0;
+    public static final int DEFAULT_MAX_PAIRS = 1000;
+    private static final int MAX_BUCKETS = 4096;
+    /** Stored star-epochs for galactic pair tracks (24 bytes each). */
+    private static final long MAX_GALACTIC_TRACK_SAMPLES = 8_000_000L;
+
+    /** Upper bound on the tidal tensor norm in the solar neighbourhood (1/Myr^2), about twice 4 pi G rho_0. */
+    static final double TIDAL_BOUND = 0.01;
+    /** Output spacing of galactic integrations; closest approach is refined inside each segment. */
+    private static final double OUTPUT_STEP_MYR = 0.05;
+    /** 1 pc/Myr in km/s. */
+    private static final double PC_MYR_TO_KM_S = 1.0 / (GalacticFrame.KM_S_TO_KPC_MYR * 1000.0);
+
+    private final GaiaService gaiaService;
+    private final FallbackStarService fallbackService;
+    private final StellarOrbitalService stellarOrbitalService;
+    private final PropagationKernel kernel;
+    private final GalacticOrbitIntegrator integrator;
+
+    public EncounterSearchService(GaiaService gaiaService, FallbackStarService fallbackService,
+                                  StellarOrbitalService stellarOrbitalService, PropagationKernel kernel,
+                                  GalacticOrbitIntegrator integrator) {
+        this.gaiaService = gaiaService;
+        this.fallbackService = fallbackService;
+        this.stellarOrbitalService = stellarOrbitalService;
+        this.kernel = kernel;
+        this.integrator = integrator;
+    }
+
+    /** Catalogue star: astrometry, 1-sigma errors and galactocentric state (kpc, kpc/Myr). */
+    static final class CatalogStar {
+        final String name;
+        final double ra, dec, parallax, pmra, pmdec, rv;
+        final double parallaxErr, pmraErr, pmdecErr, rvErr;
+        final boolean rvMissing;
+        final double[] galactocentric;
+
+        CatalogStar(String name, Map<String, Object> data) {
+            this.name = name;
+            this.ra = number(data.get("ra"));
+            this.dec = number(data.get("dec"));
+            this.parallax = number(data.get("parallax"));
+            this.pmra = number(data.get("pmra"));
+            this.pmdec = number(data.get("pmdec"));
+            this.rvMissing = !(data.get("radialVelocity") instanceof Number);
+            this.rv = rvMissing ? 0.0 : number(data.get("radialVelocity"));
+            // same defaults as OrbitalCalculator's uncertainty bands when Gaia errors are missing
+            this.parallaxErr = errorOr(data.get("parallaxError"), Math.max(0.05 * Math.abs(parallax), 0.01));
+            this.pmraErr = errorOr(data.get("pmraError"), Math.max(0.05 * Math.abs(pmra), 0.1));
+            this.pmdecErr = errorOr(data.get("pmdecError"), Math.max(0.05 * Math.abs(pmdec), 0.1));
+            this.rvErr = errorOr(data.get("radialVelocityError"), Math.max(0.1 * Math.abs(rv), 0.5));
+            this.galactocentric = GalacticFrame.toGalactocentric(ra, dec, parallax, pmra, pmdec, rv);
+        }
+
+        private static double number(Object v) {
+            return v instanceof Number ? ((Number) v).doubleValue() : Double.NaN;
+        }
+
+        private static double errorOr(Object v, double fallback) {
+            return v instanceof Number ? ((Number) v).doubleValue() : fallback;
+        }
+    }
+
+    /** The stars a search runs over, and the names that could not be used. */
+    public static final class Catalog {
+        final List<CatalogStar> stars;
+        final List<String> skipped;
+
+        Catalog(List<CatalogStar> stars, List<String> skipped) {
+            this.stars = stars;
+            this.skipped = skipped;
+        }
+    }
+
+    public PredictionResultDto search(EncounterRequest request) throws Exception {
+        checkRequest(request);
+        return search(request, loadCatalog(request.getNames()));
+    }
+
+    /** CPU half of {@link #search(EncounterRequest)} over a catalogue from {@link #loadCatalog}; no network access. */
+    public PredictionResultDto search(EncounterRequest request, Catalog stars) throws Exception {
+        return search(request, stars, CancellationToken.NONE);
+    }
+
+    /**
+     * As {@link #search(EncounterRequest, Catalog)}, checking {@code token} before each star is integrated and every
+     * {@link OrbitalCalculator#CHECK_EVERY} Monte Carlo draws; cancellation throws
+     * {@link java.util.concurrent.CancellationException}.
+     */
+    public PredictionResultDto search(EncounterRequest request, Catalog stars, CancellationToken token) throws Exception {
+        checkRequest(request);
+        double horizon = request.getHorizonMyr() != null ? request.getHorizonMyr() : DEFAULT_HORIZON_MYR;
+        int topK = request.getTopK() != null ? request.getTopK() : DEFAULT_TOP_K;
+        int samples = request.getSamples() != null ? request.getSamples() : DEFAULT_SAMPLES;
+        String mode = resolveMode(request.getPropagationMode());
+
+        List<String> skipped = stars.skipped;
+        List<CatalogStar> catalog = stars.stars;
+        int n = catalog.size();
+
+        // Heliocentric relative states in pc and pc/Myr, structure-of-arrays for the kernel
+        double[] sun = GalacticFrame.sunState();
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] vx = new double[n], vy = new double[n], vz = new double[n];
+        for (int i = 0; i < n; i++) {
+            double[] s = catalog.get(i).galactocentric;
+            x[i] = (s[0] - sun[0]) * 1000.0; y[i] = (s[1] - sun[1]) * 1000.0; z[i] = (s[2] - sun[2]) * 1000.0;
+            vx[i] = (s[3] - sun[3]) * 1000.0; vy[i] = (s[4] - sun[4]) * 1000.0; vz[i] = (s[5] - sun[5]) * 1000.0;
+        }
+        double[] tLin = new double[n], dLin = new double[n];
+        kernel.linearPerihelion(x, y, z, vx, vy, vz, -horizon, horizon, tLin, dLin, n);
+
+        List<double[]> approaches; // {index, epochMyr, distancePc, relativeSpeedPcMyr}
+        int integrated = 0;
+        if (OrbitalCalculator.MODE_GALACTIC.equals(mode)) {
+            int[] candidates = tidalCandidates(x, y, z, vx, vy, vz, dLin, horizon, topK, n);
+            integrated = candidates.length;
+
+            int steps = (int) Math.ceil(horizon / OUTPUT_STEP_MYR);
+            double[] sunForward = integrator.integrate(sun, horizon, steps);
+            double[] sunBackward = integrator.integrate(sun, -horizon, steps);
+            approaches = Arrays.stream(candidates).parallel()
+                .mapToObj(i -> {
+                    token.throwIfCancelled();
+                    return integrateApproach(i, catalog.get(i).galactocentric, horizon, steps, sunForward, sunBackward);
+                })
+                .collect(Collectors.toList());
+        } else {
+            approaches = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                approaches.add(new double[]{i, tLin[i], dLin[i], norm(vx[i], vy[i], vz[i])});
+            }
+        }
+        List<double[]> top = smallestK(approaches, topK);
+
+        token.throwIfCancelled();
+        List<Map<String, Object>> encounters = top.parallelStream()
+            .map(a -> describe(catalog.get((int) a[0]), a, horizon, samples, norm(x[(int) a[0]], y[(int) a[0]], z[(int) a[0]]), token))
+            .collect(Collectors.toList());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("encounters", encounters);
+        data.put("propagationMode", mode);
+        data.put("horizonMyr", horizon);
+        data.put("catalogSize", n);
+        data.put("candidatesIntegrated", integrated);
+        data.put("skipped", skipped);
+        data.put("kernel", kernel.name());
+        String summary = String.format("Closest %d of %d stars to the Sun within +/-%.2f Myr (%s)",
+            encounters.size(), n, horizon, mode);
+        return new PredictionResultDto(summary, data);
+    }
+
+    /**
+     * All star pairs passing within {@code thresholdPc} of each other inside [-horizon, +horizon].
+     * Tracks are the linear heliocentric motion (standard) or galactic orbits relative to the Sun sampled at
+     * bucket edges (galactic); see {@link PairApproachEngine} for the index.
+     */
+    public PredictionResultDto searchPairs(PairEncounterRequest request) throws Exception {
+        double horizon = request.getHorizonMyr() != null ? request.getHorizonMyr() : DEFAULT_HORIZON_MYR;
+        double threshold = request.getThresholdPc() != null ? request.getThresholdPc() : DEFAULT_PAIR_THRESHOLD_PC;
+        int maxPairs = request.getMaxPairs() != null ? request.getMaxPairs() : DEFAULT_MAX_PAIRS;
+        if (!(horizon > 0)) throw new Exception("horizonMyr must be positive");
+        if (!(threshold > 0)) throw new Exception("thresholdPc must be positive");
+        if (maxPairs < 1) throw new Exception("maxPairs must be at least 1");
+        if (request.getBuckets() != null && (request.getBuckets() < 1 || request.getBuckets() > MAX_BUCKETS)) {
+            throw new Exception("buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        String mode = resolveMode(request.getPropagationMode());
+
+        long started = System.currentTimeMillis();
+        Catalog stars = loadCatalog(request.getNames());
+        List<String> skipped = stars.skipped;
+        List<CatalogStar> catalog = stars.stars;
+        int n = catalog.size();
+        double[] sun = GalacticFrame.sunState();
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] vx = new double[n], vy = new double[n], vz = new double[n];
+        double speedSq = 0;
+        for (int i = 0; i < n; i++) {
+            double[] s = catalog.get(i).galactocentric;
+            x[i] = (s[0] - sun[0]) * 1000.0; y[i] = (s[1] - sun[1]) * 1000.0; z[i] = (s[2] - sun[2]) * 1000.0;
+            vx[i] = (s[3] - sun[3]) * 1000.0; vy[i] = (s[4] - sun[4]) * 1000.0; vz[i] = (s[5] - sun[5]) * 1000.0;
+            speedSq += vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i];
+        }
+
+        // Default: a typical track moves about four thresholds per bucket, which keeps boxes tight without
+        // paying for many near-empty sweeps
+        int buckets = request.getBuckets() != null ? request.getBuckets()
+            : (int) Math.max(1, Math.min(MAX_BUCKETS, Math.ceil(2 * horizon * Math.sqrt(speedSq / Math.max(1, n)) / (4 * threshold))));
+        PairApproachEngine.TrackSampler sampler;
+        if (OrbitalCalculator.MODE_GALACTIC.equals(mode)) {
+            if ((long) n * (buckets + 1) > MAX_GALACTIC_TRACK_SAMPLES) {
+                throw new Exception("galactic pair search limited to " + MAX_GALACTIC_TRACK_SAMPLES
+                    + " star-epochs; reduce names or buckets");
+            }
+            sampler = galacticTracks(catalog, horizon, buckets);
+        } else {
+            double bucketMyr = 2 * horizon / buckets;
+            sampler = (edge, px, py, pz) -> {
+                double t = -horizon + edge * bucketMyr;
+                for (int i = 0; i < n; i++) {
+                    px[i] = x[i] + vx[i] * t;
+                    py[i] = y[i] + vy[i] * t;
+                    pz[i] = z[i] + vz[i] * t;
+                }
+            };
+        }
+
+        PairApproachEngine engine = new PairApproachEngine(n, -horizon, horizon, buckets, threshold);
+        List<PairApproachEngine.Approach> found = engine.find(sampler);
+
+        List<Map<String, Object>> pairs = new ArrayList<>();
+        for (PairApproachEngine.Approach a : found.subList(0, Math.min(maxPairs, found.size()))) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("starA", catalog.get(a.a).name);
+            m.put("starB", catalog.get(a.b).name);
+            m.put("epochMyr", a.epochMyr);
+            m.put("minDistancePc", a.distancePc);
+            m.put("minDistanceLy", a.distancePc * 3.26156);
+            m.put("relativeVelocityKmS", a.relativeSpeedPcMyr * PC_MYR_TO_KM_S);
+            pairs.add(m);
+        }
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("pairs", pairs);
+        data.put("pairsFound", found.size());
+        data.put("propagationMode", mode);
+        data.put("horizonMyr", horizon);
+        data.put("thresholdPc", threshold);
+        data.put("catalogSize", n);
+        data.put("buckets", buckets);
+        data.put("candidatePairsTested", engine.candidatesTested());
+        data.put("skipped", skipped);
+        data.put("elapsedMs", System.currentTimeMillis() - started);
+        String summary = String.format("%d star pairs within %.3f pc of each other within +/-%.2f Myr (%d stars, %s)",
+            found.size(), threshold, horizon, n, mode);
+        return new PredictionResultDto(summary, data);
+    }
+
+    /** Galactic orbits of every star relative to the Sun, sampled at bucket edges over [-horizon, +horizon]. */
+    private PairApproachEngine.TrackSampler galacticTracks(List<CatalogStar> catalog, double horizon, int buckets) {
+        int n = catalog.size();
+        double[] sunTrack = integrator.integrate(integrator.integrate(GalacticFrame.sunState(), -horizon, 1), 2 * horizon, buckets);
+        // flat [edge][star][xyz] so each sample call reads one contiguous block
+        double[] tracks = new double[(buckets + 1) * n * 3];
+        IntStream.range(0, n).parallel().forEach(i -> {
+            double[] start = integrator.integrate(catalog.get(i).galactocentric, -horizon, 1);
+            double[] track = integrator.integrate(Arrays.copyOfRange(start, 6, 12), 2 * horizon, buckets);
+            for (int e = 0; e <= buckets; e++) {
+                for (int k = 0; k < 3; k++) {
+                    tracks[(e * n + i) * 3 + k] = (track[e * 6 + k] - sunTrack[e * 6 + k]) * 1000.0;
+                }
+            }
+        });
+        return (edge, px, py, pz) -> {
+            int o = edge * n * 3;
+            for (int i = 0; i < n; i++, o += 3) {
+                px[i] = tracks[o];
+                py[i] = tracks[o + 1];
+                pz[i] = tracks[o + 2];
+            }
+        };
+    }
+
+    private static String resolveMode(String requested) throws Exception {
+        String mode = requested == null ? OrbitalCalculator.MODE_STANDARD : requested.trim().toLowerCase(Locale.ROOT);
+        if (!OrbitalCalculator.MODE_STANDARD.equals(mode) && !OrbitalCalculator.MODE_GALACTIC.equals(mode)) {
+            throw new Exception("propagationMode must be standard or galactic");
+        }
+        return mode;
+    }
+
+    private static void checkRequest(EncounterRequest request) throws Exception {
+        if (request.getHorizonMyr() != null && !(request.getHorizonMyr() > 0)) {
+            throw new Exception("horizonMyr must be positive");
+        }
+        if (request.getTopK() != null && request.getTopK() < 1) throw new Exception("topK must be at least 1");
+        if (request.getSamples() != null && (request.getSamples() < 0 || request.getSamples() > MAX_SAMPLES)) {
+            throw new Exception("samples must be between 0 and " + MAX_SAMPLES);
+        }
+        resolveMode(request.getPropagationMode());
+    }
+
+    /**
+     * I/O half of a search: {@code names} looked up in Gaia, or the built-in catalogue when there are none. Kept
+     * separate so callers can run it on I/O threads and hand the catalogue to a compute pool.
+     */
+    public Catalog loadCatalog(List<String> names) {
+        List<String> skipped = new ArrayList<>();
+        Map<String, Map<String, Object>> raw = new LinkedHashMap<>();
+        if (names == null || names.isEmpty()) {
+            for (StellarOrbitalService.StellarOrbit orbit : stellarOrbitalService.getCatalog()) {
+                raw.put(orbit.getCommonName(), fallbackService.getMockStarData(orbit.getCommonName()));
+            }
+        } else {
+            raw.putAll(gaiaService.getStarMetricsByNames(names));
+        }
+        List<CatalogStar> out = new ArrayList<>(raw.size());
+        for (Map.Entry<String, Map<String, Object>> e : raw.entrySet()) {
+            Map<String, Object> data = e.getValue();
+            if (data.containsKey("error") || !(data.get("parallax") instanceof Number)
+                || ((Number) data.get("parallax")).doubleValue() <= 0
+                || !(data.get("pmra") instanceof Number) || !(data.get("pmdec") instanceof Number)) {
+                skipped.add(e.getKey());
+                continue;
+            }
+            out.add(new CatalogStar(e.getKey(), data));
+        }
+        return new Catalog(out, skipped);
+    }
+
+    /** Largest distance of the galactic relative orbit from the straight line over [-horizon, +horizon]. */
+    static double tidalDeviation(double x, double y, double z, double vx, double vy, double vz, double horizon) {
+        double r0 = norm(x, y, z);
+        double rPlus = norm(x + vx * horizon, y + vy * horizon, z + vz * horizon);
+        double rMinus = norm(x - vx * horizon, y - vy * horizon, z - vz * horizon);
+        return Math.max(r0, Math.max(rPlus, rMinus)) * (Math.cosh(Math.sqrt(TIDAL_BOUND) * horizon) - 1.0);
+    }
+
+    /** Stars whose lower bound beats the k-th best upper bound, in index order; only these need integrating. */
+    static int[] tidalCandidates(double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz,
+                                 double[] dLin, double horizon, int k, int n) {
+        double[] lower = new double[n], upper = new double[n];
+        for (int i = 0; i < n; i++) {
+            double deviation = tidalDeviation(x[i], y[i], z[i], vx[i], vy[i], vz[i], horizon);
+            lower[i] = Math.max(0.0, dLin[i] - deviation);
+            upper[i] = dLin[i] + deviation;
+        }
+        double threshold = kthSmallest(upper, Math.min(k, n));
+        int[] candidates = new int[n];
+        int c = 0;
+        for (int i = 0; i < n; i++) if (lower[i] <= threshold) candidates[c++] = i;
+        return Arrays.copyOf(candidates, c);
+    }
+
+    /** Minimum Sun distance along integrated forward and backward tracks, refined linearly inside each segment. */
+    double[] integrateApproach(int index, double[] state, double horizon, int steps,
+                                       double[] sunForward, double[] sunBackward) {
+        double[] best = {index, 0.0, Double.POSITIVE_INFINITY, 0.0};
+        scanTrack(integrator.integrate(state, horizon, steps), sunForward, steps, horizon / steps, best);
+        scanTrack(integrator.integrate(state, -horizon, steps), sunBackward, steps, -horizon / steps, best);
+        return best;
+    }
+
+    private static void scanTrack(double[] star, double[] sun, int steps, double h, double[] best) {
+        double lo = Math.min(0.0, h), hi = Math.max(0.0, h);
+        for (int j = 0; j <= steps; j++) {
+            int o = j * 6;
+            double rx = (star[o] - sun[o]) * 1000.0, ry = (star[o + 1] - sun[o + 1]) * 1000.0, rz = (star[o + 2] - sun[o + 2]) * 1000.0;
+            double ux = (star[o + 3] - sun[o + 3]) * 1000.0, uy = (star[o + 4] - sun[o + 4]) * 1000.0, uz = (star[o + 5] - sun[o + 5]) * 1000.0;
+            double vv = ux * ux + uy * uy + uz * uz;
+            double tau = j < steps && vv > 0 ? -(rx * ux + ry * uy + rz * uz) / vv : 0.0;
+            tau = Math.max(lo, Math.min(hi, tau));
+            double d = norm(rx + ux * tau, ry + uy * tau, rz + uz * tau);
+            if (d < best[2]) {
+                best[1] = j * h + tau;
+                best[2] = d;
+                best[3] = Math.sqrt(vv);
+            }
+        }
+    }
+
+    private Map<String, Object> describe(CatalogStar star, double[] approach, double horizon, int samples, double currentPc,
+                                         CancellationToken token) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("name", star.name);
+        m.put("epochMyr", approach[1]);
+        m.put("minDistancePc", approach[2]);
+        m.put("minDistanceLy", approach[2] * 3.26156);
+        m.put("relativeVelocityKmS", approach[3] * PC_MYR_TO_KM_S);
+        m.put("currentDistancePc", currentPc);
+        m.put("radialVelocityAssumedZero", star.rvMissing);
+        if (samples > 1) {
+            double[] spread = sampleSpread(star, horizon, samples, token);
+            m.put("minDistanceErrorPc", spread[0]);
+            m.put("epochErrorMyr", spread[1]);
+        }
+        return m;
+    }
+
+    /** Standard deviation of linear perihelion distance and epoch over Gaussian astrometric draws. */
+    private double[] sampleSpread(CatalogStar star, double horizon, int samples, CancellationToken token) {
+        Random random = new Random(42);
+        double[] sun = GalacticFrame.sunState();
+        double[] x = new double[samples], y = new double[samples], z = new double[samples];
+        double[] vx = new double[samples], vy = new double[samples], vz = new double[samples];
+        int n = 0;
+        for (int s = 0; s < samples; s++) {
+            if (s > 0 && s % OrbitalCalculator.CHECK_EVERY == 0) token.throwIfCancelled();
+            double plx = star.parallax + random.nextGaussian() * star.parallaxErr;
+            double pmra = star.pmra + random.nextGaussian() * star.pmraErr;
+            double pmdec = star.pmdec + random.nextGaussian() * star.pmdecErr;
+            double rv = star.rv + random.nextGaussian() * star.rvErr;
+            if (plx <= 0) continue; // unphysical draw
+            double[] g = GalacticFrame.toGalactocentric(star.ra, star.dec, plx, pmra, pmdec, rv);
+            x[n] = (g[0] - sun[0]) * 1000.0; y[n] = (g[1] - sun[1]) * 1000.0; z[n] = (g[2] - sun[2]) * 1000.0;
+            vx[n] = (g[3] - sun[3]) * 1000.0; vy[n] = (g[4] - sun[4]) * 1000.0; vz[n] = (g[5] - sun[5]) * 1000.0;
+            n++;
+        }
+        double[] t = new double[n], d = new double[n];
+        kernel.linearPerihelion(x, y, z, vx, vy, vz, -horizon, horizon, t, d, n);
+        return new double[]{stddev(d, n), stddev(t, n)};
+    }
+
+    private static double stddev(double[] v, int n) {
+        if (n < 2) return Double.NaN;
+        double mean = 0;
+        for (int i = 0; i < n; i++) mean += v[i];
+        mean /= n;
+        double ss = 0;
+        for (int i = 0; i < n; i++) ss += (v[i] - mean) * (v[i] - mean);
+        return Math.sqrt(ss / (n - 1));
+    }
+
+    /** The k approaches with the smallest distance, closest first, via a bounded max-heap. */
+    static List<double[]> smallestK(List<double[]> approaches, int k) {
+        PriorityQueue<double[]> heap = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(b[2], a[2]));
+        for (double[] a : approaches) {
+            if (heap.size() < k) {
+                heap.add(a);
+            } else if (a[2] < heap.peek()[2]) {
+                heap.poll();
+                heap.add(a);
+            }
+        }
+        List<double[]> out = new ArrayList<>(heap);
+        out.sort(Comparator.comparingDouble(a -> a[2]));
+        return out;
+    }
+
+    private static double kthSmallest(double[] values, int k) {
+        if (k <= 0 || values.length == 0) return Double.POSITIVE_INFINITY;
+        double[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy[k - 1];
+    }
+
+    private static double norm(double x, double y, double z) {
+        return Math.sqrt(x * x + y * y + z * z);
+    }
+}
@@ -0,0 +1,218 @@
+package com.gaiaorbittracker.orbittracker.service.encounter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Star-star close approaches on piecewise-linear tracks.
+ *
+ * The window is cut into time buckets. Within a bucket every track is a straight segment, so its bounding box is
+ * spanned by the two end points. Boxes inflated by threshold / 2 are binned into a uniform y-z grid, swept along
+ * x inside each cell (sweep-and-prune) to find candidate pairs, and each candidate is refined with the exact
+ * closest approach of the two segments. Buckets are independent and run in parallel; per pair only the closest
+ * bucket is kept. Cost is O(B N log N) plus the number of overlapping boxes, instead of O(N^2 B).
+ */
+public final class PairApproachEngine {
+
+    /** Fills star positions (pc) at bucket edge {@code edge}; must be safe to call concurrently. */
+    @FunctionalInterface
+    public interface TrackSampler {
+        void sample(int edge, double[] x, double[] y, double[] z);
+    }
+
+    /** Closest approach of stars a < b: epoch (Myr), distance (pc), relative speed (pc/Myr). */
+    public static final class Approach {
+        public final int a, b;
+        public final double epochMyr, distancePc, relativeSpeedPcMyr;
+
+        Approach(int a, int b, double epochMyr, double distancePc, double relativeSpeedPcMyr) {
+            this.a = a;
+            this.b = b;
+            this.epochMyr = epochMyr;
+            this.distancePc = distancePc;
+            this.relativeSpeedPcMyr = relativeSpeedPcMyr;
+        }
+    }
+
+    /** Grid cells per axis on each side of the origin; indices beyond are clamped into the border cells. */
+    private static final int CELL_RANGE = 1 << 20;
+    /** Star index bits left over next to the 42-bit cell key in a sort entry. */
+    private static final int STAR_BITS = 21;
+    private static final long STAR_MASK = (1L << STAR_BITS) - 1;
+    public static final int MAX_STARS = 1 << STAR_BITS;
+
+    private final int n;
+    private final double tStart, bucketMyr;
+    private final int buckets;
+    private final double threshold;
+    private final LongAdder candidatesTested = new LongAdder();
+
+    public PairApproachEngine(int n, double tStart, double tEnd, int buckets, double thresholdPc) {
+        if (n > MAX_STARS) throw new IllegalArgumentException("at most " + MAX_STARS + " stars per search");
+        this.n = n;
+        this.tStart = tStart;
+        this.buckets = buckets;
+        this.bucketMyr = (tEnd - tStart) / buckets;
+        this.threshold = thresholdPc;
+    }
+
+    /** Candidate pairs whose boxes overlapped, summed over buckets, from the last {@link #find} call. */
+    public long candidatesTested() {
+        return candidatesTested.sum();
+    }
+
+    /** All pairs that come within the threshold, closest first. */
+    public List<Approach> find(TrackSampler sampler) {
+        candidatesTested.reset();
+        ConcurrentHashMap<Long, Approach> best = new ConcurrentHashMap<>();
+        IntStream.range(0, buckets).parallel().forEach(b -> sweepBucket(b, sampler, best));
+        List<Approach> out = new ArrayList<>(best.values());
+        out.sort(Comparator.comparingDouble((Approach p) -> p.distancePc).thenComparingInt(p -> p.a).thenComparingInt(p -> p.b));
+        return out;
+    }
+
+    private void sweepBucket(int bucket, TrackSampler sampler, ConcurrentHashMap<Long, Approach> best) {
+        double[] x0 = new double[n], y0 = new double[n], z0 = new double[n];
+        double[] x1 = new double[n], y1 = new double[n], z1 = new double[n];
+        sampler.sample(bucket, x0, y0, z0);
+        sampler.sample(bucket + 1, x1, y1, z1);
+
+        double pad = 0.5 * threshold;
+        double[] minX = new double[n], maxX = new double[n];
+        double[] minY = new double[n], maxY = new double[n], minZ = new double[n], maxZ = new double[n];
+        double extent = 0;
+        for (int i = 0; i < n; i++) {
+            minX[i] = Math.min(x0[i], x1[i]) - pad; maxX[i] = Math.max(x0[i], x1[i]) + pad;
+            minY[i] = Math.min(y0[i], y1[i]) - pad; maxY[i] = Math.max(y0[i], y1[i]) + pad;
+            minZ[i] = Math.min(z0[i], z1[i]) - pad; maxZ[i] = Math.max(z0[i], z1[i]) + pad;
+            extent += (maxY[i] - minY[i]) + (maxZ[i] - minZ[i]);
+        }
+        // y-z cells about twice the mean box size: most boxes touch 1-4 cells
+        double cell = n > 0 ? Math.max(threshold, extent / n) : threshold;
+
+        int entries = 0;
+        for (int i = 0; i < n; i++) {
+            entries += (cellIndex(maxY[i], cell) - cellIndex(minY[i], cell) + 1) * (cellIndex(maxZ[i], cell) - cellIndex(minZ[i], cell) + 1);
+        }
+        // (cell << STAR_BITS | star): one primitive sort groups entries by cell
+        long[] entry = new long[entries];
+        int e = 0;
+        for (int i = 0; i < n; i++) {
+            for (int cy = cellIndex(minY[i], cell); cy <= cellIndex(maxY[i], cell); cy++) {
+                for (int cz = cellIndex(minZ[i], cell); cz <= cellIndex(maxZ[i], cell); cz++) {
+                    entry[e++] = (cellKey(cy, cz) << STAR_BITS) | i;
+                }
+            }
+        }
+        Arrays.sort(entry);
+
+        double t0 = tStart + bucket * bucketMyr;
+        int[] group = new int[Math.max(1, entries)];
+        int[] active = new int[Math.max(1, entries)];
+        long tested = 0;
+        for (int start = 0; start < entries; ) {
+            long key = entry[start] >>> STAR_BITS;
+            int size = 0;
+            int end = start;
+            while (end < entries && (entry[end] >>> STAR_BITS) == key) group[size++] = (int) (entry[end++] & STAR_MASK);
+            start = end;
+            if (size < 2) continue;
+
+            // sweep-and-prune along x inside the cell
+            sortByKey(group, minX, 0, size - 1);
+            int activeCount = 0;
+            for (int k = 0; k < size; k++) {
+                int i = group[k];
+                int kept = 0;
+                for (int a = 0; a < activeCount; a++) {
+                    int j = active[a];
+                    if (maxX[j] < minX[i]) continue; // j ends before i starts; drop it for good
+                    active[kept++] = j;
+                    if (minY[i] > maxY[j] || minY[j] > maxY[i] || minZ[i] > maxZ[j] || minZ[j] > maxZ[i]) continue;
+                    // report each pair once: in the cell holding the min corner of the box intersection
+                    long owner = cellKey(cellIndex(Math.max(minY[i], minY[j]), cell), cellIndex(Math.max(minZ[i], minZ[j]), cell));
+                    if (owner != key) continue;
+                    tested++;
+                    refine(i, j, x0, y0, z0, x1, y1, z1, t0, best);
+                }
+                activeCount = kept;
+                active[activeCount++] = i;
+            }
+        }
+        candidatesTested.add(tested);
+    }
+
+    private static int cellIndex(double v, double cell) {
+        double c = Math.floor(v / cell);
+        return (int) Math.max(-CELL_RANGE, Math.min(CELL_RANGE - 1, c));
+    }
+
+    /** Cell (cy, cz) packed into 42 bits. */
+    private static long cellKey(int cy, int cz) {
+        return ((long) (cy + CELL_RANGE) << 21) | (cz + CELL_RANGE);
+    }
+
+    private void refine(int i, int j, double[] x0, double[] y0, double[] z0,
+                        double[] x1, double[] y1, double[] z1, double t0, ConcurrentHashMap<Long, Approach> best) {
+        double rx = x0[j] - x0[i], ry = y0[j] - y0[i], rz = z0[j] - z0[i];
+        double ux = ((x1[j] - x0[j]) - (x1[i] - x0[i])) / bucketMyr;
+        double uy = ((y1[j] - y0[j]) - (y1[i] - y0[i])) / bucketMyr;
+        double uz = ((z1[j] - z0[j]) - (z1[i] - z0[i])) / bucketMyr;
+        double uu = ux * ux + uy * uy + uz * uz;
+        double tau = uu > 0 ? -(rx * ux + ry * uy + rz * uz) / uu : 0.0;
+        tau = Math.max(0.0, Math.min(bucketMyr, tau));
+        double dx = rx + ux * tau, dy = ry + uy * tau, dz = rz + uz * tau;
+        double d = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (d > threshold) return;
+
+        int a = Math.min(i, j), b = Math.max(i, j);
+        Approach candidate = new Approach(a, b, t0 + tau, d, Math.sqrt(uu));
+        best.merge((long) a * n + b, candidate, (old, neu) -> neu.distancePc < old.distancePc ? neu : old);
+    }
+
+    /** In-place quicksort of index array {@code idx} by {@code key[idx]} (avoids boxing indices per cell). */
+    static void sortByKey(int[] idx, double[] key, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            if (key[idx[mid]] < key[idx[lo]]) swap(idx, mid, lo);
+            if (key[idx[hi]] < key[idx[lo]]) swap(idx, hi, lo);
+            if (key[idx[hi]] < key[idx[mid]]) swap(idx, hi, mid);
+            double pivot = key[idx[mid]];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (key[idx[i]] < pivot) i++;
+                while (key[idx[j]] > pivot) j--;
+                if (i <= j) swap(idx, i++, j--);
+            }
+            // recurse into the smaller side to bound stack depth
+            if (j - lo < hi - i) {
+                sortByKey(idx, key, lo, j);
+                lo = i;
+            } else {
+                sortByKey(idx, key, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            int v = idx[i];
+            double kv = key[v];
+            int j = i - 1;
+            while (j >= lo && key[idx[j]] > kv) {
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            idx[j + 1] = v;
+        }
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
@@ -0,0 +1,36 @@
+package com.gaiaorbittracker.orbittracker.service.kernel;
+
+/**
+ * Batch kernels for the per-sample inner loops of the propagation code.
+ *
+ * Every method works on primitive arrays of independent samples so that an
+ * implementation is free to evaluate several samples per instruction.
+ * Units: angles in degrees unless the parameter name says otherwise, proper motions in rad/yr, time in years.
+ */
+public interface PropagationKernel {
+
+    /** Short name used in logs and benchmark output ("scalar", "vector-256", ...). */
+    String name();
+
+    /**
+     * Linear proper-motion astrometry at epoch {@code t} for {@code n} samples sharing the same start position.
+     * ra = ra0 + pmra * t, dec = dec0 + pmdec * t (same model as OrbitalCalculator.calculateOrbitalMotion).
+     */
+    void linearAstrometry(double ra0Rad, double dec0Rad, double t,
+                          double[] pmraRadYr, double[] pmdecRadYr,
+                          double[] raDegOut, double[] decDegOut, int n);
+
+    /** Great-circle separation in arcseconds between a reference position and each sample position. */
+    void angularSeparationArcsec(double refRaDeg, double refDecDeg,
+                                 double[] raDeg, double[] decDeg,
+                                 double[] sepArcsecOut, int n);
+
+    /**
+     * Closest approach to the origin of straight-line tracks r(t) = r0 + v t, with t clamped to [tMin, tMax].
+     * Positions and velocities in any consistent units; writes the epoch and the minimum distance per sample.
+     */
+    void linearPerihelion(double[] x, double[] y, double[] z,
+                          double[] vx, double[] vy, double[] vz,
+                          double tMin, double tMax,
+                          double[] tOut, double[] dOut, int n);
+}
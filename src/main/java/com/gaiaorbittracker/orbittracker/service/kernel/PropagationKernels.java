@@ -0,0 +1,38 @@
+package com.gaiaorbittracker.orbittracker.service.kernel;
+
+import java.util.Optional;
+
+/**
+ * Picks the fastest {@link PropagationKernel} available in this JVM.
+ *
+ * The vector kernel is used only when it was compiled in (Maven profile {@code simd}) and the JVM was started
+ * with {@code --add-modules jdk.incubator.vector}; otherwise the scalar kernel is returned.
+ * Set {@code -Dorbit.kernel=scalar} to force the scalar kernel.
+ */
+public final class PropagationKernels {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL = "com.gaiaorbittracker.orbittracker.service.kernel.VectorPropagationKernel";
+
+    private PropagationKernels() {}
+
+    public static PropagationKernel select() {
+        if ("scalar".equalsIgnoreCase(System.getProperty("orbit.kernel"))) {
+            return new ScalarPropagationKernel();
+        }
+        return vector().orElseGet(ScalarPropagationKernel::new);
+    }
+
+    /** The vector kernel, if both the module and the compiled class are present. */
+    public static Optional<PropagationKernel> vector() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of((PropagationKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance());
+        } catch (Throwable t) {
+            // class not compiled in, or the incubator API changed shape under us
+            return Optional.empty();
+        }
+    }
+}
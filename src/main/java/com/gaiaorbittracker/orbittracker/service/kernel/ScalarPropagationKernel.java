@@ -0,0 +1,56 @@
+package com.gaiaorbittracker.orbittracker.service.kernel;
+
+/**
+ * Plain Java implementation of {@link PropagationKernel}. Always available and used as the fallback
+ * when the incubating Vector API module is not present at runtime.
+ */
+public class ScalarPropagationKernel implements PropagationKernel {
+
+    static final double RAD_TO_DEG = 180.0 / Math.PI;
+    static final double DEG_TO_RAD = Math.PI / 180.0;
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void linearAstrometry(double ra0Rad, double dec0Rad, double t,
+                                 double[] pmraRadYr, double[] pmdecRadYr,
+                                 double[] raDegOut, double[] decDegOut, int n) {
+        for (int i = 0; i < n; i++) {
+            raDegOut[i] = (ra0Rad + pmraRadYr[i] * t) * RAD_TO_DEG;
+            decDegOut[i] = (dec0Rad + pmdecRadYr[i] * t) * RAD_TO_DEG;
+        }
+    }
+
+    @Override
+    public void angularSeparationArcsec(double refRaDeg, double refDecDeg,
+                                        double[] raDeg, double[] decDeg,
+                                        double[] sepArcsecOut, int n) {
+        double ra1 = refRaDeg * DEG_TO_RAD;
+        double sinDec1 = Math.sin(refDecDeg * DEG_TO_RAD);
+        double cosDec1 = Math.cos(refDecDeg * DEG_TO_RAD);
+        for (int i = 0; i < n; i++) {
+            double dec2 = decDeg[i] * DEG_TO_RAD;
+            double cosSep = sinDec1 * Math.sin(dec2) + cosDec1 * Math.cos(dec2) * Math.cos(raDeg[i] * DEG_TO_RAD - ra1);
+            cosSep = Math.max(-1.0, Math.min(1.0, cosSep));
+            sepArcsecOut[i] = Math.acos(cosSep) * RAD_TO_DEG * 3600.0;
+        }
+    }
+
+    @Override
+    public void linearPerihelion(double[] x, double[] y, double[] z,
+                                 double[] vx, double[] vy, double[] vz,
+                                 double tMin, double tMax,
+                                 double[] tOut, double[] dOut, int n) {
+        for (int i = 0; i < n; i++) {
+            double vv = vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i];
+            double t = vv > 0 ? -(x[i] * vx[i] + y[i] * vy[i] + z[i] * vz[i]) / vv : 0.0;
+            t = Math.max(tMin, Math.min(tMax, t));
+            double px = x[i] + vx[i] * t, py = y[i] + vy[i] * t, pz = z[i] + vz[i] * t;
+            tOut[i] = t;
+            dOut[i] = Math.sqrt(px * px + py * py + pz * pz);
+        }
+    }
+}
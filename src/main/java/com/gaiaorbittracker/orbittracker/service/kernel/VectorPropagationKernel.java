@@ -0,0 +1,106 @@
+package com.gaiaorbittracker.orbittracker.service.kernel;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link PropagationKernel} backed by the incubating JDK Vector API.
+ *
+ * Only compiled with the {@code simd} Maven profile and only loaded by {@link PropagationKernels}
+ * when {@code jdk.incubator.vector} is resolved in the boot layer ({@code --add-modules jdk.incubator.vector}).
+ * Tails shorter than one vector are handled inline with the scalar kernel's arithmetic.
+ */
+public class VectorPropagationKernel implements PropagationKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final double RAD_TO_DEG = ScalarPropagationKernel.RAD_TO_DEG;
+    private static final double DEG_TO_RAD = ScalarPropagationKernel.DEG_TO_RAD;
+
+    @Override
+    public String name() {
+        return "vector-" + SPECIES.vectorBitSize();
+    }
+
+    @Override
+    public void linearAstrometry(double ra0Rad, double dec0Rad, double t,
+                                 double[] pmraRadYr, double[] pmdecRadYr,
+                                 double[] raDegOut, double[] decDegOut, int n) {
+        int upper = SPECIES.loopBound(n);
+        DoubleVector ra0 = DoubleVector.broadcast(SPECIES, ra0Rad);
+        DoubleVector dec0 = DoubleVector.broadcast(SPECIES, dec0Rad);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector pmra = DoubleVector.fromArray(SPECIES, pmraRadYr, i);
+            DoubleVector pmdec = DoubleVector.fromArray(SPECIES, pmdecRadYr, i);
+            // mul + add rather than fma keeps results bit-identical to the scalar kernel
+            pmra.mul(t).add(ra0).mul(RAD_TO_DEG).intoArray(raDegOut, i);
+            pmdec.mul(t).add(dec0).mul(RAD_TO_DEG).intoArray(decDegOut, i);
+        }
+        for (; i < n; i++) {
+            raDegOut[i] = (ra0Rad + pmraRadYr[i] * t) * RAD_TO_DEG;
+            decDegOut[i] = (dec0Rad + pmdecRadYr[i] * t) * RAD_TO_DEG;
+        }
+    }
+
+    @Override
+    public void angularSeparationArcsec(double refRaDeg, double refDecDeg,
+                                        double[] raDeg, double[] decDeg,
+                                        double[] sepArcsecOut, int n) {
+        int upper = SPECIES.loopBound(n);
+        double ra1 = refRaDeg * DEG_TO_RAD;
+        double sinDec1 = Math.sin(refDecDeg * DEG_TO_RAD);
+        double cosDec1 = Math.cos(refDecDeg * DEG_TO_RAD);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector dec2 = DoubleVector.fromArray(SPECIES, decDeg, i).mul(DEG_TO_RAD);
+            DoubleVector dRa = DoubleVector.fromArray(SPECIES, raDeg, i).mul(DEG_TO_RAD).sub(ra1);
+            DoubleVector cosSep = dec2.lanewise(VectorOperators.COS).mul(cosDec1)
+                .mul(dRa.lanewise(VectorOperators.COS))
+                .add(dec2.lanewise(VectorOperators.SIN).mul(sinDec1))
+                .max(-1.0).min(1.0);
+            cosSep.lanewise(VectorOperators.ACOS).mul(RAD_TO_DEG * 3600.0).intoArray(sepArcsecOut, i);
+        }
+        for (; i < n; i++) {
+            double dec2 = decDeg[i] * DEG_TO_RAD;
+            double cosSep = sinDec1 * Math.sin(dec2) + cosDec1 * Math.cos(dec2) * Math.cos(raDeg[i] * DEG_TO_RAD - ra1);
+            cosSep = Math.max(-1.0, Math.min(1.0, cosSep));
+            sepArcsecOut[i] = Math.acos(cosSep) * RAD_TO_DEG * 3600.0;
+        }
+    }
+
+    @Override
+    public void linearPerihelion(double[] x, double[] y, double[] z,
+                                 double[] vx, double[] vy, double[] vz,
+                                 double tMin, double tMax,
+                                 double[] tOut, double[] dOut, int n) {
+        int upper = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector px = DoubleVector.fromArray(SPECIES, x, i);
+            DoubleVector py = DoubleVector.fromArray(SPECIES, y, i);
+            DoubleVector pz = DoubleVector.fromArray(SPECIES, z, i);
+            DoubleVector qx = DoubleVector.fromArray(SPECIES, vx, i);
+            DoubleVector qy = DoubleVector.fromArray(SPECIES, vy, i);
+            DoubleVector qz = DoubleVector.fromArray(SPECIES, vz, i);
+            DoubleVector vv = qx.mul(qx).add(qy.mul(qy)).add(qz.mul(qz));
+            DoubleVector rv = px.mul(qx).add(py.mul(qy)).add(pz.mul(qz));
+            VectorMask<Double> moving = vv.compare(VectorOperators.GT, 0.0);
+            DoubleVector t = rv.neg().div(vv).blend(0.0, moving.not()).max(tMin).min(tMax);
+            px = qx.mul(t).add(px);
+            py = qy.mul(t).add(py);
+            pz = qz.mul(t).add(pz);
+            t.intoArray(tOut, i);
+            px.mul(px).add(py.mul(py)).add(pz.mul(pz)).sqrt().intoArray(dOut, i);
+        }
+        for (; i < n; i++) {
+            double vv = vx[i] * vx[i] + vy[i] * vy[i] + vz[i] * vz[i];
+            double t = vv > 0 ? -(x[i] * vx[i] + y[i] * vy[i] + z[i] * vz[i]) / vv : 0.0;
+            t = Math.max(tMin, Math.min(tMax, t));
+            double px = x[i] + vx[i] * t, py = y[i] + vy[i] * t, pz = z[i] + vz[i] * t;
+            tOut[i] = t;
+            dOut[i] = Math.sqrt(px * px + py * py + pz * pz);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import java.util.Map;
+
+/**
+ * Keplerian orbit of the primary of a binary, driven by the catalogued elements of the relative orbit
+ * (period, e, i, omega, epoch of periastron) that FallbackStarService puts in a star-data map.
+ *
+ * The geometry is folded into Thiele-Innes constants at construction, so evaluating an epoch is one Kepler solve
+ * plus a handful of multiplies. Outputs are primitives: offset in RA*cos(Dec) and Dec (mas) relative to the
+ * system barycentre, and the line-of-sight displacement (AU, positive away from the observer).
+ *
+ * The catalogue carries no semi-major axis, so the relative orbit size comes from Kepler's third law with an
+ * assumed system mass, and the primary's reflex orbit assumes equal component masses. The catalogued omega is
+ * the secondary's; the primary sits opposite it, at omega + 180 degrees. The longitude of the ascending node is not
+ * catalogued either and defaults to 0.
+ */
+public final class BinaryOrbitEngine {
+
+    /** Epoch (Julian year) that t = 0 of a prediction corresponds to: Gaia DR3 reference epoch. */
+    public static final double REFERENCE_EPOCH = 2016.0;
+    public static final double DEFAULT_SYSTEM_MASS_MSUN = 2.0;
+    public static final double DEFAULT_PRIMARY_REFLEX_FRACTION = 0.5;
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+
+    private final double period;
+    private final double epochOfPeriastron;
+    private final double meanMotion; // rad/yr
+    private final double sqrtOneMinusE2;
+    private final KeplerSolver solver;
+
+    // Thiele-Innes constants: A, B, F, G in mas; C, H in AU
+    private final double tiA, tiB, tiF, tiG, tiC, tiH;
+
+    public BinaryOrbitEngine(double periodYears, double eccentricity, double inclinationDeg,
+                             double argumentOfPeriastronDeg, double longitudeOfNodeDeg, double epochOfPeriastron,
+                             double semiMajorAxisAu, double distancePc) {
+        if (!(periodYears > 0)) throw new IllegalArgumentException("Orbital period must be positive: " + periodYears);
+        if (!(distancePc > 0)) throw new IllegalArgumentException("Distance must be positive: " + distancePc);
+        this.period = periodYears;
+        this.epochOfPeriastron = epochOfPeriastron;
+        this.meanMotion = TWO_PI / periodYears;
+        this.sqrtOneMinusE2 = Math.sqrt(1.0 - eccentricity * eccentricity);
+        this.solver = new KeplerSolver(eccentricity);
+
+        double i = Math.toRadians(inclinationDeg);
+        double w = Math.toRadians(argumentOfPeriastronDeg);
+        double node = Math.toRadians(longitudeOfNodeDeg);
+        double cosW = Math.cos(w), sinW = Math.sin(w);
+        double cosN = Math.cos(node), sinN = Math.sin(node);
+        double cosI = Math.cos(i), sinI = Math.sin(i);
+
+        double aMas = semiMajorAxisAu / distancePc * 1000.0; // 1 AU at 1 pc subtends 1 arcsec
+        this.tiA = aMas * (cosW * cosN - sinW * sinN * cosI);
+        this.tiB = aMas * (cosW * sinN + sinW * cosN * cosI);
+        this.tiF = aMas * (-sinW * cosN - cosW * sinN * cosI);
+        this.tiG = aMas * (-sinW * sinN + cosW * cosN * cosI);
+        this.tiC = semiMajorAxisAu * sinW * sinI;
+        this.tiH = semiMajorAxisAu * cosW * sinI;
+    }
+
+    /**
+     * Engine from the orbital keys FallbackStarService puts in a star-data map
+     * (orbitalPeriod, eccentricity, inclination, argumentOfPeriastron, epochOfPeriastron).
+     */
+    public static BinaryOrbitEngine fromStarData(Map<String, Object> starData, double distancePc) {
+        return fromElements(number(starData, "orbitalPeriod"), number(starData, "eccentricity"),
+            number(starData, "inclination"), number(starData, "argumentOfPeriastron"),
+            number(starData, "epochOfPeriastron"), distancePc);
+    }
+
+    private static BinaryOrbitEngine fromElements(double period, double e, double inclination, double omega,
+                                                  double epochOfPeriastron, double distancePc) {
+        double relativeAu = Math.cbrt(DEFAULT_SYSTEM_MASS_MSUN * period * period);
+        // the primary's reflex orbit: same shape, periastron on the other side of the barycentre
+        return new BinaryOrbitEngine(period, e, inclination, omega + 180.0, 0.0, epochOfPeriastron,
+            relativeAu * DEFAULT_PRIMARY_REFLEX_FRACTION, distancePc);
+    }
+
+    private static double number(Map<String, Object> m, String key) {
+        Object v = m.get(key);
+        return v instanceof Number ? ((Number) v).doubleValue() : 0.0;
+    }
+
+    public double getPeriod() { return period; }
+
+    /**
+     * Evaluate one epoch, {@code t} years after {@link #REFERENCE_EPOCH}.
+     * out[0] = delta RA*cos(Dec) (mas), out[1] = delta Dec (mas), out[2] = line-of-sight displacement (AU).
+     */
+    public void evaluate(double t, double[] out) {
+        double m = meanMotion * (REFERENCE_EPOCH + t - epochOfPeriastron);
+        solver.solve(m, out); // sin E, cos E land in out[0..1] and are read before being overwritten
+        double x = out[1] - solver.getEccentricity();
+        double y = sqrtOneMinusE2 * out[0];
+        out[0] = tiB * x + tiG * y;
+        out[1] = tiA * x + tiF * y;
+        out[2] = tiC * x + tiH * y;
+    }
+
+    /**
+     * Batch evaluation over {@code n} epochs into caller-owned arrays; no allocation per epoch.
+     */
+    public void evaluate(double[] t, double[] dRaMas, double[] dDecMas, double[] dzAu, int n) {
+        double[] sc = new double[2];
+        for (int k = 0; k < n; k++) {
+            double m = meanMotion * (REFERENCE_EPOCH + t[k] - epochOfPeriastron);
+            solver.solve(m, sc);
+            double x = sc[1] - solver.getEccentricity();
+            double y = sqrtOneMinusE2 * sc[0];
+            dDecMas[k] = tiA * x + tiF * y;
+            dRaMas[k] = tiB * x + tiG * y;
+            dzAu[k] = tiC * x + tiH * y;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * {@link GalacticPotential} forces tabulated once on a cylindrical (R, |z|) grid and bilinearly interpolated.
+ *
+ * The tables are built in the constructor and never written afterwards, so the singleton is shared freely
+ * between threads. Points outside the grid fall back to the analytic model.
+ */
+@Component
+public class GalacticForceGrid {
+
+    public static final double R_MAX = 40.0; // kpc
+    public static final double Z_MAX = 10.0; // kpc
+    private static final int NR = 801;       // 0.05 kpc spacing
+    private static final int NZ = 401;       // 0.025 kpc spacing
+
+    private final double invDr = (NR - 1) / R_MAX;
+    private final double invDz = (NZ - 1) / Z_MAX;
+    // row-major [iz * NR + iR]
+    private final double[] forceR = new double[NR * NZ];
+    private final double[] forceZ = new double[NR * NZ];
+
+    public GalacticForceGrid() {
+        long start = System.nanoTime();
+        double[] f = new double[2];
+        for (int iz = 0; iz < NZ; iz++) {
+            double z = iz / invDz;
+            for (int ir = 0; ir < NR; ir++) {
+                GalacticPotential.force(ir / invDr, z, f);
+                forceR[iz * NR + ir] = f[0];
+                forceZ[iz * NR + ir] = f[1];
+            }
+        }
+        System.out.println(String.format("Galactic force grid %dx%d built in %.1f ms",
+            NR, NZ, (System.nanoTime() - start) / 1e6));
+    }
+
+    /**
+     * Cartesian acceleration (kpc/Myr^2) at galactocentric (x, y, z) kpc, written to out[0..2].
+     */
+    public void acceleration(double x, double y, double z, double[] out) {
+        double r = Math.sqrt(x * x + y * y);
+        double az = Math.abs(z);
+        double aR, aZ;
+        if (r >= R_MAX || az >= Z_MAX) {
+            double[] f = new double[2];
+            GalacticPotential.force(r, z, f);
+            aR = f[0];
+            aZ = f[1];
+        } else {
+            double fr = r * invDr;
+            double fz = az * invDz;
+            int ir = (int) fr;
+            int iz = (int) fz;
+            double wr = fr - ir;
+            double wz = fz - iz;
+            int i00 = iz * NR + ir;
+            int i10 = i00 + NR;
+            double w00 = (1 - wr) * (1 - wz), w01 = wr * (1 - wz), w10 = (1 - wr) * wz, w11 = wr * wz;
+            aR = forceR[i00] * w00 + forceR[i00 + 1] * w01 + forceR[i10] * w10 + forceR[i10 + 1] * w11;
+            aZ = forceZ[i00] * w00 + forceZ[i00 + 1] * w01 + forceZ[i10] * w10 + forceZ[i10 + 1] * w11;
+            if (z < 0) aZ = -aZ; // potential is symmetric in z
+        }
+        if (r > 0) {
+            out[0] = aR * x / r;
+            out[1] = aR * y / r;
+        } else {
+            out[0] = 0.0;
+            out[1] = 0.0;
+        }
+        out[2] = aZ;
+    }
+}
@@ -0,0 +1,103 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+/**
+ * Conversions between heliocentric ICRS astrometry and the galactocentric Cartesian frame used by
+ * {@link GalacticOrbitIntegrator}.
+ *
+ * Galactocentric frame: x from the Sun towards the Galactic centre, y along Galactic rotation, z to the NGP;
+ * the Sun sits at (-R0, 0, z0). Units: kpc and kpc/Myr.
+ */
+public final class GalacticFrame {
+
+    public static final double KM_S_TO_KPC_MYR = 1.0227121650537077e-3;
+    /** km/s per (mas/yr * kpc). */
+    public static final double K_PM = 4.740470463533348;
+
+    public static final double SUN_R0_KPC = 8.122;
+    public static final double SUN_Z0_KPC = 0.0208;
+    /** Solar motion (U, V + v_c, W) in km/s. */
+    public static final double SUN_U = 11.1, SUN_V = 245.6, SUN_W = 7.25;
+
+    // ICRS -> Galactic rotation (rows are the Galactic axes expressed in ICRS)
+    private static final double[][] T = {
+        {-0.0548755604162154, -0.8734370902348850, -0.4838350155487132},
+        { 0.4941094278755837, -0.4448296299600112,  0.7469822444972189},
+        {-0.8676661490190047, -0.1980763734312015,  0.4559837761750669}
+    };
+
+    private GalacticFrame() {}
+
+    /** Galactocentric state of the Sun: {x, y, z, vx, vy, vz}. */
+    public static double[] sunState() {
+        return new double[]{
+            -SUN_R0_KPC, 0.0, SUN_Z0_KPC,
+            SUN_U * KM_S_TO_KPC_MYR, SUN_V * KM_S_TO_KPC_MYR, SUN_W * KM_S_TO_KPC_MYR
+        };
+    }
+
+    /**
+     * Galactocentric state {x, y, z, vx, vy, vz} of a star from ICRS astrometry.
+     * ra/dec in degrees, parallax in mas, proper motions in mas/yr (pmra includes cos dec), rv in km/s.
+     */
+    public static double[] toGalactocentric(double raDeg, double decDeg, double parallaxMas,
+                                            double pmraMasYr, double pmdecMasYr, double rvKmS) {
+        double ra = Math.toRadians(raDeg), dec = Math.toRadians(decDeg);
+        double d = 1.0 / parallaxMas; // kpc
+        double cosRa = Math.cos(ra), sinRa = Math.sin(ra), cosDec = Math.cos(dec), sinDec = Math.sin(dec);
+        double[] rHat = {cosDec * cosRa, cosDec * sinRa, sinDec};
+        double[] eRa = {-sinRa, cosRa, 0.0};
+        double[] eDec = {-sinDec * cosRa, -sinDec * sinRa, cosDec};
+        double vRa = K_PM * pmraMasYr * d, vDec = K_PM * pmdecMasYr * d; // km/s
+        double[] pos = new double[3], vel = new double[3];
+        for (int k = 0; k < 3; k++) {
+            pos[k] = d * rHat[k];
+            vel[k] = (vRa * eRa[k] + vDec * eDec[k] + rvKmS * rHat[k]) * KM_S_TO_KPC_MYR;
+        }
+        double[] pg = rotate(T, pos), vg = rotate(T, vel);
+        double[] sun = sunState();
+        return new double[]{
+            pg[0] + sun[0], pg[1] + sun[1], pg[2] + sun[2],
+            vg[0] + sun[3], vg[1] + sun[4], vg[2] + sun[5]
+        };
+    }
+
+    /**
+     * Heliocentric observables of a star given galactocentric star and Sun states.
+     * out = {raDeg, decDeg, distanceKpc, radialVelocityKmS, tangentialVelocityKmS}.
+     */
+    public static void toObservables(double[] star, int starOffset, double[] sun, int sunOffset, double[] out) {
+        double[] relG = new double[3], velG = new double[3];
+        for (int k = 0; k < 3; k++) {
+            relG[k] = star[starOffset + k] - sun[sunOffset + k];
+            velG[k] = star[starOffset + 3 + k] - sun[sunOffset + 3 + k];
+        }
+        double[] p = rotateTransposed(T, relG), v = rotateTransposed(T, velG);
+        double d = Math.sqrt(p[0] * p[0] + p[1] * p[1] + p[2] * p[2]);
+        double ra = Math.toDegrees(Math.atan2(p[1], p[0]));
+        if (ra < 0) ra += 360.0;
+        double dec = Math.toDegrees(Math.asin(p[2] / d));
+        double vr = (v[0] * p[0] + v[1] * p[1] + v[2] * p[2]) / d;
+        double v2 = v[0] * v[0] + v[1] * v[1] + v[2] * v[2];
+        out[0] = ra;
+        out[1] = dec;
+        out[2] = d;
+        out[3] = vr / KM_S_TO_KPC_MYR;
+        out[4] = Math.sqrt(Math.max(0.0, v2 - vr * vr)) / KM_S_TO_KPC_MYR;
+    }
+
+    private static double[] rotate(double[][] m, double[] v) {
+        return new double[]{
+            m[0][0] * v[0] + m[0][1] * v[1] + m[0][2] * v[2],
+            m[1][0] * v[0] + m[1][1] * v[1] + m[1][2] * v[2],
+            m[2][0] * v[0] + m[2][1] * v[1] + m[2][2] * v[2]
+        };
+    }
+
+    private static double[] rotateTransposed(double[][] m, double[] v) {
+        return new double[]{
+            m[0][0] * v[0] + m[1][0] * v[1] + m[2][0] * v[2],
+            m[0][1] * v[0] + m[1][1] * v[1] + m[2][1] * v[2],
+            m[0][2] * v[0] + m[1][2] * v[1] + m[2][2] * v[2]
+        };
+    }
+}
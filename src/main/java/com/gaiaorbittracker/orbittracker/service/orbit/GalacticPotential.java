@@ -0,0 +1,78 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+/**
+ * Axisymmetric three-component Milky Way model: Hernquist bulge, Miyamoto-Nagai disk and NFW halo.
+ * Parameters follow the usual MWPotential2014-style fits (v_c(R0) ~ 224 km/s).
+ *
+ * Units: kpc, Myr, Msun. Forces are accelerations in kpc/Myr^2.
+ * This is the analytic reference; hot loops go through {@link GalacticForceGrid}.
+ */
+public final class GalacticPotential {
+
+    /** Gravitational constant in kpc^3 / (Msun Myr^2). */
+    public static final double G_KPC3_MSUN_MYR2 = 4.498502151469554e-12;
+
+    public static final double BULGE_MASS = 0.9e10;
+    public static final double BULGE_SCALE = 0.6;
+    public static final double DISK_MASS = 6.8e10;
+    public static final double DISK_SCALE_LENGTH = 3.0;
+    public static final double DISK_SCALE_HEIGHT = 0.28;
+    /** NFW 4 pi rho0 rs^3. */
+    public static final double HALO_SCALE_MASS = 4.4e11;
+    public static final double HALO_SCALE_RADIUS = 16.0;
+
+    private GalacticPotential() {}
+
+    /**
+     * Cylindrical force components at (R, z). {@code out[0]} = a_R, {@code out[1]} = a_z.
+     */
+    public static void force(double r, double z, double[] out) {
+        double gm;
+
+        // Miyamoto-Nagai disk
+        double zeta = Math.sqrt(z * z + DISK_SCALE_HEIGHT * DISK_SCALE_HEIGHT);
+        double az = DISK_SCALE_LENGTH + zeta;
+        double d2 = r * r + az * az;
+        double d3 = d2 * Math.sqrt(d2);
+        gm = G_KPC3_MSUN_MYR2 * DISK_MASS;
+        double aR = -gm * r / d3;
+        double aZ = -gm * z * az / (zeta * d3);
+
+        double sph = Math.sqrt(r * r + z * z);
+        if (sph > 0) {
+            // Hernquist bulge: a_r = -GM / (r + a)^2
+            double rb = sph + BULGE_SCALE;
+            double ar = -G_KPC3_MSUN_MYR2 * BULGE_MASS / (rb * rb);
+
+            // NFW halo: a_r = -G Ms [ln(1+x) - x/(1+x)] / r^2
+            double x = sph / HALO_SCALE_RADIUS;
+            double enclosed = Math.log1p(x) - x / (1.0 + x);
+            ar -= G_KPC3_MSUN_MYR2 * HALO_SCALE_MASS * enclosed / (sph * sph);
+
+            aR += ar * r / sph;
+            aZ += ar * z / sph;
+        }
+        out[0] = aR;
+        out[1] = aZ;
+    }
+
+    /** Potential at (R, z) in kpc^2/Myr^2, the one {@link #force} is the gradient of; for energy checks. */
+    public static double potential(double r, double z) {
+        double zeta = Math.sqrt(z * z + DISK_SCALE_HEIGHT * DISK_SCALE_HEIGHT);
+        double az = DISK_SCALE_LENGTH + zeta;
+        double phi = -G_KPC3_MSUN_MYR2 * DISK_MASS / Math.sqrt(r * r + az * az);
+        double sph = Math.sqrt(r * r + z * z);
+        phi -= G_KPC3_MSUN_MYR2 * BULGE_MASS / (sph + BULGE_SCALE);
+        phi -= sph > 0
+            ? G_KPC3_MSUN_MYR2 * HALO_SCALE_MASS * Math.log1p(sph / HALO_SCALE_RADIUS) / sph
+            : G_KPC3_MSUN_MYR2 * HALO_SCALE_MASS / HALO_SCALE_RADIUS;
+        return phi;
+    }
+
+    /** Circular speed in the plane (kpc/Myr), handy for sanity checks. */
+    public static double circularSpeed(double r) {
+        double[] f = new double[2];
+        force(r, 0.0, f);
+        return Math.sqrt(-f[0] * r);
+    }
+}
@@ -0,0 +1,93 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+/**
+ * Solver for Kepler's equation E - e sin E = M at a fixed eccentricity (0 <= e < 1).
+ *
+ * A starter table of E(M) over one period is built once per eccentricity; each solve interpolates the
+ * table and then applies Halley steps. sin E and cos E are carried through the last step by rotation
+ * instead of being re-evaluated, so a typical solve costs one sin/cos pair.
+ * Instances are immutable and safe to share between threads.
+ */
+public final class KeplerSolver {
+
+    private static final double TWO_PI = 2.0 * Math.PI;
+    private static final int TABLE_SIZE = 256;
+    private static final int MAX_HALLEY = 8;
+    /** Halley is cubic: once a step is this small the remaining error is below double precision. */
+    private static final double FINAL_STEP = 1e-6;
+
+    private final double eccentricity;
+    private final double[] starter = new double[TABLE_SIZE + 1];
+    private final double tableScale = TABLE_SIZE / TWO_PI;
+
+    public KeplerSolver(double eccentricity) {
+        if (!(eccentricity >= 0.0 && eccentricity < 1.0)) {
+            throw new IllegalArgumentException("Eccentricity must be in [0, 1): " + eccentricity);
+        }
+        this.eccentricity = eccentricity;
+        for (int k = 0; k <= TABLE_SIZE; k++) {
+            starter[k] = solveSlow(k / tableScale);
+        }
+    }
+
+    public double getEccentricity() { return eccentricity; }
+
+    /** Eccentric anomaly in [0, 2pi) for any mean anomaly (radians). */
+    public double solve(double meanAnomaly) {
+        return solve(meanAnomaly, null);
+    }
+
+    /**
+     * Eccentric anomaly in [0, 2pi). When {@code sinCosOut} is given it receives {sin E, cos E}.
+     */
+    public double solve(double meanAnomaly, double[] sinCosOut) {
+        double m = meanAnomaly % TWO_PI;
+        if (m < 0) m += TWO_PI;
+
+        double x = m * tableScale;
+        int k = Math.min((int) x, TABLE_SIZE - 1);
+        double w = x - k;
+        double e = starter[k] + w * (starter[k + 1] - starter[k]);
+
+        double s = Math.sin(e);
+        double c = Math.cos(e);
+        for (int iter = 0; iter < MAX_HALLEY; iter++) {
+            double f = e - eccentricity * s - m;
+            double fp = 1.0 - eccentricity * c;
+            double fpp = eccentricity * s;
+            double d = f / (fp - 0.5 * f * fpp / fp);
+            e -= d;
+            if (Math.abs(d) < FINAL_STEP) {
+                // rotate (s, c) by -d with a Taylor expansion good to O(d^4)
+                double cd = 1.0 - 0.5 * d * d;
+                double sd = d - d * d * d / 6.0;
+                double s2 = s * cd - c * sd;
+                c = c * cd + s * sd;
+                s = s2;
+                break;
+            }
+            s = Math.sin(e);
+            c = Math.cos(e);
+        }
+        if (sinCosOut != null) {
+            sinCosOut[0] = s;
+            sinCosOut[1] = c;
+        }
+        return e;
+    }
+
+    /** Bracketed Newton used only to build the starter table. */
+    private double solveSlow(double m) {
+        double lo = 0.0, hi = TWO_PI;
+        double e = m;
+        for (int iter = 0; iter < 100; iter++) {
+            double f = e - eccentricity * Math.sin(e) - m;
+            if (f > 0) hi = e; else lo = e;
+            double next = e - f / (1.0 - eccentricity * Math.cos(e));
+            if (next <= lo || next >= hi) next = 0.5 * (lo + hi);
+            if (Math.abs(next - e) < 1e-15) return next;
+            e = next;
+        }
+        return e;
+    }
+}
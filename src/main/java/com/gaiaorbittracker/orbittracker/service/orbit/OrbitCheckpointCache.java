@@ -0,0 +1,145 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Checkpoints of fixed-step leapfrog chains (see {@link GalacticOrbitIntegrator#integrate(Chain, double, int,
+ * com.gaiaorbittracker.orbittracker.service.CancellationToken)}), one chain per initial state and signed step.
+ * A chain only ever grows, and a state on it depends on nothing but the start and the step, so any request for the
+ * same star and model resumes from the nearest checkpoint: a longer horizon integrates only the new segment, and
+ * another output grid over a covered span replays at most {@link #EVERY} steps per output without extending the
+ * chain. The Sun's chain is shared by every galactic prediction.
+ *
+ * LRU evicted by checkpoint bytes against {@code prediction.orbit.checkpoints.max-bytes}.
+ */
+@Component
+public class OrbitCheckpointCache {
+
+    /** Chain steps between checkpoints; resuming costs at most this many steps. */
+    public static final int EVERY = 64;
+
+    /** Checkpointed states of one chain: checkpoint k is the state after k * EVERY steps of {@link #dt}. */
+    public final class Chain {
+        private final double dt;
+        private double[] states;
+        private int count;
+
+        private Chain(double[] state0, double dt) {
+            this.dt = dt;
+            this.states = new double[6 * 16];
+            System.arraycopy(state0, 0, states, 0, 6);
+            this.count = 1;
+        }
+
+        public double getDt() {
+            return dt;
+        }
+
+        /** Index of the last checkpoint at or before chain step {@code step}. */
+        public synchronized int nearest(long step) {
+            return (int) Math.min(count - 1, step / EVERY);
+        }
+
+        public synchronized void read(int checkpoint, double[] into) {
+            System.arraycopy(states, checkpoint * 6, into, 0, 6);
+        }
+
+        /** Record the state after {@code checkpoint * EVERY} steps, unless it is known already. */
+        public void offer(int checkpoint, double[] state) {
+            synchronized (this) {
+                if (checkpoint != count) return; // another request got here first (same state) or a gap
+                if (states.length < (count + 1) * 6) states = Arrays.copyOf(states, states.length * 2);
+                System.arraycopy(state, 0, states, count * 6, 6);
+                count++;
+            }
+            grew(this, 6 * Double.BYTES);
+        }
+
+        synchronized int checkpoints() {
+            return count;
+        }
+    }
+
+    private static final class Key {
+        final long[] bits = new long[7];
+        final int hash;
+
+        Key(double[] state0, double dt) {
+            for (int k = 0; k < 6; k++) bits[k] = Double.doubleToLongBits(state0[k]);
+            bits[6] = Double.doubleToLongBits(dt);
+            hash = Arrays.hashCode(bits);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(bits, ((Key) o).bits);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Chain> chains = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Chain, Long> sizes = new IdentityHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private long bytes;
+
+    public OrbitCheckpointCache(@Value("${prediction.orbit.checkpoints.max-bytes:16777216}") long maxBytes,
+                                MeterRegistry registry) {
+        this.maxBytes = maxBytes;
+        this.hits = Counter.builder("prediction.orbit.checkpoints.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("prediction.orbit.checkpoints.requests").tag("result", "miss").register(registry);
+        Gauge.builder("prediction.orbit.checkpoints.bytes", this, OrbitCheckpointCache::sizeBytes).register(registry);
+    }
+
+    /** The chain from {@code state0} with step {@code dt} (negative integrates backwards), created if needed. */
+    public Chain chain(double[] state0, double dt) {
+        Key key = new Key(state0, dt);
+        synchronized (this) {
+            Chain c = chains.get(key);
+            if (c != null) {
+                hits.increment();
+                return c;
+            }
+            misses.increment();
+            c = new Chain(state0, dt);
+            if (maxBytes > 0) {
+                chains.put(key, c);
+                sizes.put(c, 0L);
+            }
+            return c; // with the cache off, a private chain that lives for one request
+        }
+    }
+
+    public synchronized long sizeBytes() {
+        return bytes;
+    }
+
+    private synchronized void grew(Chain chain, long added) {
+        Long size = sizes.get(chain);
+        if (size == null) return; // evicted or never cached
+        sizes.put(chain, size + added);
+        bytes += added;
+        // a chain evicted while being extended carries on as a private one
+        Iterator<Map.Entry<Key, Chain>> it = chains.entrySet().iterator();
+        while (bytes > maxBytes && it.hasNext()) {
+            Chain oldest = it.next().getValue();
+            it.remove();
+            bytes -= sizes.remove(oldest);
+        }
+    }
+}
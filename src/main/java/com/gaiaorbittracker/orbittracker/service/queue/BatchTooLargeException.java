@@ -0,0 +1,16 @@
+package com.gaiaorbittracker.orbittracker.service.queue;
+
+/** Thrown when a submission needs more queue slots than its priority can ever get; controllers map it to 413. */
+public class BatchTooLargeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int maxBatchSize;
+
+    public BatchTooLargeException(String message, int maxBatchSize) {
+        super(message);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public int getMaxBatchSize() { return maxBatchSize; }
+}
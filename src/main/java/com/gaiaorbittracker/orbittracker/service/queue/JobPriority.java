@@ -0,0 +1,7 @@
+package com.gaiaorbittracker.orbittracker.service.queue;
+
+/** Scheduling class of a queued job. Interactive jobs are served first; bulk jobs get a guaranteed share. */
+public enum JobPriority {
+    INTERACTIVE,
+    BULK
+}
@@ -0,0 +1,235 @@
+package com.gaiaorbittracker.orbittracker.service.queue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded admission queue in front of the prediction pipeline.
+ *
+ * Two priority classes: interactive jobs are dispatched first, but every {@code BULK_SHARE}-th dispatch goes to bulk
+ * work when both are waiting, so a batch cannot be starved forever. Inside a class, clients (X-Client-Id) are served
+ * round-robin, one job per turn, so one client's 100k batch does not delay another client's jobs.
+ * Submissions beyond {@code prediction.queue.capacity} are rejected with {@link QueueFullException}. The last
+ * {@code prediction.queue.interactive-reserve} slots take interactive jobs only, so a full bulk backlog cannot lock
+ * out the UI. A submission larger than its class could ever hold fails with {@link BatchTooLargeException} instead.
+ */
+@Component
+public class JobQueue {
+
+    /** One bulk dispatch per this many dispatches while interactive work is waiting. */
+    static final int BULK_SHARE = 8;
+
+    /** A job waiting for dispatch. */
+    public static final class QueuedJob {
+        private final UUID jobId;
+        private final String clientId;
+        private final JobPriority priority;
+        private final long enqueuedNanos;
+
+        QueuedJob(UUID jobId, String clientId, JobPriority priority) {
+            this.jobId = jobId;
+            this.clientId = clientId;
+            this.priority = priority;
+            this.enqueuedNanos = System.nanoTime();
+        }
+
+        public UUID getJobId() { return jobId; }
+        public String getClientId() { return clientId; }
+        public JobPriority getPriority() { return priority; }
+    }
+
+    /** Per-class FIFO per client, plus the ring of clients that have work. */
+    private static final class ClassQueue {
+        final Map<String, ArrayDeque<QueuedJob>> byClient = new HashMap<>();
+        final ArrayDeque<String> ring = new ArrayDeque<>();
+        int size;
+
+        void add(QueuedJob job) {
+            ArrayDeque<QueuedJob> q = byClient.get(job.clientId);
+            if (q == null) {
+                q = new ArrayDeque<>();
+                byClient.put(job.clientId, q);
+                ring.addLast(job.clientId);
+            }
+            q.addLast(job);
+            size++;
+        }
+
+        QueuedJob poll() {
+            String client = ring.pollFirst();
+            if (client == null) return null;
+            ArrayDeque<QueuedJob> q = byClient.get(client);
+            QueuedJob job = q.pollFirst();
+            if (q.isEmpty()) byClient.remove(client);
+            else ring.addLast(client);
+            size--;
+            return job;
+        }
+    }
+
+    private final int capacity;
+    private final int interactiveReserve;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final EnumMap<JobPriority, ClassQueue> classes = new EnumMap<>(JobPriority.class);
+    private final EnumMap<JobPriority, Timer> waitTimers = new EnumMap<>(JobPriority.class);
+    private final EnumMap<JobPriority, Counter> rejected = new EnumMap<>(JobPriority.class);
+    private int size;
+    private int reserved;
+    private long dispatches;
+    private long lastDispatchNanos = System.nanoTime();
+    private double dispatchGapEwmaSeconds = 0.1;
+
+    public JobQueue(@Value("${prediction.queue.capacity:10000}") int capacity,
+                    @Value("${prediction.queue.interactive-reserve:0}") int interactiveReserve, MeterRegistry registry) {
+        this.capacity = capacity;
+        // 0 = a tenth of the queue; bulk always keeps at least one slot
+        int reserve = interactiveReserve > 0 ? interactiveReserve : capacity / 10;
+        this.interactiveReserve = Math.max(0, Math.min(reserve, capacity - 1));
+        for (JobPriority p : JobPriority.values()) {
+            classes.put(p, new ClassQueue());
+            String tag = p.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("prediction.queue.depth", this, q -> q.depth(p))
+                .description("Jobs waiting for dispatch").tag("priority", tag).register(registry);
+            waitTimers.put(p, Timer.builder("prediction.queue.wait")
+                .description("Time from submission to dispatch").tag("priority", tag).register(registry));
+            rejected.put(p, Counter.builder("prediction.queue.rejected")
+                .description("Submissions rejected because the queue was full").tag("priority", tag).register(registry));
+        }
+        Gauge.builder("prediction.queue.capacity", this, q -> q.capacity).register(registry);
+    }
+
+    /**
+     * Reserve room for {@code count} jobs before any work is persisted; fails with {@link QueueFullException}.
+     * Reserved slots count against capacity until consumed by {@link #offerReserved} or given back by {@link #release}.
+     */
+    public void reserve(int count, JobPriority priority) {
+        lock.lock();
+        try {
+            admit(count, priority);
+            reserved += count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(int count) {
+        lock.lock();
+        try {
+            reserved = Math.max(0, reserved - count);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Enqueue jobs whose room was taken by {@link #reserve}; never rejects. */
+    public void offerReserved(List<UUID> jobIds, String clientId, JobPriority priority) {
+        lock.lock();
+        try {
+            reserved = Math.max(0, reserved - jobIds.size());
+            add(jobIds, clientId, priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Admit all jobs or none. */
+    public void offerAll(List<UUID> jobIds, String clientId, JobPriority priority) {
+        lock.lock();
+        try {
+            admit(jobIds.size(), priority);
+            add(jobIds, clientId, priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void offer(UUID jobId, String clientId, JobPriority priority) {
+        offerAll(List.of(jobId), clientId, priority);
+    }
+
+    private void add(List<UUID> jobIds, String clientId, JobPriority priority) {
+        if (jobIds.isEmpty()) return;
+        ClassQueue q = classes.get(priority);
+        for (UUID id : jobIds) q.add(new QueuedJob(id, clientId, priority));
+        size += jobIds.size();
+        notEmpty.signalAll();
+    }
+
+    /** Next job by priority and client round-robin; blocks while the queue is empty. */
+    public QueuedJob take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) notEmpty.await();
+            ClassQueue interactive = classes.get(JobPriority.INTERACTIVE);
+            ClassQueue bulk = classes.get(JobPriority.BULK);
+            boolean bulkTurn = bulk.size > 0 && (interactive.size == 0 || dispatches % BULK_SHARE == BULK_SHARE - 1);
+            QueuedJob job = bulkTurn ? bulk.poll() : interactive.poll();
+            size--;
+            dispatches++;
+            long now = System.nanoTime();
+            // idle periods are capped so one quiet hour does not inflate Retry-After
+            dispatchGapEwmaSeconds = 0.9 * dispatchGapEwmaSeconds + 0.1 * Math.min(10.0, (now - lastDispatchNanos) / 1e9);
+            lastDispatchNanos = now;
+            waitTimers.get(job.priority).record(now - job.enqueuedNanos, TimeUnit.NANOSECONDS);
+            return job;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int depth(JobPriority priority) {
+        lock.lock();
+        try {
+            return classes.get(priority).size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getCapacity() { return capacity; }
+
+    /** Most jobs one submission of this priority can have admitted, on an empty queue. */
+    public int maxAdmission(JobPriority priority) {
+        return priority == JobPriority.INTERACTIVE ? capacity : capacity - interactiveReserve;
+    }
+
+    /** Lock held. */
+    private void admit(int count, JobPriority priority) {
+        int limit = maxAdmission(priority);
+        if (count > limit) {
+            rejected.get(priority).increment();
+            throw new BatchTooLargeException("Submission of " + count + " jobs exceeds the " + limit
+                + " the queue admits at once for " + priority.name().toLowerCase(Locale.ROOT) + " priority", limit);
+        }
+        if (size + reserved + count > limit) throw reject(count, priority);
+    }
+
+    /** Retry-After from the recent dispatch rate: time until {@code count} slots free up, 1 s to 5 min. Lock held. */
+    private QueueFullException reject(int count, JobPriority priority) {
+        rejected.get(priority).increment();
+        int limit = maxAdmission(priority);
+        int needed = Math.max(1, size + reserved + count - limit);
+        long seconds = (long) Math.ceil(Math.min(needed, limit) * dispatchGapEwmaSeconds);
+        seconds = Math.max(1, Math.min(300, seconds));
+        return new QueueFullException("Prediction queue full (" + size + "/" + capacity + " jobs waiting)", seconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.gaiaorbittracker.orbittracker.service.queue;
+
+/** Thrown when the job queue cannot admit a submission; controllers map it to 429 with Retry-After. */
+public class QueueFullException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public QueueFullException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
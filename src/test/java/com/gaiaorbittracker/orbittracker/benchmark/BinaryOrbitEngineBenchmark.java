@@ -0,0 +1,45 @@
+package com.gaiaorbittracker.orbittracker.benchmark;
+
+import com.gaiaorbittracker.orbittracker.service.orbit.BinaryOrbitEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Epoch throughput of the binary-orbit engine (Sirius-like elements and a high-eccentricity orbit).
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args=BinaryOrbitEngineBenchmark
+ * Score is batches per microsecond; multiply by epochs for epochs per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BinaryOrbitEngineBenchmark {
+
+    @Param({"0.59", "0.97"})
+    public double eccentricity;
+
+    @Param({"1000"})
+    public int epochs;
+
+    private BinaryOrbitEngine engine;
+    private double[] t, dRa, dDec, dz;
+
+    @Setup
+    public void setup() {
+        engine = new BinaryOrbitEngine(50.1, eccentricity, 136.5, 147.3, 44.6, 1994.57, 10.0, 2.64);
+        t = new double[epochs];
+        dRa = new double[epochs];
+        dDec = new double[epochs];
+        dz = new double[epochs];
+        for (int i = 0; i < epochs; i++) t[i] = i * 0.37;
+    }
+
+    @Benchmark
+    public double[] evaluateBatch() {
+        engine.evaluate(t, dRa, dDec, dz, epochs);
+        return dRa;
+    }
+}
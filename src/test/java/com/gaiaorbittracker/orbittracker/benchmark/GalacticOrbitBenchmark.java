@@ -0,0 +1,35 @@
+package com.gaiaorbittracker.orbittracker.benchmark;
+
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticForceGrid;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticFrame;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticOrbitIntegrator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for one 1 Gyr orbit (0.1 Myr leapfrog steps, 1000 output samples) in the tabulated potential.
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args=GalacticOrbitBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GalacticOrbitBenchmark {
+
+    private GalacticOrbitIntegrator integrator;
+    private double[] vega;
+
+    @Setup
+    public void setup() {
+        integrator = new GalacticOrbitIntegrator(new GalacticForceGrid());
+        vega = GalacticFrame.toGalactocentric(279.234734, 38.783689, 130.23, 200.94, 286.23, -13.9);
+    }
+
+    @Benchmark
+    public double[] gigayearOrbit() {
+        return integrator.integrate(vega, 1000.0, 1000);
+    }
+}
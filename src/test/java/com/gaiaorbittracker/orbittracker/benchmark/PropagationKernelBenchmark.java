@@ -0,0 +1,68 @@
+package com.gaiaorbittracker.orbittracker.benchmark;
+
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernel;
+import com.gaiaorbittracker.orbittracker.service.kernel.PropagationKernels;
+import com.gaiaorbittracker.orbittracker.service.kernel.ScalarPropagationKernel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scalar vs Vector API throughput of the propagation kernels.
+ *
+ * Run on the target host (AVX2 / AVX-512 Linux) with:
+ *   mvn -Psimd,jmh test-compile exec:exec -Djmh.args=PropagationKernelBenchmark
+ * Without the simd profile the "vector" parameter falls back to the scalar kernel, which the output makes visible.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropagationKernelBenchmark {
+
+    @Param({"scalar", "vector"})
+    public String kernelType;
+
+    @Param({"200", "4096"})
+    public int samples;
+
+    private PropagationKernel kernel;
+    private double[] pmra, pmdec, ra, dec, sep;
+
+    @Setup
+    public void setup() {
+        kernel = "vector".equals(kernelType)
+            ? PropagationKernels.vector().orElseGet(ScalarPropagationKernel::new)
+            : new ScalarPropagationKernel();
+        System.out.println("kernel=" + kernel.name());
+        Random random = new Random(42);
+        pmra = new double[samples];
+        pmdec = new double[samples];
+        ra = new double[samples];
+        dec = new double[samples];
+        sep = new double[samples];
+        double masToRad = Math.PI / (180.0 * 3600.0 * 1000.0);
+        for (int i = 0; i < samples; i++) {
+            pmra[i] = (-546.01 + random.nextGaussian() * 27.3) * masToRad;
+            pmdec[i] = (-1223.07 + random.nextGaussian() * 61.2) * masToRad;
+        }
+    }
+
+    @Benchmark
+    public double[] linearAstrometry() {
+        kernel.linearAstrometry(Math.toRadians(101.287155), Math.toRadians(-16.716116), 1000.0,
+            pmra, pmdec, ra, dec, samples);
+        return dec;
+    }
+
+    @Benchmark
+    public double[] linearWithSeparation() {
+        kernel.linearAstrometry(Math.toRadians(101.287155), Math.toRadians(-16.716116), 1000.0,
+            pmra, pmdec, ra, dec, samples);
+        kernel.angularSeparationArcsec(101.13, -17.06, ra, dec, sep, samples);
+        return sep;
+    }
+}
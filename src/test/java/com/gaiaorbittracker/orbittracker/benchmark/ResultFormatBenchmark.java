@@ -0,0 +1,90 @@
+package com.gaiaorbittracker.orbittracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.service.codec.ColumnarResultCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization time of one prediction response (trajectory plus uncertainty bands) as JSON, CBOR and columnar
+ * float64; payload sizes are printed at setup.
+ *   mvn -Pjmh test-compile exec:exec -Djmh.args=ResultFormatBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResultFormatBenchmark {
+
+    @Param({"10000"})
+    public int steps;
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final CBORMapper cbor = new CBORMapper();
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 20);
+    private PredictionResultDto result;
+
+    @Setup
+    public void setup() throws IOException {
+        List<Map<String, Object>> points = new ArrayList<>();
+        List<Map<String, Object>> raBands = new ArrayList<>();
+        List<Map<String, Object>> decBands = new ArrayList<>();
+        List<Map<String, Object>> sepBands = new ArrayList<>();
+        for (int i = 0; i <= steps; i++) {
+            double t = i * 0.01;
+            Map<String, Object> p = new HashMap<>();
+            p.put("time", t);
+            p.put("ra", 101.28715533 - 4.2e-5 * t);
+            p.put("dec", -16.71611586 - 3.4e-4 * t);
+            p.put("distanceLy", 8.6 - 1.8e-5 * t);
+            p.put("tangentialVelocityKmS", 16.74 + 1e-7 * t);
+            p.put("radialVelocityKmS", -5.5);
+            p.put("totalVelocityKmS", 17.62 + 1e-7 * t);
+            p.put("angularSeparationArcsec", 1.2 * t);
+            p.put("galacticLongitude", 281.29 - 4.2e-5 * t);
+            p.put("galacticLatitude", -16.71 - 3.4e-4 * t);
+            points.add(p);
+            raBands.add(Map.of("time", t, "p16", 101.28 - 1e-6 * t, "p50", 101.28, "p84", 101.28 + 1e-6 * t));
+            decBands.add(Map.of("time", t, "p16", -16.71 - 1e-6 * t, "p50", -16.71, "p84", -16.71 + 1e-6 * t));
+            sepBands.add(Map.of("time", t, "p16", 0.01 * t, "p50", 0.02 * t, "p84", 0.03 * t));
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("predictions", points);
+        data.put("uncertainty", Map.of("ra", raBands, "dec", decBands, "angularSeparationArcsec", sepBands,
+            "samples", 200));
+        data.put("timePeriodYears", steps * 0.01);
+        data.put("timeSteps", steps);
+        result = new PredictionResultDto("Orbital prediction for sirius", data);
+
+        System.out.printf("%n%d steps: JSON %d bytes, CBOR %d bytes, columnar %d bytes%n", steps,
+            json().length, cbor().length, columnar().length);
+    }
+
+    @Benchmark
+    public byte[] json() throws IOException {
+        return json.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] cbor() throws IOException {
+        return cbor.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] columnar() throws IOException {
+        out.reset();
+        ColumnarResultCodec.write(Map.of("summary", result.getSummary(), "data", result.getData()), out);
+        return out.toByteArray();
+    }
+}
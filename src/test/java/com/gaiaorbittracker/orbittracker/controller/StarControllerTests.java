@@ -0,0 +1,39 @@
+package com.gaiaorbittracker.orbittracker.controller;
+
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class StarControllerTests {
+
+    @Autowired
+    private StarController controller;
+
+    @Test
+    void unknownFieldIsABadRequest() {
+        StarInput input = new StarInput();
+        input.setRa(101.287155);
+        input.setDec(-16.716116);
+        input.setParallax(379.21);
+        input.setPmra(-546.01);
+        input.setPmdec(-1223.07);
+        input.setFields(List.of("ra", "warp"));
+
+        ResponseEntity<PredictionResultDto> response = controller.predictStarMotion(input, null, null);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Unknown field: warp", response.getBody().getData().get("error"));
+
+        // the query parameter is checked the same way when the body has no fields
+        input.setFields(null);
+        assertEquals(HttpStatus.BAD_REQUEST, controller.predictStarMotion(input, List.of("warp"), null).getStatusCode());
+    }
+}
@@ -0,0 +1,217 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.OrbitTrackerApplication;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import com.gaiaorbittracker.orbittracker.service.JobStatusWriter;
+import com.gaiaorbittracker.orbittracker.service.PredictionService;
+import com.gaiaorbittracker.orbittracker.service.queue.JobPriority;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredictionJobLeasesTests {
+
+    private JdbcTemplate jdbc;
+    private PredictionJobLeases leases;
+    private final Instant now = Instant.parse("2026-01-01T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:leases-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbc.execute("CREATE TABLE prediction_job (id UUID PRIMARY KEY, status VARCHAR(32), result_ref UUID, "
+            + "submitted_at TIMESTAMP(6) WITH TIME ZONE, client_id VARCHAR(255), priority VARCHAR(255), "
+            + "lease_owner VARCHAR(64), lease_expires_at TIMESTAMP(6) WITH TIME ZONE)");
+        leases = new PredictionJobLeases(jdbc);
+    }
+
+    @Test
+    void onlyOneNodeWinsAClaim() {
+        UUID job = insert("PENDING", null, null, now.minusSeconds(1));
+        List<Object[]> forA = leases.findClaimable("a", now, now.minusSeconds(5), 10);
+        List<Object[]> forB = leases.findClaimable("b", now, now.minusSeconds(5), 10);
+        assertEquals(job, forA.get(0)[0]);
+        assertEquals(job, forB.get(0)[0]);
+
+        assertTrue(leases.claim(job, "a", now.plusSeconds(30), now, now.minusSeconds(5)));
+        assertFalse(leases.claim(job, "b", now.plusSeconds(30), now, now.minusSeconds(5)));
+        assertFalse(leases.start(job, "b", now.plusSeconds(30)));
+        assertTrue(leases.start(job, "a", now.plusSeconds(30)));
+        assertEquals("RUNNING", status(job));
+    }
+
+    @Test
+    void expiredRunningJobStartsOverUnderNewOwner() {
+        UUID job = insert("RUNNING", "dead", now.minusSeconds(1), now.minusSeconds(60));
+        UUID live = insert("RUNNING", "alive", now.plusSeconds(10), now.minusSeconds(60));
+
+        List<Object[]> claimable = leases.findClaimable("b", now, now.minusSeconds(5), 10);
+        assertEquals(1, claimable.size());
+        assertTrue(leases.claim(job, "b", now.plusSeconds(30), now, now.minusSeconds(5)));
+        assertFalse(leases.claim(live, "b", now.plusSeconds(30), now, now.minusSeconds(5)));
+        assertEquals("PENDING", status(job));
+        assertTrue(leases.start(job, "b", now.plusSeconds(30)));
+    }
+
+    @Test
+    void idleNodeStealsOnlyLongWaitingPendingJobs() {
+        UUID waiting = insert("PENDING", "busy", now.plusSeconds(30), now.minusSeconds(10));
+        UUID fresh = insert("PENDING", "busy", now.plusSeconds(30), now.minusSeconds(1));
+
+        List<Object[]> claimable = leases.findClaimable("idle", now, now.minusSeconds(5), 10);
+        assertEquals(1, claimable.size());
+        assertEquals(waiting, claimable.get(0)[0]);
+        assertTrue(leases.findClaimable("busy", now, now.minusSeconds(5), 10).isEmpty());
+        assertTrue(leases.claim(waiting, "idle", now.plusSeconds(30), now, now.minusSeconds(5)));
+        // the node it was taken from must not start it any more
+        assertFalse(leases.start(waiting, "busy", now.plusSeconds(30)));
+        assertTrue(leases.start(fresh, "busy", now.plusSeconds(30)));
+    }
+
+    @Test
+    void renewReleaseAndCancelled() {
+        UUID a = insert("RUNNING", "a", now.plusSeconds(5), now);
+        UUID b = insert("CANCELLED", "a", now.plusSeconds(5), now);
+        assertEquals(1, leases.renew("a", now.plusSeconds(60)));
+        assertEquals(List.of(b), leases.findCancelled(List.of(a, b)));
+
+        assertEquals(1, leases.releaseAll("a"));
+        assertEquals("PENDING", status(a));
+        assertEquals(1, leases.findClaimable("b", now, now.minusSeconds(5), 10).size());
+    }
+
+    @Test
+    void jobsTakenOverOrReleasedAreNoLongerHeld() {
+        UUID kept = insert("PENDING", "a", now.plusSeconds(30), now.minusSeconds(10));
+        UUID stolen = insert("PENDING", "a", now.plusSeconds(30), now.minusSeconds(10));
+        UUID released = insert("RUNNING", "a", now.plusSeconds(30), now.minusSeconds(10));
+        assertTrue(leases.claim(stolen, "b", now.plusSeconds(30), now, now.minusSeconds(5)));
+        jdbc.update("UPDATE prediction_job SET lease_owner = NULL WHERE id = ?", released);
+
+        List<UUID> lost = leases.findNotHeldBy("a", List.of(kept, stolen, released));
+        assertEquals(List.of(stolen, released).stream().sorted().collect(Collectors.toList()),
+            lost.stream().sorted().collect(Collectors.toList()));
+        assertTrue(leases.findNotHeldBy("a", List.of()).isEmpty());
+    }
+
+    /**
+     * Two application contexts with their own node ids on one shared file database: the idle node takes over the
+     * backlog of the busy one, and a job whose node stopped renewing its lease is picked up and run.
+     */
+    @Test
+    void twoNodesSplitTheWorkAndReclaimExpiredLeases(@TempDir Path dir) throws Exception {
+        String url = "jdbc:h2:file:" + dir.resolve("orbitaldb") + ";AUTO_SERVER=TRUE";
+        try (ConfigurableApplicationContext a = node(url, "node-a"); ConfigurableApplicationContext b = node(url, "node-b")) {
+            JdbcTemplate shared = a.getBean(JdbcTemplate.class);
+            PredictionService submitter = a.getBean(PredictionService.class);
+            List<StarInput> inputs = new ArrayList<>();
+            for (int i = 0; i < 20; i++) inputs.add(star(1000.0 + i));
+            List<UUID> ids = submitter.submitBatch(inputs, "tests", JobPriority.BULK).getJobIds();
+
+            // a RUNNING job held by a node that died a while ago
+            PredictionJob orphan = new PredictionJob(UUID.randomUUID(), null, Instant.now().minusSeconds(60), "RUNNING",
+                new ObjectMapper().writeValueAsString(star(5000.0)));
+            orphan.setPriority(JobPriority.BULK.name());
+            orphan.setClientId("tests");
+            orphan.setLeaseOwner("node-crashed");
+            orphan.setLeaseExpiresAt(Instant.now().minusSeconds(30));
+            a.getBean(PredictionJobRepository.class).save(orphan);
+
+            List<UUID> all = new ArrayList<>(ids);
+            all.add(orphan.getId());
+            String in = all.stream().map(id -> "'" + id + "'").collect(Collectors.joining(", "));
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (System.currentTimeMillis() < deadline && shared.queryForObject(
+                    "SELECT COUNT(*) FROM prediction_job WHERE status <> 'DONE' AND id IN (" + in + ")", Integer.class) > 0) {
+                Thread.sleep(100);
+            }
+            a.getBean(JobStatusWriter.class).flush();
+            b.getBean(JobStatusWriter.class).flush();
+            // node-a submitted them all: the ones node-b took over must not read as PENDING there
+            for (UUID id : ids) {
+                String seen = submitter.getJob(id).orElseThrow().getStatus();
+                for (long wait = System.currentTimeMillis() + 5_000; !"DONE".equals(seen) && System.currentTimeMillis() < wait; ) {
+                    Thread.sleep(50);
+                    seen = submitter.getJob(id).orElseThrow().getStatus();
+                }
+                assertEquals("DONE", seen, "node-a's view of " + id);
+            }
+
+            Map<String, Integer> byNode = new HashMap<>();
+            for (Map<String, Object> row : shared.queryForList(
+                    "SELECT lease_owner, status FROM prediction_job WHERE id IN (" + in + ")")) {
+                assertEquals("DONE", row.get("status"));
+                byNode.merge((String) row.get("lease_owner"), 1, Integer::sum);
+            }
+            assertTrue(byNode.getOrDefault("node-a", 0) > 0, "busy node ran some jobs: " + byNode);
+            assertTrue(byNode.getOrDefault("node-b", 0) > 0, "idle node took some over: " + byNode);
+            assertEquals(all.size(), byNode.getOrDefault("node-a", 0) + byNode.getOrDefault("node-b", 0), byNode.toString());
+        }
+    }
+
+    private static ConfigurableApplicationContext node(String url, String nodeId) {
+        // as arguments: they override application.properties, unlike default properties
+        return new SpringApplicationBuilder(OrbitTrackerApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--spring.datasource.url=" + url,
+                "--prediction.node-id=" + nodeId,
+                "--prediction.pool.size=1",
+                "--prediction.compute.queue.capacity=1",
+                "--prediction.fetch.concurrency=2",
+                "--prediction.status.flush-ms=20",
+                "--prediction.lease.ttl-ms=3000",
+                "--prediction.lease.poll-ms=100",
+                "--prediction.lease.steal-after-ms=300");
+    }
+
+    /** Sirius by its astrometry; the span makes each input distinct, so nothing is deduplicated. */
+    private static StarInput star(double years) {
+        StarInput input = new StarInput();
+        input.setRa(101.287155);
+        input.setDec(-16.716116);
+        input.setParallax(379.21);
+        input.setPmra(-546.01);
+        input.setPmdec(-1223.07);
+        input.setRadialVelocity(-5.5);
+        input.setTimePeriodYears(years);
+        input.setTimeSteps(500);
+        return input;
+    }
+
+    private UUID insert(String status, String owner, Instant expires, Instant submitted) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO prediction_job (id, status, submitted_at, client_id, priority, lease_owner, lease_expires_at) "
+            + "VALUES (?, ?, ?, 'c', 'BULK', ?, ?)", id, status, ts(submitted), owner, expires == null ? null : ts(expires));
+        return id;
+    }
+
+    private String status(UUID id) {
+        return jdbc.queryForObject("SELECT status FROM prediction_job WHERE id = ?", String.class, id);
+    }
+
+    private static OffsetDateTime ts(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
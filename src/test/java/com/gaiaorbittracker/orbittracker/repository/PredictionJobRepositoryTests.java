@@ -0,0 +1,54 @@
+package com.gaiaorbittracker.orbittracker.repository;
+
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class PredictionJobRepositoryTests {
+
+    @Autowired
+    private PredictionJobRepository repo;
+
+    @Test
+    void keysetPagesVisitEveryJobOnceWhenSubmittedAtTies() {
+        // a window of its own, so jobs other tests leave in the shared database stay out of it
+        Instant from = Instant.parse("2002-01-01T00:00:00Z").plusSeconds((long) (Math.random() * 1e7));
+        Instant until = from.plusSeconds(60);
+        List<PredictionJob> jobs = new ArrayList<>();
+        Instant[] times = {from.plusSeconds(1), from.plusSeconds(5), from.plusSeconds(5), from.plusSeconds(5),
+            from.plusSeconds(5), from.plusSeconds(5), from.plusSeconds(9)};
+        for (Instant t : times) jobs.add(new PredictionJob(UUID.randomUUID(), "Vega", t, "DONE", "{}"));
+        repo.saveAll(jobs);
+        // the database orders UUIDs as unsigned bytes, which is their hex order, not UUID.compareTo
+        List<UUID> expected = jobs.stream()
+            .sorted(Comparator.comparing(PredictionJob::getSubmittedAt)
+                .thenComparing((PredictionJob j) -> j.getId().toString()).reversed())
+            .map(PredictionJob::getId)
+            .collect(Collectors.toList());
+
+        List<UUID> seen = new ArrayList<>();
+        List<JobStatusDto> page = repo.findStatusPage(null, from, until, Pageable.ofSize(2));
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= 2);
+            page.forEach(j -> seen.add(j.getId()));
+            JobStatusDto last = page.get(page.size() - 1);
+            page = repo.findStatusPageAfter(null, from, last.getSubmittedAt(), last.getId(), Pageable.ofSize(2));
+        }
+
+        assertEquals(expected, seen);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CancellationTokenTests {
+
+    @Test
+    void cancelStopsAndThrows() {
+        CancellationToken token = CancellationToken.withDeadline(null);
+        assertFalse(token.shouldStop());
+        assertFalse(token.hasStopped());
+        assertDoesNotThrow(token::throwIfCancelled);
+
+        token.cancel();
+        assertTrue(token.isCancelled());
+        assertFalse(token.hasStopped(), "nothing was cut short until a loop asked");
+        assertTrue(token.shouldStop());
+        assertTrue(token.hasStopped());
+        assertThrows(CancellationException.class, token::throwIfCancelled);
+    }
+
+    @Test
+    void deadlineExpiresWithoutCancelling() throws InterruptedException {
+        CancellationToken token = CancellationToken.withDeadline(0.02);
+        assertFalse(token.isExpired());
+        Thread.sleep(40);
+        assertTrue(token.isExpired());
+        assertTrue(token.shouldStop());
+        assertTrue(token.hasStopped());
+        assertFalse(token.isCancelled());
+        assertDoesNotThrow(token::throwIfCancelled);
+
+        assertFalse(CancellationToken.withDeadline(1e12).isExpired(), "huge deadlines do not overflow");
+        assertTrue(CancellationToken.withDeadline(0.0).shouldStop(), "a zero deadline has passed at once");
+    }
+
+    @Test
+    void noneNeverStops() {
+        CancellationToken.NONE.cancel();
+        assertFalse(CancellationToken.NONE.isCancelled());
+        assertFalse(CancellationToken.NONE.shouldStop());
+        assertFalse(CancellationToken.NONE.hasStopped());
+    }
+}
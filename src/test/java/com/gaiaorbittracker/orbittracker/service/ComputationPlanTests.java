@@ -0,0 +1,51 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComputationPlanTests {
+
+    @Test
+    void noFieldsMeansEverything() {
+        assertSame(ComputationPlan.FULL, ComputationPlan.of(null));
+        assertSame(ComputationPlan.FULL, ComputationPlan.of(List.of()));
+        assertTrue(ComputationPlan.FULL.uncertainty() && ComputationPlan.FULL.summary() && ComputationPlan.FULL.debug());
+        assertNull(ComputationPlan.FULL.canonical());
+    }
+
+    @Test
+    void unknownFieldsAreRejected() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+            () -> ComputationPlan.of(List.of("ra", "warp")));
+        assertEquals("Unknown field: warp", e.getMessage());
+    }
+
+    @Test
+    void skipsStagesNobodyAskedFor() {
+        ComputationPlan ra = ComputationPlan.of(List.of(" ra", ""));
+        assertFalse(ra.uncertainty());
+        assertFalse(ra.summary());
+        assertFalse(ra.debug());
+        assertFalse(ra.solarPosition());
+        assertFalse(ra.angularSeparation());
+        assertEquals("ra,time", ra.canonical(), "time is always included, and the set is sorted");
+        assertTrue(ComputationPlan.of(List.of("zParsecs")).solarPosition());
+        assertTrue(ComputationPlan.of(List.of("uncertainty")).uncertainty());
+
+        List<Map<String, Object>> points = new ArrayList<>();
+        points.add(new HashMap<>(Map.of("time", 0.0, "ra", 1.0, "dec", 2.0, "distanceLy", 3.0)));
+        ra.trim(points);
+        assertEquals(Map.of("time", 0.0, "ra", 1.0), points.get(0));
+    }
+}
@@ -0,0 +1,66 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobEventHubTests {
+
+    private JobEventHub hub;
+
+    @BeforeEach
+    void setUp() {
+        hub = new JobEventHub();
+        ReflectionTestUtils.setField(hub, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(hub, "maxQueued", 4);
+        ReflectionTestUtils.setField(hub, "senderThreads", 2);
+        ReflectionTestUtils.setField(hub, "sendTimeoutMillis", 10_000L);
+        hub.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void streamEndsAfterTheEventItsPredicateAccepts() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        JobEventHub.Subscription sub = hub.subscribe(key, Map.of(), data -> "DONE".equals(((Map<?, ?>) data).get("status")));
+        sub.start(List.of(JobEventHub.event("batch", Map.of())), false);
+
+        hub.publish(key, "status", Map.of("status", "RUNNING"), true, false);
+        Thread.sleep(100);
+        assertTrue(hub.hasSubscribers(key));
+
+        hub.publish(key, "status", Map.of("status", "DONE"), true, false);
+        awaitNoSubscribers();
+        assertFalse(hub.hasSubscribers(key));
+    }
+
+    @Test
+    void subscriberFallingTooFarBehindIsDropped() throws InterruptedException {
+        UUID key = UUID.randomUUID();
+        hub.subscribe(key); // never started, so nothing is sent and the backlog only grows
+        for (int i = 0; i < 16; i++) hub.publish(key, "status", Map.of("n", i), true, false);
+        assertTrue(hub.hasSubscribers(key), "state events are kept up to four times max-queued");
+
+        hub.publish(key, "status", Map.of("n", 16), true, false);
+        awaitNoSubscribers();
+        assertEquals(0, hub.getSubscriberCount());
+    }
+
+    private void awaitNoSubscribers() throws InterruptedException {
+        for (int i = 0; i < 100 && hub.getSubscriberCount() > 0; i++) Thread.sleep(20);
+        assertEquals(0, hub.getSubscriberCount());
+    }
+}
@@ -0,0 +1,172 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobRetention;
+import com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobRetentionSweeperTests {
+
+    private JdbcTemplate jdbc;
+    private JobRetentionSweeper sweeper;
+    private SimpleMeterRegistry registry;
+    private final Instant now = Instant.now();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+            "jdbc:h2:mem:retention-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE prediction_job (id UUID PRIMARY KEY, gaia_id VARCHAR(255), status VARCHAR(32), "
+            + "result_ref UUID, batch_id UUID, submitted_at TIMESTAMP(6) WITH TIME ZONE)");
+        jdbc.execute("CREATE TABLE prediction_result (job_id UUID PRIMARY KEY, completed_at TIMESTAMP(6) WITH TIME ZONE, "
+            + "result_bytes INT, result_data BLOB)");
+        jdbc.execute("CREATE TABLE prediction_batch (id UUID PRIMARY KEY, submitted_at TIMESTAMP(6) WITH TIME ZONE)");
+        registry = new SimpleMeterRegistry();
+        sweeper = new JobRetentionSweeper(new PredictionJobRetention(jdbc),
+            new TransactionTemplate(new DataSourceTransactionManager(ds)), registry);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 2);
+        ReflectionTestUtils.setField(sweeper, "archiveDir", "");
+    }
+
+    @Test
+    void agePolicyDeletesOldFinishedJobsWithTheirLinks() throws Exception {
+        UUID batch = UUID.randomUUID();
+        jdbc.update("INSERT INTO prediction_batch VALUES (?, ?)", batch, ts(now.minus(Duration.ofDays(3))));
+        UUID old1 = job("DONE", batch, now.minus(Duration.ofDays(3)), 100);
+        UUID old2 = job("FAILED", batch, now.minus(Duration.ofDays(2)), 50);
+        UUID old3 = job("TIMED_OUT", null, now.minus(Duration.ofHours(30)), 10);
+        UUID link = link(old1, now.minus(Duration.ofDays(2)));
+        UUID recent = job("DONE", null, now.minus(Duration.ofHours(1)), 100);
+        UUID running = job("RUNNING", null, null, 0);
+        ReflectionTestUtils.setField(sweeper, "maxAgeHours", 24L);
+
+        Map<String, Object> summary = sweeper.sweep();
+
+        assertEquals(4L, summary.get("deleted"));
+        assertEquals(160L, summary.get("reclaimedBytes"));
+        assertEquals(List.of(recent, running).stream().sorted().collect(Collectors.toList()), remainingJobs());
+        assertEquals(0, jdbc.queryForObject("SELECT COUNT(*) FROM prediction_batch", Integer.class));
+        assertEquals(160.0, registry.get("prediction.retention.reclaimed.bytes").tag("policy", "age").counter().count());
+        assertEquals(100.0, registry.get("prediction.storage.result.bytes").gauge().value());
+        assertTrue(List.of(old1, old2, old3, link).stream().noneMatch(remainingJobs()::contains));
+    }
+
+    @Test
+    void sizePolicyDeletesOldestUntilUnderBoundAndArchivesFirst(@TempDir Path dir) throws Exception {
+        UUID a = job("DONE", null, now.minusSeconds(50), 400);
+        UUID b = job("DONE", null, now.minusSeconds(40), 400);
+        UUID c = job("CANCELLED", null, now.minusSeconds(30), 400);
+        UUID d = job("DONE", null, now.minusSeconds(20), 400);
+        ReflectionTestUtils.setField(sweeper, "maxBytes", 1000L);
+        ReflectionTestUtils.setField(sweeper, "archiveDir", dir.toString());
+
+        Map<String, Object> summary = sweeper.sweep();
+
+        assertEquals(2L, summary.get("deleted"));
+        assertEquals(800L, summary.get("storedBytes"));
+        assertEquals(List.of(c, d).stream().sorted().collect(Collectors.toList()), remainingJobs());
+        List<Path> files;
+        try (var list = Files.list(dir)) {
+            files = list.collect(Collectors.toList());
+        }
+        assertEquals(1, files.size());
+        List<String> lines = readArchive(files.get(0));
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains(a.toString()) || lines.get(1).contains(a.toString()));
+        assertTrue(lines.stream().anyMatch(l -> l.contains(b.toString()) && l.contains("\"result\":{\"summary\":\"x\"")));
+    }
+
+    @Test
+    void recentLinksKeepTheirPrimaryAndAreArchivedWithIt(@TempDir Path dir) throws Exception {
+        UUID shared = job("DONE", null, now.minus(Duration.ofDays(3)), 400);
+        UUID link = link(shared, now.minus(Duration.ofHours(1)));
+        UUID unused = job("DONE", null, now.minus(Duration.ofDays(2)), 400);
+        ReflectionTestUtils.setField(sweeper, "maxAgeHours", 24L);
+        ReflectionTestUtils.setField(sweeper, "archiveDir", dir.toString());
+
+        assertEquals(1L, sweeper.sweep().get("deleted"));
+        assertEquals(List.of(shared, link).stream().sorted().collect(Collectors.toList()), remainingJobs());
+
+        // over the size bound the shared result goes too, last used an hour ago, and its link with it
+        UUID fresh = job("DONE", null, now.minus(Duration.ofMinutes(5)), 400);
+        ReflectionTestUtils.setField(sweeper, "maxAgeHours", 0L);
+        ReflectionTestUtils.setField(sweeper, "maxBytes", 500L);
+        ReflectionTestUtils.setField(sweeper, "archiveDir", dir.resolve("size").toString());
+        assertEquals(2L, sweeper.sweep().get("deleted"));
+        assertEquals(List.of(fresh), remainingJobs());
+
+        List<String> lines = new ArrayList<>();
+        for (Path archives : List.of(dir, dir.resolve("size"))) {
+            try (var list = Files.list(archives)) {
+                for (Path file : list.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                    lines.addAll(readArchive(file));
+                }
+            }
+        }
+        assertEquals(3, lines.size());
+        for (UUID id : List.of(unused, shared, link)) {
+            assertTrue(lines.stream().anyMatch(l -> l.contains(id.toString()) && l.contains("\"result\":{\"summary\":\"x\"")));
+        }
+    }
+
+    private UUID job(String status, UUID batch, Instant completedAt, int bytes) throws Exception {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO prediction_job (id, gaia_id, status, batch_id, submitted_at) VALUES (?, 'Vega', ?, ?, ?)",
+            id, status, batch, ts(completedAt != null ? completedAt : now));
+        if (completedAt != null) {
+            byte[] data = TrajectoryCodec.encode("{\"summary\":\"x\"}");
+            jdbc.update("INSERT INTO prediction_result VALUES (?, ?, ?, ?)", id, ts(completedAt), bytes, data);
+        }
+        return id;
+    }
+
+    private UUID link(UUID owner, Instant submittedAt) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO prediction_job (id, status, result_ref, submitted_at) VALUES (?, 'LINKED', ?, ?)",
+            id, owner, ts(submittedAt));
+        return id;
+    }
+
+    private static List<String> readArchive(Path file) throws Exception {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return in.lines().collect(Collectors.toList());
+        }
+    }
+
+    private List<UUID> remainingJobs() {
+        return jdbc.queryForList("SELECT id FROM prediction_job", UUID.class).stream().sorted()
+            .collect(Collectors.toList());
+    }
+
+    private static OffsetDateTime ts(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
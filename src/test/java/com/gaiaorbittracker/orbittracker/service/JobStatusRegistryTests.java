@@ -0,0 +1,77 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobStatusRegistryTests {
+
+    @Test
+    void transitionsFollowTheTableRules() {
+        JobStatusRegistry registry = registry();
+        UUID id = register(registry, "PENDING");
+        assertTrue(registry.transition(id, "RUNNING"));
+        registry.progress(id, 0.5);
+        assertEquals(0.5, registry.get(id).view().getProgress());
+        assertTrue(registry.transition(id, "CANCELLED"));
+        assertNull(registry.get(id).getProgress());
+        // nothing leaves CANCELLED, and a finished job does not run again
+        assertFalse(registry.transition(id, "DONE"));
+        UUID done = register(registry, "RUNNING");
+        assertTrue(registry.transition(done, "DONE"));
+        assertFalse(registry.transition(done, "RUNNING"));
+        assertEquals("DONE", registry.get(done).getStatus());
+        assertFalse(registry.transition(UUID.randomUUID(), "RUNNING"));
+    }
+
+    @Test
+    void finishedEntriesAreDroppedAfterRetention() throws InterruptedException {
+        JobStatusRegistry registry = registry();
+        ReflectionTestUtils.setField(registry, "retainMillis", 20L);
+        UUID active = register(registry, "RUNNING");
+        UUID finished = register(registry, "RUNNING");
+        registry.transition(finished, "FAILED");
+        Thread.sleep(40);
+        registry.evictFinished();
+        assertEquals("RUNNING", registry.get(active).getStatus());
+        assertNull(registry.get(finished));
+    }
+
+    @Test
+    void activeIdsLeaveOutFinishedJobs() {
+        JobStatusRegistry registry = registry();
+        UUID pending = register(registry, "PENDING");
+        UUID running = register(registry, "RUNNING");
+        UUID done = register(registry, "RUNNING");
+        registry.transition(done, "DONE");
+        register(registry, "LINKED");
+        assertEquals(Set.of(pending, running), Set.copyOf(registry.activeIds()));
+
+        registry.evict(pending);
+        assertEquals(List.of(running), registry.activeIds());
+    }
+
+    private static JobStatusRegistry registry() {
+        JobStatusRegistry registry = new JobStatusRegistry(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(registry, "maxEntries", 100);
+        ReflectionTestUtils.setField(registry, "retainMillis", 60_000L);
+        return registry;
+    }
+
+    private static UUID register(JobStatusRegistry registry, String status) {
+        UUID id = UUID.randomUUID();
+        registry.register(new PredictionJob(id, "Vega", Instant.now(), status, "{}"));
+        return id;
+    }
+}
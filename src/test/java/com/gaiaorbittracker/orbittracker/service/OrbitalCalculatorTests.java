@@ -0,0 +1,82 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.service.kernel.ScalarPropagationKernel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrbitalCalculatorTests {
+
+    private OrbitalCalculator calculator;
+    private FallbackStarService catalogue;
+
+    @BeforeEach
+    void setUp() {
+        calculator = new OrbitalCalculator();
+        ReflectionTestUtils.setField(calculator, "newtonian", new NewtonianPhysics());
+        ReflectionTestUtils.setField(calculator, "kernel", new ScalarPropagationKernel());
+        catalogue = new FallbackStarService();
+        ReflectionTestUtils.setField(catalogue, "stellarOrbitalService", new StellarOrbitalService());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void binaryBandsSpreadWithProperMotionErrors() throws Exception {
+        Map<String, Object> sirius = new HashMap<>(catalogue.getMockStarData("Sirius"));
+        assertEquals(true, sirius.get("hasOrbitalMotion"));
+        sirius.put("pmraError", 0.5);
+        sirius.put("pmdecError", 0.5);
+        StarInput input = new StarInput();
+        input.setPropagationMode(OrbitalCalculator.MODE_STANDARD);
+        input.setTimePeriodYears(100.0);
+        input.setTimeSteps(50);
+
+        Map<String, Object> data = (Map<String, Object>) calculator.computeFromStarData(input, sirius).getData();
+        Map<String, Object> uncertainty = (Map<String, Object>) data.get("uncertainty");
+        List<Map<String, Object>> ra = (List<Map<String, Object>>) uncertainty.get("ra");
+        List<Map<String, Object>> predictions = (List<Map<String, Object>>) data.get("predictions");
+
+        Map<String, Object> last = ra.get(ra.size() - 1);
+        assertTrue((Double) last.get("p16") < (Double) last.get("p84"), "band " + last);
+        // the band follows the reflex orbit around the nominal track
+        double nominal = (Double) predictions.get(predictions.size() - 1).get("ra");
+        assertTrue((Double) last.get("p16") < nominal && nominal < (Double) last.get("p84"), "nominal " + nominal);
+        Map<String, Object> sep = ((List<Map<String, Object>>) uncertainty.get("angularSeparationArcsec")).get(ra.size() - 1);
+        assertTrue((Double) sep.get("p84") > 0.0);
+        // at the first epoch there is no drift yet
+        assertEquals((Double) ra.get(0).get("p16"), (Double) ra.get(0).get("p84"), 1e-9);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void requestedFieldsTrimPointsAndSkipStages() throws Exception {
+        Map<String, Object> vega = new HashMap<>(catalogue.getMockStarData("Vega"));
+        StarInput input = new StarInput();
+        input.setPropagationMode(OrbitalCalculator.MODE_STANDARD);
+        input.setTimeSteps(20);
+
+        Map<String, Object> full = calculator.computeFromStarData(input, vega).getData();
+        assertTrue(full.keySet().containsAll(List.of("uncertainty", "summary", "debug", "starData")), full.keySet().toString());
+
+        input.setFields(List.of("ra"));
+        Map<String, Object> data = calculator.computeFromStarData(input, vega).getData();
+        List<Map<String, Object>> points = (List<Map<String, Object>>) data.get("predictions");
+        assertEquals(21, points.size());
+        for (Map<String, Object> p : points) assertEquals(Set.of("time", "ra"), p.keySet());
+        for (String skipped : List.of("uncertainty", "summary", "debug", "starData")) {
+            assertFalse(data.containsKey(skipped), skipped);
+        }
+        List<Map<String, Object>> fullPoints = (List<Map<String, Object>>) full.get("predictions");
+        assertEquals(fullPoints.get(20).get("ra"), points.get(20).get("ra"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gaiaorbittracker.orbittracker.model.PredictionJob;
+import com.gaiaorbittracker.orbittracker.model.PredictionResult;
+import com.gaiaorbittracker.orbittracker.repository.PredictionJobRepository;
+import com.gaiaorbittracker.orbittracker.repository.PredictionResultRepository;
+import com.gaiaorbittracker.orbittracker.service.codec.TrajectoryCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/** Both export formats over a DONE job, a LINKED duplicate of it and a FAILED job, each in its own time window. */
+@SpringBootTest
+class PredictionExporterTests {
+
+    private static final String RESULT = "{\"summary\":\"s\",\"data\":{\"predictions\":["
+        + "{\"time\":0.0,\"ra\":10.5,\"dec\":-2.25,\"distanceLy\":8.6},"
+        + "{\"time\":1.0,\"ra\":10.75,\"dec\":-2.5,\"distanceLy\":8.6}]}}";
+
+    @Autowired
+    private PredictionExporter exporter;
+
+    @Autowired
+    private PredictionJobRepository jobs;
+
+    @Autowired
+    private PredictionResultRepository results;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private Instant from;
+    private UUID done, linked, failed;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        from = Instant.parse("2001-01-01T00:00:00Z").plusSeconds((long) (Math.random() * 1e7));
+        done = job("Alpha, \"A\"", from.plusSeconds(3), "DONE", null);
+        results.save(new PredictionResult(done, from.plusSeconds(4), TrajectoryCodec.encode(RESULT)));
+        linked = job("Beta", from.plusSeconds(2), "LINKED", done);
+        failed = job("Gamma", from.plusSeconds(1), "FAILED", null);
+        results.save(new PredictionResult(failed, from.plusSeconds(2), TrajectoryCodec.encode("{\"error\":\"boom\"}")));
+    }
+
+    @Test
+    void csvQuotesNamesAndFlattensTrajectories() throws Exception {
+        List<String> plain = lines(PredictionExporter.Format.CSV, false);
+        assertEquals(List.of(
+            "id,gaiaId,submittedAt,status",
+            done + ",\"Alpha, \"\"A\"\"\"," + from.plusSeconds(3) + ",DONE",
+            linked + ",Beta," + from.plusSeconds(2) + ",DONE",
+            failed + ",Gamma," + from.plusSeconds(1) + ",FAILED"), plain);
+
+        List<String> points = lines(PredictionExporter.Format.CSV, true);
+        assertEquals("id,gaiaId,submittedAt,status," + String.join(",", PredictionExporter.POINT_FIELDS), points.get(0));
+        String empty = ",".repeat(PredictionExporter.POINT_FIELDS.size() - 4);
+        assertEquals(List.of(
+            done + ",\"Alpha, \"\"A\"\"\"," + from.plusSeconds(3) + ",DONE,0.0,10.5,-2.25,8.6" + empty,
+            done + ",\"Alpha, \"\"A\"\"\"," + from.plusSeconds(3) + ",DONE,1.0,10.75,-2.5,8.6" + empty,
+            linked + ",Beta," + from.plusSeconds(2) + ",DONE,0.0,10.5,-2.25,8.6" + empty,
+            linked + ",Beta," + from.plusSeconds(2) + ",DONE,1.0,10.75,-2.5,8.6" + empty,
+            failed + ",Gamma," + from.plusSeconds(1) + ",FAILED" + ",".repeat(PredictionExporter.POINT_FIELDS.size())),
+            points.subList(1, points.size()));
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerJobOrPoint() throws Exception {
+        List<JsonNode> plain = json(lines(PredictionExporter.Format.NDJSON, false));
+        assertEquals(3, plain.size());
+        assertEquals("Alpha, \"A\"", plain.get(0).get("gaiaId").asText());
+        assertEquals("DONE", plain.get(1).get("status").asText());
+        assertEquals(linked.toString(), plain.get(1).get("id").asText());
+        assertEquals("FAILED", plain.get(2).get("status").asText());
+        assertFalse(plain.get(0).has("ra"));
+
+        List<JsonNode> points = json(lines(PredictionExporter.Format.NDJSON, true));
+        assertEquals(5, points.size());
+        assertEquals(10.75, points.get(1).get("ra").asDouble());
+        assertEquals(linked.toString(), points.get(3).get("id").asText());
+        assertEquals(-2.5, points.get(3).get("dec").asDouble());
+        assertFalse(points.get(0).has("xParsecs"), "fields missing from the point are left out");
+        assertEquals("FAILED", points.get(4).get("status").asText());
+        assertFalse(points.get(4).has("time"));
+    }
+
+    private UUID job(String gaiaId, Instant submittedAt, String status, UUID resultRef) {
+        PredictionJob job = new PredictionJob(UUID.randomUUID(), gaiaId, submittedAt, status, "{}");
+        job.setResultRef(resultRef);
+        return jobs.save(job).getId();
+    }
+
+    private List<String> lines(PredictionExporter.Format format, boolean trajectory) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(out, format, trajectory, null, from, from.plusSeconds(10));
+        return List.of(out.toString(StandardCharsets.UTF_8).split("\n"));
+    }
+
+    private List<JsonNode> json(List<String> lines) throws Exception {
+        List<JsonNode> out = new ArrayList<>();
+        for (String line : lines) out.add(mapper.readTree(line));
+        return out;
+    }
+}
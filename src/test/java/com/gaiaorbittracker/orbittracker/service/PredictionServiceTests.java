@@ -0,0 +1,118 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.dto.JobStatusDto;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import com.gaiaorbittracker.orbittracker.service.queue.JobPriority;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cancellation, deadlines and leases of async jobs, end to end on an in-memory database of its own. One compute thread
+ * and one fetch slot, so a long job keeps later ones waiting in the queue.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:prediction-service-tests;DB_CLOSE_DELAY=-1",
+    "prediction.status.flush-ms=20",
+    "prediction.pool.size=1",
+    "prediction.compute.queue.capacity=1",
+    "prediction.fetch.concurrency=1",
+    "prediction.lease.ttl-ms=1500"
+})
+class PredictionServiceTests {
+
+    @Autowired
+    private PredictionService service;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void runningJobStopsWhenCancelled() throws InterruptedException {
+        UUID job = service.submitJob(sirius(5_000_000, null), "tests", JobPriority.INTERACTIVE);
+        await(job, Set.of("RUNNING"));
+
+        assertEquals(PredictionService.CancelOutcome.CANCELLING, service.cancelJob(job));
+        JobStatusDto done = await(job, Set.of("CANCELLED", "DONE", "FAILED", "TIMED_OUT"));
+        assertEquals("CANCELLED", done.getStatus());
+        assertEquals(PredictionService.CancelOutcome.NOT_CANCELLABLE, service.cancelJob(job));
+    }
+
+    @Test
+    void jobPastItsDeadlineKeepsItsPartialResultAsTimedOut() throws InterruptedException {
+        UUID job = service.submitJob(sirius(5_000_000, 0.3), "tests", JobPriority.INTERACTIVE);
+        JobStatusDto done = await(job, Set.of("CANCELLED", "DONE", "FAILED", "TIMED_OUT"));
+        assertEquals("TIMED_OUT", done.getStatus());
+        assertTrue(done.getResultJson().contains("\"timedOut\":true"), "partial result is stored");
+    }
+
+    @Test
+    void sharedComputationCannotBeCancelledFromEitherSide() throws InterruptedException {
+        StarInput input = sirius(5_000_000, 0.5);
+        List<UUID> ids = service.submitBatch(List.of(input, input), "tests", JobPriority.INTERACTIVE).getJobIds();
+        UUID primary = ids.get(0), linked = ids.get(1);
+        assertEquals(primary, service.getJob(linked).get().getResultRef());
+        assertTrue(Set.of("PENDING", "RUNNING").contains(service.getJob(primary).get().getStatus()));
+
+        assertEquals(PredictionService.CancelOutcome.NOT_CANCELLABLE, service.cancelJob(primary));
+        assertEquals(PredictionService.CancelOutcome.NOT_CANCELLABLE, service.cancelJob(linked));
+        assertEquals("TIMED_OUT", await(primary, Set.of("CANCELLED", "DONE", "FAILED", "TIMED_OUT")).getStatus());
+    }
+
+    @Test
+    void queuedJobFinishedByAnotherNodeIsNotReportedPendingHere() throws InterruptedException {
+        UUID busy = service.submitJob(sirius(5_000_000, 10.0), "tests", JobPriority.INTERACTIVE);
+        await(busy, Set.of("RUNNING"));
+        // enough to fill the compute queue and the fetch slot behind it
+        List<UUID> waiting = new ArrayList<>();
+        for (int i = 0; i < 3; i++) waiting.add(service.submitJob(sirius(500, null), "tests", JobPriority.INTERACTIVE));
+        UUID queued = service.submitJob(sirius(500, null), "tests", JobPriority.INTERACTIVE);
+        assertEquals("PENDING", service.getJob(queued).get().getStatus());
+
+        // another node steals the queued job and finishes it while this one is still busy
+        jdbc.update("UPDATE prediction_job SET lease_owner = 'node-other', status = 'DONE' WHERE id = ?", queued);
+        // a few heartbeats (ttl/3), well before the busy job lets the queue move
+        assertEquals("DONE", await(queued, Set.of("DONE"), 2000).getStatus());
+        assertEquals("RUNNING", service.getJob(busy).get().getStatus());
+
+        service.cancelJob(busy);
+        for (UUID id : waiting) await(id, Set.of("DONE"));
+    }
+
+    private JobStatusDto await(UUID job, Set<String> statuses) throws InterruptedException {
+        return await(job, statuses, 20_000);
+    }
+
+    private JobStatusDto await(UUID job, Set<String> statuses, long maxMillis) throws InterruptedException {
+        for (long i = 0; i < maxMillis / 20; i++) {
+            JobStatusDto view = service.getJob(job).orElseThrow();
+            if (statuses.contains(view.getStatus())) return view;
+            Thread.sleep(20);
+        }
+        throw new AssertionError("job " + job + " never reached " + statuses);
+    }
+
+    /** Sirius by its astrometry, so no catalogue lookup is needed; a random span keeps jobs from deduplicating. */
+    private static StarInput sirius(int steps, Double deadlineSeconds) {
+        StarInput input = new StarInput();
+        input.setRa(101.287155);
+        input.setDec(-16.716116);
+        input.setParallax(379.21);
+        input.setPmra(-546.01);
+        input.setPmdec(-1223.07);
+        input.setRadialVelocity(-5.5);
+        input.setTimePeriodYears(1000.0 + Math.random() * 1000.0);
+        input.setTimeSteps(steps);
+        input.setDeadlineSeconds(deadlineSeconds);
+        return input;
+    }
+}
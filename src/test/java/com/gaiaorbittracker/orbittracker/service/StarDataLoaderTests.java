@@ -0,0 +1,62 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StarDataLoaderTests {
+
+    /** Counts upstream calls instead of making them. */
+    private static final class CountingGaia extends GaiaService {
+        final List<String> single = new ArrayList<>();
+        final List<List<String>> batches = new ArrayList<>();
+
+        @Override
+        public Map<String, Object> getStarMetricsByName(String name) {
+            single.add(name);
+            return "nowhere".equals(name) ? Map.of("error", "Star not found in Gaia") : metrics(name);
+        }
+
+        @Override
+        public Map<String, Map<String, Object>> getStarMetricsByNames(List<String> names) {
+            batches.add(names);
+            Map<String, Map<String, Object>> out = new HashMap<>();
+            for (String n : names) out.put(n, metrics(n));
+            return out;
+        }
+
+        private static Map<String, Object> metrics(String name) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("name", name);
+            m.put("parallax", 10.0);
+            return m;
+        }
+    }
+
+    @Test
+    void fetchesEachStarOncePerScope() {
+        CountingGaia gaia = new CountingGaia();
+        StarDataLoader stars = new StarDataLoader(gaia);
+
+        stars.loadAll(List.of("Vega", "Sirius", "vega"));
+        stars.loadAll(List.of("sirius", "Altair"));
+        Map<String, Object> vega = stars.load("VEGA");
+        vega.put("parallax", -1.0); // callers get private copies
+        stars.load("nowhere");
+        Map<String, Object> missing = stars.load("Nowhere ");
+
+        assertEquals(List.of(List.of("Vega", "Sirius"), List.of("Altair")), gaia.batches);
+        assertEquals(List.of("nowhere"), gaia.single);
+        assertEquals(10.0, stars.load("vega").get("parallax"));
+        assertTrue(missing.containsKey("error"));
+
+        new StarDataLoader(gaia).load("vega"); // a new scope fetches again
+        assertEquals(List.of("nowhere", "vega"), gaia.single);
+    }
+}
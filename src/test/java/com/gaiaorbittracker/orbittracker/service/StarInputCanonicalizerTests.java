@@ -0,0 +1,66 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StarInputCanonicalizerTests {
+
+    @Test
+    void collapsesEquivalentDefaults() {
+        StarInput a = new StarInput();
+        a.setGaiaId("Vega");
+        StarInput b = new StarInput();
+        b.setGaiaId("  vega ");
+        b.setHighFidelity(true);
+        b.setTimePeriodYears(100.0);
+        b.setTimeSteps(50);
+        b.setRa(1.0); // ignored when a Gaia ID is given
+        StarInput c = new StarInput();
+        c.setGaiaId("VEGA");
+        c.setPropagationMode("high-fidelity");
+        assertEquals(StarInputCanonicalizer.hash(a), StarInputCanonicalizer.hash(b));
+        assertEquals(StarInputCanonicalizer.hash(a), StarInputCanonicalizer.hash(c));
+
+        StarInput linear = new StarInput();
+        linear.setGaiaId("Vega");
+        linear.setHighFidelity(false);
+        assertNotEquals(StarInputCanonicalizer.hash(a), StarInputCanonicalizer.hash(linear));
+    }
+
+    @Test
+    void requestedFieldsArePartOfTheKeyAsASet() {
+        StarInput all = new StarInput();
+        all.setGaiaId("Vega");
+        StarInput rv = new StarInput();
+        rv.setGaiaId("Vega");
+        rv.setFields(List.of("radialVelocityKmS", "time"));
+        StarInput rvReordered = new StarInput();
+        rvReordered.setGaiaId("Vega");
+        rvReordered.setFields(List.of(" radialVelocityKmS"));
+        assertNotEquals(StarInputCanonicalizer.hash(all), StarInputCanonicalizer.hash(rv));
+        assertEquals(StarInputCanonicalizer.hash(rv), StarInputCanonicalizer.hash(rvReordered));
+        // the canonical form is also the result cache key
+        assertNotEquals(StarInputCanonicalizer.canonicalForm(all), StarInputCanonicalizer.canonicalForm(rv));
+        assertEquals(StarInputCanonicalizer.canonicalForm(rv), StarInputCanonicalizer.canonicalForm(rvReordered));
+        assertTrue(StarInputCanonicalizer.canonicalForm(rv).endsWith("|fields=radialVelocityKmS,time"));
+
+        rv.setFields(List.of("radialVelocity"));
+        assertNull(StarInputCanonicalizer.hash(rv));
+        assertNull(StarInputCanonicalizer.canonicalForm(rv), "never cached or shared");
+    }
+
+    @Test
+    void invalidModeIsNeverShared() {
+        StarInput bad = new StarInput();
+        bad.setGaiaId("Vega");
+        bad.setPropagationMode("warp");
+        assertNull(StarInputCanonicalizer.hash(bad));
+    }
+}
@@ -0,0 +1,69 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StarInputStreamReaderTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void readsEveryFormatAndReportsBadElements() throws IOException {
+        List<StarInputStreamReader.Element> json = readAll(StarInputStreamReader.Format.JSON,
+            "[{\"gaiaId\":\"Vega\"}, 42, {\"gaiaId\":\"Sirius\",\"propagationMode\":\"warp\"},"
+                + " {\"ra\":10.5,\"dec\":-3,\"parallax\":20,\"pmra\":1,\"pmdec\":2}]");
+        assertEquals(4, json.size());
+        assertEquals("Vega", json.get(0).input.getGaiaId());
+        assertNotNull(json.get(1).error);
+        assertNotNull(json.get(2).error);
+        assertEquals(10.5, json.get(3).input.getRa());
+
+        List<StarInputStreamReader.Element> ndjson = readAll(StarInputStreamReader.Format.NDJSON,
+            "{\"gaiaId\":\"Vega\"}\n\n{not json\n{\"ra\":1,\"dec\":2}\n");
+        assertEquals(3, ndjson.size());
+        assertNull(ndjson.get(0).error);
+        assertNotNull(ndjson.get(1).error);
+        assertNotNull(ndjson.get(2).error); // no parallax or proper motion
+        assertEquals(2, ndjson.get(2).index);
+
+        List<StarInputStreamReader.Element> csv = readAll(StarInputStreamReader.Format.CSV,
+            "gaiaId,ra,dec,parallax,pmra,pmdec,timeSteps\n"
+                + "\"Alpha Centauri, A\",,,,,,20\n"
+                + ",83.8,-5.4,2.5,1.1,-0.3,\n");
+        assertEquals(2, csv.size());
+        assertEquals("Alpha Centauri, A", csv.get(0).input.getGaiaId());
+        assertEquals(20, csv.get(0).input.getTimeSteps());
+        assertEquals(2.5, csv.get(1).input.getParallax());
+    }
+
+    @Test
+    void truncatedArrayIsAnError() throws IOException {
+        StarInputStreamReader reader = reader(StarInputStreamReader.Format.JSON, "[{\"gaiaId\":\"Vega\"},");
+        assertNotNull(reader.next());
+        assertThrows(IOException.class, reader::next);
+    }
+
+    private List<StarInputStreamReader.Element> readAll(StarInputStreamReader.Format format, String body) throws IOException {
+        List<StarInputStreamReader.Element> out = new ArrayList<>();
+        try (StarInputStreamReader reader = reader(format, body)) {
+            StarInputStreamReader.Element e;
+            while ((e = reader.next()) != null) out.add(e);
+        }
+        return out;
+    }
+
+    private StarInputStreamReader reader(StarInputStreamReader.Format format, String body) throws IOException {
+        return new StarInputStreamReader(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, mapper);
+    }
+}
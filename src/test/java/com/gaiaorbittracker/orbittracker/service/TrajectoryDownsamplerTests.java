@@ -0,0 +1,57 @@
+package com.gaiaorbittracker.orbittracker.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrajectoryDownsamplerTests {
+
+    @Test
+    void keepsEndpointsAndExtremaAndLeavesTheInputAlone() {
+        List<Map<String, Object>> points = new ArrayList<>();
+        List<Map<String, Object>> band = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            double t = i * 0.1;
+            // a spike far from any bucket boundary, and a slow wave
+            points.add(Map.of("time", t, "ra", i == 4321 ? 50.0 : Math.sin(t / 40), "dec", -Math.cos(t / 90)));
+            band.add(Map.of("time", t, "p16", t - 1, "p50", t, "p84", t + 1));
+        }
+        Map<String, Object> data = Map.of("predictions", points, "uncertainty", Map.of("ra", band, "samples", 200),
+            "timeSteps", 9_999);
+
+        Map<String, Object> view = TrajectoryDownsampler.downsample(data, 500);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> kept = (List<Map<String, Object>>) view.get("predictions");
+        assertTrue(kept.size() <= 500 + 4, "kept " + kept.size());
+        assertSame(points.get(0), kept.get(0));
+        assertSame(points.get(9_999), kept.get(kept.size() - 1));
+        assertTrue(kept.contains(points.get(4321)), "spike kept");
+        for (int i = 1; i < kept.size(); i++) {
+            assertTrue((double) kept.get(i).get("time") > (double) kept.get(i - 1).get("time"));
+        }
+        assertEquals(10_000, view.get("fullResolutionPoints"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> uncertainty = (Map<String, Object>) view.get("uncertainty");
+        assertTrue(((List<?>) uncertainty.get("ra")).size() <= 500 + 6);
+        assertEquals(200, uncertainty.get("samples"));
+
+        assertEquals(10_000, points.size());
+        assertSame(band, ((Map<?, ?>) data.get("uncertainty")).get("ra"));
+    }
+
+    @Test
+    void shortTablesAreReturnedAsTheyAre() {
+        List<Map<String, Object>> points = List.of(Map.of("time", 0.0, "ra", 1.0), Map.of("time", 1.0, "ra", 2.0));
+        Map<String, Object> view = TrajectoryDownsampler.downsample(Map.of("predictions", points), 3);
+        assertSame(points, view.get("predictions"));
+        assertFalse(view.containsKey("fullResolutionPoints"));
+    }
+}
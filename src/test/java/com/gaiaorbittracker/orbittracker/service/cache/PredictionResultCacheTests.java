@@ -0,0 +1,121 @@
+package com.gaiaorbittracker.orbittracker.service.cache;
+
+import com.gaiaorbittracker.orbittracker.dto.PredictionResultDto;
+import com.gaiaorbittracker.orbittracker.dto.StarInput;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PredictionResultCacheTests {
+
+    @Test
+    void equivalentInputsShareAnEntry() throws Exception {
+        PredictionResultCache cache = new PredictionResultCache(1 << 20, 600, false, new SimpleMeterRegistry());
+        AtomicInteger computed = new AtomicInteger();
+        StarInput a = star("Vega", null);
+        StarInput b = star(" vega", true);
+        PredictionResultDto first = cache.getOrCompute(a, () -> result(computed.incrementAndGet(), 10));
+        PredictionResultDto second = cache.getOrCompute(b, () -> result(computed.incrementAndGet(), 10));
+        assertEquals(1, computed.get());
+        assertEquals(first.getSummary(), second.getSummary());
+        cache.getOrCompute(star("Vega", false), () -> result(computed.incrementAndGet(), 10));
+        assertEquals(2, computed.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBySize() throws Exception {
+        PredictionResultCache cache = new PredictionResultCache(3000, 600, true, new SimpleMeterRegistry());
+        for (String name : new String[]{"a", "b", "c", "d"}) {
+            cache.getOrCompute(star(name, null), () -> result(0, 900)); // ~1 KB each
+        }
+        assertTrue(cache.sizeBytes() <= 3000);
+        AtomicInteger computed = new AtomicInteger();
+        cache.getOrCompute(star("d", null), () -> result(computed.incrementAndGet(), 900));
+        assertEquals(0, computed.get(), "most recent entry survives");
+        cache.getOrCompute(star("a", null), () -> result(computed.incrementAndGet(), 900));
+        assertEquals(1, computed.get(), "oldest entry was evicted");
+    }
+
+    @Test
+    void resultsCutShortByADeadlineAreNeitherCachedNorShared() throws Exception {
+        PredictionResultCache cache = new PredictionResultCache(1 << 20, 600, false, new SimpleMeterRegistry());
+        AtomicInteger computed = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<PredictionResultDto> first = pool.submit(() -> cache.getOrCompute(star("Vega", null), () -> {
+                computed.incrementAndGet();
+                started.countDown();
+                release.await();
+                return new PredictionResultDto("partial", Map.of("timedOut", true));
+            }));
+            started.await();
+            // a second caller waits on the first computation, then runs its own once that one is cut short
+            new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ignored) {
+                    // release anyway
+                }
+                release.countDown();
+            }).start();
+            PredictionResultDto second = cache.getOrCompute(star("Vega", null), () -> result(computed.incrementAndGet(), 10));
+            assertEquals("partial", first.get().getSummary());
+            assertEquals("run 2", second.getSummary());
+            assertEquals(1, cache.size(), "only the complete result is cached");
+            assertEquals("run 2", cache.getOrCompute(star("Vega", null), () -> result(computed.incrementAndGet(), 10)).getSummary());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void callersWaitingOnALoaderThatThrowsAnErrorAreReleased() throws Exception {
+        PredictionResultCache cache = new PredictionResultCache(1 << 20, 600, false, new SimpleMeterRegistry());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<PredictionResultDto> first = pool.submit(() -> cache.getOrCompute(star("Vega", null), () -> {
+                started.countDown();
+                release.await();
+                throw new StackOverflowError();
+            }));
+            started.await();
+            Future<PredictionResultDto> second = pool.submit(() -> cache.getOrCompute(star("Vega", null), () -> result(2, 10)));
+            Thread.sleep(100); // the second caller is waiting on the first computation by now
+            release.countDown();
+
+            ExecutionException failed = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            assertTrue(failed.getCause() instanceof StackOverflowError);
+            assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertEquals(0, cache.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static StarInput star(String name, Boolean highFidelity) {
+        StarInput input = new StarInput();
+        input.setGaiaId(name);
+        input.setHighFidelity(highFidelity);
+        return input;
+    }
+
+    private static PredictionResultDto result(int n, int padding) {
+        return new PredictionResultDto("run " + n, Map.of("padding", "x".repeat(padding)));
+    }
+}
@@ -0,0 +1,36 @@
+package com.gaiaorbittracker.orbittracker.service.codec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ColumnarResultCodecTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void roundTripsTablesAsAlignedFloat64Columns() throws Exception {
+        String json = "{\"summary\":\"x\",\"data\":{\"predictions\":[{\"time\":0.0,\"ra\":101.5,\"n\":3,\"ok\":true},"
+            + "{\"time\":2.0,\"ra\":null,\"n\":-7,\"ok\":false}],\"names\":[{\"a\":\"s\"},{\"a\":\"t\"}],"
+            + "\"uncertainty\":{\"ra\":[{\"p16\":1.5},{\"p16\":2.5}]}}}";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ColumnarResultCodec.write(mapper.readValue(json, new TypeReference<Map<String, Object>>() {}), out);
+        byte[] data = out.toByteArray();
+
+        assertEquals(mapper.readTree(json), ColumnarResultCodec.read(data));
+
+        // 4 + 1 = 5 columns of 2 rows, ending the payload; the first is the predictions' time column
+        int first = data.length - 5 * 2 * 8;
+        assertEquals(0, first % 8);
+        ByteBuffer columns = ByteBuffer.wrap(data, first, 16).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0.0, columns.getDouble());
+        assertEquals(2.0, columns.getDouble());
+    }
+}
@@ -0,0 +1,46 @@
+package com.gaiaorbittracker.orbittracker.service.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrajectoryCodecTests {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void roundTripsMixedTablesExactly() throws Exception {
+        String json = "{\"summary\":\"x\",\"data\":{\"rows\":[{\"t\":0.0,\"n\":3,\"ok\":true,\"v\":null},"
+            + "{\"t\":0.5,\"n\":-7,\"ok\":false,\"v\":-0.0},{\"t\":1.0,\"n\":5000000000,\"ok\":null,\"v\":1.0E-300}],"
+            + "\"names\":[{\"a\":\"s\"},{\"a\":\"t\"}],\"nested\":{\"bands\":[{\"p\":1.5},{\"p\":2.5}]},\"empty\":[]},"
+            + "\"tail\":1}";
+        assertEquals(json, TrajectoryCodec.decodeToString(TrajectoryCodec.encode(json)));
+    }
+
+    @Test
+    void compressesSmoothTrajectories() throws Exception {
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode points = root.putObject("data").putArray("predictions");
+        Random random = new Random(7);
+        for (int i = 0; i <= 1000; i++) {
+            double t = i * 0.1;
+            points.addObject()
+                .put("time", t)
+                .put("ra", 101.28 + 1.5e-4 * t)
+                .put("dec", -16.71 - 3.4e-4 * t + 1e-9 * t * t)
+                .put("distanceLy", 8.6 + 1e-6 * t)
+                .put("p50", 1e-3 * t + 1e-5 * random.nextGaussian())
+                .put("pmra", -546.01);
+        }
+        String json = mapper.writeValueAsString(root);
+        byte[] encoded = TrajectoryCodec.encode(json);
+        assertEquals(json, TrajectoryCodec.decodeToString(encoded));
+        assertTrue(json.length() > 6 * encoded.length, json.length() + " -> " + encoded.length);
+    }
+}
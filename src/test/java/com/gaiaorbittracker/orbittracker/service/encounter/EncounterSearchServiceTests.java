@@ -0,0 +1,138 @@
+package com.gaiaorbittracker.orbittracker.service.encounter;
+
+import com.gaiaorbittracker.orbittracker.dto.EncounterRequest;
+import com.gaiaorbittracker.orbittracker.service.CancellationToken;
+import com.gaiaorbittracker.orbittracker.service.FallbackStarService;
+import com.gaiaorbittracker.orbittracker.service.OrbitalCalculator;
+import com.gaiaorbittracker.orbittracker.service.StellarOrbitalService;
+import com.gaiaorbittracker.orbittracker.service.kernel.ScalarPropagationKernel;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticForceGrid;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticFrame;
+import com.gaiaorbittracker.orbittracker.service.orbit.GalacticOrbitIntegrator;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncounterSearchServiceTests {
+
+    @Test
+    void smallestKMatchesSortAndTake() {
+        Random random = new Random(5);
+        List<double[]> approaches = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            // coarse distances, so ties are common
+            approaches.add(new double[]{i, random.nextGaussian(), Math.floor(random.nextDouble() * 300), 1.0});
+        }
+        List<double[]> sorted = new ArrayList<>(approaches);
+        sorted.sort(Comparator.comparingDouble(a -> a[2]));
+
+        for (int k : new int[]{1, 7, 20, 2000, 5000}) {
+            List<double[]> top = EncounterSearchService.smallestK(approaches, k);
+            assertEquals(Math.min(k, approaches.size()), top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(sorted.get(i)[2], top.get(i)[2], "k=" + k + " rank " + i);
+            }
+        }
+    }
+
+    @Test
+    void searchRunsOnAPreloadedCatalogue() throws Exception {
+        FallbackStarService fallback = new FallbackStarService();
+        StellarOrbitalService stellar = new StellarOrbitalService();
+        ReflectionTestUtils.setField(fallback, "stellarOrbitalService", stellar);
+        GalacticOrbitIntegrator integrator = new GalacticOrbitIntegrator(new GalacticForceGrid());
+        // no GaiaService: the built-in catalogue is loaded without it, and the compute half never looks stars up
+        EncounterSearchService service = new EncounterSearchService(null, fallback, stellar, new ScalarPropagationKernel(), integrator);
+        EncounterRequest request = new EncounterRequest();
+        request.setTopK(3);
+        request.setSamples(10);
+
+        EncounterSearchService.Catalog catalog = service.loadCatalog(null);
+        Map<String, Object> split = service.search(request, catalog).getData();
+        Map<String, Object> direct = service.search(request).getData();
+        assertEquals(direct.get("encounters"), split.get("encounters"));
+        assertEquals(catalog.stars.size(), split.get("catalogSize"));
+        assertEquals(3, ((List<?>) split.get("encounters")).size());
+
+        request.setTopK(0);
+        assertThrows(Exception.class, () -> service.search(request, catalog));
+    }
+
+    @Test
+    void cancelledSearchStops() {
+        FallbackStarService fallback = new FallbackStarService();
+        StellarOrbitalService stellar = new StellarOrbitalService();
+        ReflectionTestUtils.setField(fallback, "stellarOrbitalService", stellar);
+        EncounterSearchService service = new EncounterSearchService(null, fallback, stellar, new ScalarPropagationKernel(),
+            new GalacticOrbitIntegrator(new GalacticForceGrid()));
+        EncounterSearchService.Catalog catalog = service.loadCatalog(null);
+        CancellationToken token = CancellationToken.withDeadline(null);
+        token.cancel();
+
+        for (String mode : List.of(OrbitalCalculator.MODE_STANDARD, OrbitalCalculator.MODE_GALACTIC)) {
+            EncounterRequest request = new EncounterRequest();
+            request.setPropagationMode(mode);
+            request.setSamples(1000);
+            assertThrows(CancellationException.class, () -> service.search(request, catalog, token), mode);
+        }
+    }
+
+    @Test
+    void tidalPruningKeepsTheBruteForceTopK() {
+        int n = 300, topK = 10, steps = 100;
+        double horizon = 5.0;
+        Random random = new Random(17);
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] vx = new double[n], vy = new double[n], vz = new double[n];
+        for (int i = 0; i < n; i++) {
+            // heliocentric pc and pc/Myr: a 400 pc box, disc-like velocity dispersion
+            x[i] = (random.nextDouble() - 0.5) * 400; y[i] = (random.nextDouble() - 0.5) * 400; z[i] = (random.nextDouble() - 0.5) * 400;
+            vx[i] = random.nextGaussian() * 30; vy[i] = random.nextGaussian() * 20; vz[i] = random.nextGaussian() * 15;
+        }
+        double[] tLin = new double[n], dLin = new double[n];
+        new ScalarPropagationKernel().linearPerihelion(x, y, z, vx, vy, vz, -horizon, horizon, tLin, dLin, n);
+
+        // brute force: integrate every star; the true distance must sit inside the linear bracket
+        GalacticOrbitIntegrator integrator = new GalacticOrbitIntegrator(new GalacticForceGrid());
+        EncounterSearchService service = new EncounterSearchService(null, null, null, new ScalarPropagationKernel(), integrator);
+        double[] sun = GalacticFrame.sunState();
+        double[] sunForward = integrator.integrate(sun, horizon, steps);
+        double[] sunBackward = integrator.integrate(sun, -horizon, steps);
+        List<double[]> all = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            double[] state = {sun[0] + x[i] / 1000.0, sun[1] + y[i] / 1000.0, sun[2] + z[i] / 1000.0,
+                sun[3] + vx[i] / 1000.0, sun[4] + vy[i] / 1000.0, sun[5] + vz[i] / 1000.0};
+            double[] approach = service.integrateApproach(i, state, horizon, steps, sunForward, sunBackward);
+            double deviation = EncounterSearchService.tidalDeviation(x[i], y[i], z[i], vx[i], vy[i], vz[i], horizon);
+            assertTrue(Math.abs(approach[2] - dLin[i]) <= deviation,
+                "star " + i + ": integrated " + approach[2] + " vs linear " + dLin[i] + " +/- " + deviation);
+            all.add(approach);
+        }
+        List<double[]> expected = EncounterSearchService.smallestK(all, topK);
+
+        int[] candidates = EncounterSearchService.tidalCandidates(x, y, z, vx, vy, vz, dLin, horizon, topK, n);
+        assertTrue(candidates.length >= topK && candidates.length < n / 2, "pruned to " + candidates.length);
+        List<double[]> pruned = new ArrayList<>();
+        for (int i : candidates) pruned.add(all.get(i));
+        List<double[]> actual = EncounterSearchService.smallestK(pruned, topK);
+
+        assertEquals(topK, actual.size());
+        for (int i = 0; i < topK; i++) {
+            assertArrayEquals(expected.get(i), actual.get(i), "rank " + i);
+        }
+
+        // asking for every star disables pruning
+        assertEquals(n, EncounterSearchService.tidalCandidates(x, y, z, vx, vy, vz, dLin, horizon, n, n).length);
+    }
+}
@@ -0,0 +1,61 @@
+package com.gaiaorbittracker.orbittracker.service.encounter;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PairApproachEngineTests {
+
+    @Test
+    void matchesBruteForceOnLinearTracks() {
+        int n = 1500;
+        double horizon = 1.0, threshold = 1.5;
+        Random random = new Random(11);
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] vx = new double[n], vy = new double[n], vz = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (random.nextDouble() - 0.5) * 60; y[i] = (random.nextDouble() - 0.5) * 60; z[i] = (random.nextDouble() - 0.5) * 60;
+            vx[i] = random.nextGaussian() * 20; vy[i] = random.nextGaussian() * 20; vz[i] = random.nextGaussian() * 20;
+        }
+
+        // O(N^2) reference: exact closest approach of each pair over the whole window
+        Map<Long, Double> expected = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double rx = x[j] - x[i], ry = y[j] - y[i], rz = z[j] - z[i];
+                double ux = vx[j] - vx[i], uy = vy[j] - vy[i], uz = vz[j] - vz[i];
+                double uu = ux * ux + uy * uy + uz * uz;
+                double t = Math.max(-horizon, Math.min(horizon, -(rx * ux + ry * uy + rz * uz) / uu));
+                double d = Math.sqrt(Math.pow(rx + ux * t, 2) + Math.pow(ry + uy * t, 2) + Math.pow(rz + uz * t, 2));
+                if (d <= threshold) expected.put((long) i * n + j, d);
+            }
+        }
+        assertTrue(expected.size() > 10, "fixture should produce some encounters");
+
+        for (int buckets : new int[]{1, 7, 64}) {
+            PairApproachEngine engine = new PairApproachEngine(n, -horizon, horizon, buckets, threshold);
+            List<PairApproachEngine.Approach> found = engine.find((edge, px, py, pz) -> {
+                double t = -horizon + edge * 2 * horizon / buckets;
+                for (int i = 0; i < n; i++) {
+                    px[i] = x[i] + vx[i] * t; py[i] = y[i] + vy[i] * t; pz[i] = z[i] + vz[i] * t;
+                }
+            });
+            assertEquals(expected.size(), found.size(), "buckets=" + buckets);
+            for (PairApproachEngine.Approach a : found) {
+                Double d = expected.get((long) a.a * n + a.b);
+                assertNotNull(d, "unexpected pair " + a.a + "-" + a.b);
+                assertEquals(d, a.distancePc, 1e-9);
+            }
+            if (buckets == 64) {
+                assertTrue(engine.candidatesTested() < (long) n * n / 20, "index should prune most pairs");
+            }
+        }
+    }
+}
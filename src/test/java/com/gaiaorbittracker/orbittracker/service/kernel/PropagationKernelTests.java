@@ -0,0 +1,59 @@
+package com.gaiaorbittracker.orbittracker.service.kernel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/** The vector kernel against the scalar one; runs under the simd profile (mvn -Psimd test), skipped otherwise. */
+class PropagationKernelTests {
+
+    private static final double MAS_TO_RAD = Math.PI / (180.0 * 3600.0 * 1000.0);
+
+    private final PropagationKernel scalar = new ScalarPropagationKernel();
+
+    @Test
+    void vectorKernelMatchesScalarKernel() {
+        Optional<PropagationKernel> vector = PropagationKernels.vector();
+        assumeTrue(vector.isPresent(), "vector kernel not available (run with -Psimd)");
+
+        Random random = new Random(11);
+        int n = 1027; // not a multiple of any vector length, so the tail is covered too
+        double[] pmra = new double[n], pmdec = new double[n];
+        double[] x = new double[n], y = new double[n], z = new double[n];
+        double[] vx = new double[n], vy = new double[n], vz = new double[n];
+        for (int i = 0; i < n; i++) {
+            pmra[i] = (-546.01 + random.nextGaussian() * 27.3) * MAS_TO_RAD;
+            pmdec[i] = (-1223.07 + random.nextGaussian() * 61.2) * MAS_TO_RAD;
+            x[i] = random.nextGaussian() * 1e5;
+            y[i] = random.nextGaussian() * 1e5;
+            z[i] = random.nextGaussian() * 1e5;
+            vx[i] = random.nextGaussian() * 30;
+            vy[i] = random.nextGaussian() * 30;
+            vz[i] = i % 100 == 0 ? 0 : random.nextGaussian() * 30;
+        }
+        vx[0] = vy[0] = 0; // a star at rest
+
+        double[][] s = run(scalar, pmra, pmdec, x, y, z, vx, vy, vz, n);
+        double[][] v = run(vector.get(), pmra, pmdec, x, y, z, vx, vy, vz, n);
+        String[] names = {"ra", "dec", "separation", "perihelion time", "perihelion distance"};
+        for (int k = 0; k < s.length; k++) {
+            for (int i = 0; i < n; i++) {
+                assertEquals(s[k][i], v[k][i], 1e-12 * Math.max(1.0, Math.abs(s[k][i])), names[k] + " #" + i);
+            }
+        }
+    }
+
+    private static double[][] run(PropagationKernel kernel, double[] pmra, double[] pmdec,
+                                  double[] x, double[] y, double[] z, double[] vx, double[] vy, double[] vz, int n) {
+        double[] ra = new double[n], dec = new double[n], sep = new double[n], t = new double[n], d = new double[n];
+        // a long horizon, so separations are degrees and acos is well conditioned
+        kernel.linearAstrometry(Math.toRadians(101.287155), Math.toRadians(-16.716116), 50_000.0, pmra, pmdec, ra, dec, n);
+        kernel.angularSeparationArcsec(101.287155, -16.716116, ra, dec, sep, n);
+        kernel.linearPerihelion(x, y, z, vx, vy, vz, -1e4, 1e4, t, d, n);
+        return new double[][]{ra, dec, sep, t, d};
+    }
+}
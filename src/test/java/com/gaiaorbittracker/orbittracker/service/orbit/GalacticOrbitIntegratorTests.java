@@ -0,0 +1,77 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GalacticOrbitIntegratorTests {
+
+    private static final GalacticForceGrid GRID = new GalacticForceGrid();
+
+    @Test
+    void frameRoundTripsAstrometry() {
+        double[] obs = new double[5];
+        // Sirius, Barnard's star, a distant star at the pole side of the disk
+        double[][] stars = {
+            {101.287155, -16.716116, 379.21, -546.01, -1223.07, -5.5},
+            {269.452075, 4.693391, 546.98, -802.80, 10362.54, -110.6},
+            {10.0, 85.0, 0.5, 3.1, -2.4, 40.0}
+        };
+        for (double[] s : stars) {
+            double[] state = GalacticFrame.toGalactocentric(s[0], s[1], s[2], s[3], s[4], s[5]);
+            GalacticFrame.toObservables(state, 0, GalacticFrame.sunState(), 0, obs);
+            double d = 1.0 / s[2];
+            assertEquals(s[0], obs[0], 1e-9);
+            assertEquals(s[1], obs[1], 1e-9);
+            assertEquals(d, obs[2], 1e-12 * d);
+            assertEquals(s[5], obs[3], 1e-9);
+            assertEquals(GalacticFrame.K_PM * Math.hypot(s[3], s[4]) * d, obs[4], 1e-9);
+        }
+    }
+
+    @Test
+    void gridForceMatchesAnalyticForce() {
+        Random random = new Random(3);
+        double[] grid = new double[3];
+        double[] analytic = new double[2];
+        for (int i = 0; i < 10_000; i++) {
+            // away from the centre, where the bulge cusp is steeper than the 0.05 kpc cells
+            double r = 1.0 + random.nextDouble() * 38.0;
+            double phi = random.nextDouble() * 2 * Math.PI;
+            double z = (random.nextDouble() - 0.5) * 19.0;
+            GRID.acceleration(r * Math.cos(phi), r * Math.sin(phi), z, grid);
+            GalacticPotential.force(r, z, analytic);
+            double gridR = grid[0] * Math.cos(phi) + grid[1] * Math.sin(phi);
+            double scale = Math.hypot(analytic[0], analytic[1]);
+            assertEquals(analytic[0], gridR, 1e-3 * scale, "a_R at R=" + r + " z=" + z);
+            assertEquals(analytic[1], grid[2], 1e-3 * scale, "a_z at R=" + r + " z=" + z);
+        }
+        // outside the grid the analytic model is used as is
+        GRID.acceleration(60.0, 0.0, 2.0, grid);
+        GalacticPotential.force(60.0, 2.0, analytic);
+        assertEquals(analytic[0], grid[0], 0.0);
+        assertEquals(analytic[1], grid[2], 0.0);
+    }
+
+    @Test
+    void leapfrogConservesEnergyOverAGigayear() {
+        GalacticOrbitIntegrator integrator = new GalacticOrbitIntegrator(GRID);
+        // a mildly eccentric, inclined disk orbit near the Sun
+        double[] state0 = GalacticFrame.toGalactocentric(101.287155, -16.716116, 0.5, 30.0, -20.0, 40.0);
+        double[] track = integrator.integrate(state0, 1000.0, 200);
+        double e0 = energy(track, 0);
+        double worst = 0;
+        for (int i = 1; i <= 200; i++) worst = Math.max(worst, Math.abs(energy(track, i * 6) - e0));
+        assertTrue(worst < 1e-4 * Math.abs(e0), "relative energy error " + worst / Math.abs(e0));
+        // and a radius that stayed in the disk: energy is not conserved by a star flying off
+        assertTrue(Math.hypot(track[200 * 6], track[200 * 6 + 1]) < 20.0);
+    }
+
+    private static double energy(double[] s, int o) {
+        double v2 = s[o + 3] * s[o + 3] + s[o + 4] * s[o + 4] + s[o + 5] * s[o + 5];
+        return 0.5 * v2 + GalacticPotential.potential(Math.hypot(s[o], s[o + 1]), s[o + 2]);
+    }
+}
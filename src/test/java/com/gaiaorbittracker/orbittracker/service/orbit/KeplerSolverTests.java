@@ -0,0 +1,58 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeplerSolverTests {
+
+    @Test
+    void solvesKeplerEquationAcrossEccentricities() {
+        Random random = new Random(7);
+        double[] sinCos = new double[2];
+        for (double e : new double[]{0.0, 0.13, 0.5, 0.9, 0.99, 0.999}) {
+            KeplerSolver solver = new KeplerSolver(e);
+            for (int i = 0; i < 10_000; i++) {
+                double m = (random.nextDouble() - 0.5) * 200.0;
+                double ecc = solver.solve(m, sinCos);
+                double mReduced = ((m % (2 * Math.PI)) + 2 * Math.PI) % (2 * Math.PI);
+                assertEquals(mReduced, ecc - e * Math.sin(ecc), 1e-12, "e=" + e + " M=" + m);
+                assertEquals(Math.sin(ecc), sinCos[0], 1e-14);
+                assertEquals(Math.cos(ecc), sinCos[1], 1e-14);
+            }
+        }
+    }
+
+    @Test
+    void binaryOrbitReturnsToStartAfterOnePeriod() {
+        BinaryOrbitEngine engine = new BinaryOrbitEngine(50.0, 0.59, 136.5, 147.3, 44.6, 1994.57, 10.0, 2.64);
+        double[] a = new double[3];
+        double[] b = new double[3];
+        engine.evaluate(3.2, a);
+        engine.evaluate(53.2, b);
+        for (int k = 0; k < 3; k++) assertEquals(a[k], b[k], 1e-9);
+        // offsets stay within the apoastron distance: a (1 + e) = 10 AU * 1.59 at 2.64 pc
+        assertTrue(Math.hypot(a[0], a[1]) <= 10.0 * 1.59 / 2.64 * 1000.0 + 1e-6);
+    }
+
+    @Test
+    void primaryReflexOrbitIsOppositeTheSecondary() {
+        Map<String, Object> alphaCen = Map.of("orbitalPeriod", 79.91, "eccentricity", 0.5179, "inclination", 79.32,
+            "argumentOfPeriastron", 232.3, "epochOfPeriastron", 1955.66);
+        BinaryOrbitEngine primary = BinaryOrbitEngine.fromStarData(alphaCen, 1.34);
+        // the secondary's orbit about the barycentre, with the catalogued omega
+        double halfAxisAu = 0.5 * Math.cbrt(BinaryOrbitEngine.DEFAULT_SYSTEM_MASS_MSUN * 79.91 * 79.91);
+        BinaryOrbitEngine secondary = new BinaryOrbitEngine(79.91, 0.5179, 79.32, 232.3, 0.0, 1955.66, halfAxisAu, 1.34);
+        double[] p = new double[3];
+        double[] s = new double[3];
+        for (double t = 0; t < 80; t += 7.3) {
+            primary.evaluate(t, p);
+            secondary.evaluate(t, s);
+            for (int k = 0; k < 3; k++) assertEquals(-s[k], p[k], 1e-9);
+        }
+    }
+}
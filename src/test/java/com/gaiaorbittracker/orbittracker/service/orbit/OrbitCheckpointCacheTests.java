@@ -0,0 +1,64 @@
+package com.gaiaorbittracker.orbittracker.service.orbit;
+
+import com.gaiaorbittracker.orbittracker.service.CancellationToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrbitCheckpointCacheTests {
+
+    private static final double STEP = GalacticOrbitIntegrator.DEFAULT_MAX_STEP_MYR;
+
+    private static GalacticOrbitIntegrator integrator;
+    private static double[] vega;
+
+    @BeforeAll
+    static void setUp() {
+        integrator = new GalacticOrbitIntegrator(new GalacticForceGrid());
+        vega = GalacticFrame.toGalactocentric(279.234734, 38.783689, 130.23, 200.94, 286.23, -13.9);
+    }
+
+    @Test
+    void extendedAndRefinedRunsMatchAFreshChainExactly() {
+        OrbitCheckpointCache warm = cache(1 << 24);
+        integrator.integrate(warm.chain(vega, STEP), 100.0, 100, CancellationToken.NONE);
+        int checkpoints = warm.chain(vega, STEP).checkpoints();
+        assertEquals(100.0 / STEP / OrbitCheckpointCache.EVERY, checkpoints - 1, 1.0);
+
+        double[] extended = integrator.integrate(warm.chain(vega, STEP), 300.0, 300, CancellationToken.NONE);
+        double[] refined = integrator.integrate(warm.chain(vega, STEP), 300.0, 777, CancellationToken.NONE);
+
+        assertArrayEquals(integrator.integrate(cache(1 << 24).chain(vega, STEP), 300.0, 300, CancellationToken.NONE),
+            extended);
+        assertArrayEquals(integrator.integrate(cache(0).chain(vega, STEP), 300.0, 777, CancellationToken.NONE),
+            refined);
+        assertTrue(warm.chain(vega, STEP).checkpoints() > checkpoints);
+    }
+
+    @Test
+    void agreesWithTheSubsteppedIntegratorOnAlignedGrids() {
+        for (double span : new double[]{250.0, -250.0}) {
+            double[] chained = integrator.integrate(cache(1 << 24).chain(vega, Math.copySign(STEP, span)), span, 250,
+                CancellationToken.NONE);
+            assertArrayEquals(integrator.integrate(vega, span, 250), chained, 1e-9);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedChainsOverTheByteBound() {
+        OrbitCheckpointCache small = cache(1000);
+        double[] sun = GalacticFrame.sunState();
+        integrator.integrate(small.chain(vega, STEP), 100.0, 10, CancellationToken.NONE);
+        integrator.integrate(small.chain(sun, STEP), 100.0, 10, CancellationToken.NONE);
+        assertTrue(small.sizeBytes() <= 1000);
+        assertEquals(1, small.chain(vega, STEP).checkpoints()); // evicted, so a new chain
+    }
+
+    private static OrbitCheckpointCache cache(long maxBytes) {
+        return new OrbitCheckpointCache(maxBytes, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,83 @@
+package com.gaiaorbittracker.orbittracker.service.queue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobQueueTests {
+
+    @Test
+    void interleavesClientsAndPrefersInteractive() throws InterruptedException {
+        JobQueue queue = new JobQueue(100, 0, new SimpleMeterRegistry());
+        queue.offerAll(ids(20), "bulk-a", JobPriority.BULK);
+        queue.offerAll(ids(3), "alice", JobPriority.INTERACTIVE);
+        queue.offerAll(ids(3), "bob", JobPriority.INTERACTIVE);
+
+        List<String> order = new ArrayList<>();
+        for (int i = 0; i < 6; i++) order.add(queue.take().getClientId());
+        assertEquals(List.of("alice", "bob", "alice", "bob", "alice", "bob"), order);
+        assertEquals(20, queue.depth(JobPriority.BULK));
+    }
+
+    @Test
+    void bulkGetsAShareWhileInteractiveIsWaiting() throws InterruptedException {
+        JobQueue queue = new JobQueue(1000, 0, new SimpleMeterRegistry());
+        queue.offerAll(ids(100), "batch", JobPriority.BULK);
+        queue.offerAll(ids(100), "ui", JobPriority.INTERACTIVE);
+        int bulk = 0;
+        for (int i = 0; i < 80; i++) {
+            if (queue.take().getPriority() == JobPriority.BULK) bulk++;
+        }
+        assertEquals(80 / JobQueue.BULK_SHARE, bulk);
+    }
+
+    @Test
+    void rejectsWholeBatchWhenFull() {
+        JobQueue queue = new JobQueue(10, 0, new SimpleMeterRegistry());
+        queue.offerAll(ids(8), "a", JobPriority.BULK);
+        QueueFullException e = assertThrows(QueueFullException.class, () -> queue.offerAll(ids(3), "b", JobPriority.BULK));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(8, queue.size());
+        assertThrows(QueueFullException.class, () -> queue.reserve(3, JobPriority.INTERACTIVE));
+        queue.reserve(1, JobPriority.INTERACTIVE);
+        assertThrows(QueueFullException.class, () -> queue.offerAll(ids(2), "c", JobPriority.INTERACTIVE));
+        queue.offerReserved(List.of(UUID.randomUUID()), "c", JobPriority.INTERACTIVE);
+        assertEquals(9, queue.size());
+    }
+
+    @Test
+    void keepsRoomForInteractiveWhenBulkFillsUp() {
+        JobQueue queue = new JobQueue(100, 10, new SimpleMeterRegistry());
+        queue.offerAll(ids(90), "batch", JobPriority.BULK);
+        assertThrows(QueueFullException.class, () -> queue.offerAll(ids(1), "batch", JobPriority.BULK));
+        assertThrows(QueueFullException.class, () -> queue.reserve(1, JobPriority.BULK));
+        queue.offerAll(ids(10), "ui", JobPriority.INTERACTIVE);
+        assertEquals(100, queue.size());
+        assertThrows(QueueFullException.class, () -> queue.offer(UUID.randomUUID(), "ui", JobPriority.INTERACTIVE));
+    }
+
+    @Test
+    void batchLargerThanItsClassCanHoldIsTooLargeNotFull() {
+        JobQueue queue = new JobQueue(100, 10, new SimpleMeterRegistry());
+        assertEquals(90, queue.maxAdmission(JobPriority.BULK));
+        assertEquals(100, queue.maxAdmission(JobPriority.INTERACTIVE));
+        BatchTooLargeException e = assertThrows(BatchTooLargeException.class, () -> queue.reserve(91, JobPriority.BULK));
+        assertEquals(90, e.getMaxBatchSize());
+        assertThrows(BatchTooLargeException.class, () -> queue.offerAll(ids(101), "ui", JobPriority.INTERACTIVE));
+        assertEquals(0, queue.size());
+        queue.reserve(90, JobPriority.BULK);
+    }
+
+    private static List<UUID> ids(int n) {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(UUID.randomUUID());
+        return ids;
+    }
+}